@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot;
+
+import PolyGlot.ManagersCollections.DeclensionRegeneration;
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.TypeNode;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line entry point for processing PGD files without any GUI. Nothing
+ * here touches Swing or JavaFX, and AWT is forced headless, so it starts
+ * quickly and runs on servers. Files are processed in parallel, each with its
+ * own DictCore.
+ *
+ * @author draque.thompson
+ */
+public class BatchRunner {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_ILLEGAL_WORDS = 2;
+    public static final int EXIT_USAGE = 3;
+
+    private static final String USAGE = "Usage: java -cp PolyGlot.jar PolyGlot.BatchRunner [options] file.pgd...\n"
+            + "  --validate       list illegal words (exit code " + EXIT_ILLEGAL_WORDS + " if any are found)\n"
+            + "  --recalc-procs   recalculate pronunciations not overridden by hand\n"
+            + "  --regen-decl     regenerate automatic declensions not overridden by hand\n"
+            + "  --report         write language statistics report as <name>.report.html\n"
+            + "  --check-stats    verify live word statistics against a full recount\n"
+            + "  --pdf            export dictionary as <name>.pdf\n"
+            + "  --save           write dictionary back out after processing\n"
+            + "  --out <dir>      directory for written files (default: beside each input)\n"
+            + "  --threads <n>    number of files to process at once (default: processor count)";
+
+    private boolean validate = false;
+    private boolean recalcProcs = false;
+    private boolean regenDecl = false;
+    private boolean report = false;
+    private boolean checkStats = false;
+    private boolean pdf = false;
+    private boolean save = false;
+    private String outDir = "";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private final List<String> files = new ArrayList<>();
+
+    public static void main(String[] args) {
+        // must be set before anything initializes AWT
+        System.setProperty("java.awt.headless", "true");
+
+        BatchRunner runner = new BatchRunner();
+
+        try {
+            runner.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+        }
+
+        System.exit(runner.run());
+    }
+
+    /**
+     * Reads options and file names from command line arguments
+     *
+     * @param args command line arguments
+     * @throws IllegalArgumentException on bad arguments
+     */
+    public void parseArgs(String[] args) throws IllegalArgumentException {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            switch (arg) {
+                case "--validate":
+                    validate = true;
+                    break;
+                case "--recalc-procs":
+                    recalcProcs = true;
+                    break;
+                case "--regen-decl":
+                    regenDecl = true;
+                    break;
+                case "--report":
+                    report = true;
+                    break;
+                case "--check-stats":
+                    checkStats = true;
+                    break;
+                case "--pdf":
+                    pdf = true;
+                    break;
+                case "--save":
+                    save = true;
+                    break;
+                case "--out":
+                    if (++i == args.length) {
+                        throw new IllegalArgumentException("--out requires a directory.");
+                    }
+                    outDir = args[i];
+                    break;
+                case "--threads":
+                    if (++i == args.length) {
+                        throw new IllegalArgumentException("--threads requires a number.");
+                    }
+                    try {
+                        threads = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Bad thread count: " + args[i]);
+                    }
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("Thread count must be at least 1.");
+                    }
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    files.add(arg);
+            }
+        }
+
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No files given.");
+        }
+
+        if (!outDir.isEmpty() && !new File(outDir).isDirectory()) {
+            throw new IllegalArgumentException("Output directory does not exist: " + outDir);
+        }
+    }
+
+    /**
+     * Processes all files, printing each file's log as it completes (in the
+     * order given)
+     *
+     * @return exit code: failure if any file failed, otherwise illegal words
+     * if any were found, otherwise OK
+     */
+    public int run() {
+        int ret = EXIT_OK;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        List<Future<FileResult>> results = new ArrayList<>();
+
+        try {
+            for (final String fileName : files) {
+                results.add(pool.submit(new Callable<FileResult>() {
+                    @Override
+                    public FileResult call() {
+                        return processFile(fileName);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                FileResult result;
+
+                try {
+                    result = results.get(i).get();
+                } catch (InterruptedException | ExecutionException e) {
+                    result = new FileResult(files.get(i) + ":\n  FAILED: " + e.getLocalizedMessage() + "\n", EXIT_FAILED);
+                }
+
+                System.out.print(result.log);
+
+                // failures outrank illegal words, which outrank success
+                if (result.status == EXIT_FAILED
+                        || (result.status == EXIT_ILLEGAL_WORDS && ret == EXIT_OK)) {
+                    ret = result.status;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Runs all requested steps on a single file
+     *
+     * @param fileName PGD file to process
+     * @return log of processing and status code
+     */
+    private FileResult processFile(String fileName) {
+        StringBuilder log = new StringBuilder(fileName + ":\n");
+        int status = EXIT_OK;
+        DictCore core = new DictCore();
+
+        try {
+            try {
+                core.readFile(fileName);
+            } catch (IllegalStateException e) {
+                // recoverable: log and carry on
+                log.append("  warning: ").append(e.getLocalizedMessage().trim().replace("\n", "\n  warning: ")).append("\n");
+            }
+
+            log.append("  loaded ").append(core.getWordCollection().getWordCount()).append(" words\n");
+
+            if (recalcProcs) {
+                core.getWordCollection().recalcAllProcs();
+                log.append("  recalculated pronunciations\n");
+            }
+
+            if (regenDecl) {
+                DeclensionRegeneration regen = core.getDeclensionManager()
+                        .createRegeneration(core.getWordCollection().getWordNodes());
+                List<DeclensionRegeneration.FormChange> changes = regen.run();
+
+                // listed before writing, so the log shows what was overwritten
+                for (DeclensionRegeneration.FormChange change : changes) {
+                    log.append("  declension change: ")
+                            .append(core.getWordCollection().getNodeById(change.wordId).getValue())
+                            .append(" (id ").append(change.wordId).append(") ")
+                            .append(change).append("\n");
+                }
+
+                log.append("  regenerated declensions: ").append(regen.commit())
+                        .append(" of ").append(changes.size()).append(" changed forms written\n");
+            }
+
+            if (validate) {
+                int illegal = 0;
+
+                for (TypeNode curType : core.getTypes().getNodes()) {
+                    String patternError = curType.getPatternError();
+                    if (!patternError.equals("")) {
+                        log.append("  malformed pattern for type ").append(curType.getValue())
+                                .append(" (not enforced): ").append(patternError).append("\n");
+                    }
+                }
+
+                Iterator<ConWord> illegalIt = core.getWordCollection().illegalFilter();
+
+                while (illegalIt.hasNext()) {
+                    ConWord curWord = illegalIt.next();
+                    log.append("  illegal word: ").append(curWord.getValue())
+                            .append(" (id ").append(curWord.getId()).append(")")
+                            .append(getIllegalReasons(core, curWord)).append("\n");
+                    illegal++;
+                }
+
+                log.append("  ").append(illegal).append(" illegal words\n");
+                status = illegal == 0 ? status : EXIT_ILLEGAL_WORDS;
+            }
+
+            if (checkStats) {
+                List<String> problems = core.getWordCollection().verifyStatistics();
+
+                for (String problem : problems) {
+                    log.append("  statistics mismatch: ").append(problem).append("\n");
+                }
+
+                log.append("  statistics ").append(problems.isEmpty() ? "consistent" : "INCONSISTENT").append("\n");
+                status = problems.isEmpty() ? status : EXIT_FAILED;
+            }
+
+            if (report) {
+                String reportFile = getOutputFile(fileName, ".report.html");
+                IOHandler.exportLanguageReport(core, reportFile, PGTUtil.reportHeatMapPageSize);
+                log.append("  wrote report to ").append(reportFile).append("\n");
+            }
+
+            if (pdf) {
+                String pdfFile = getOutputFile(fileName, ".pdf");
+                long pdfStart = System.currentTimeMillis();
+                PExportToPDF export = new PExportToPDF(core, pdfFile);
+
+                export.setTitleText(core.conLabel());
+                export.setPrintConLocal(true);
+                export.setPrintLocalCon(true);
+                export.setPrintOrtho(true);
+                export.setPrintGrammar(true);
+                export.setPrintGlossKey(true);
+                export.setPrintPageNumber(true);
+                export.print();
+
+                if (!export.getLog().equals("")) {
+                    log.append("  PDF warning: ").append(export.getLog().trim().replace("\n", "\n  PDF warning: ")).append("\n");
+                }
+                log.append("  wrote PDF to ").append(pdfFile).append(" (")
+                        .append(export.getPageCount()).append(" pages, ")
+                        .append(System.currentTimeMillis() - pdfStart).append(" ms)\n");
+            }
+
+            if (save) {
+                String saveFile = outDir.isEmpty() ? fileName
+                        : new File(outDir, new File(fileName).getName()).getPath();
+                core.writeFile(saveFile);
+                log.append("  saved to ").append(saveFile).append("\n");
+            }
+        } catch (Exception e) {
+            log.append("  FAILED: ").append(e.getLocalizedMessage() == null
+                    ? e.toString() : e.getLocalizedMessage()).append("\n");
+            status = EXIT_FAILED;
+        }
+
+        return new FileResult(log.toString(), status);
+    }
+
+    /**
+     * Gets reasons a word is illegal, formatted for the log
+     */
+    private static String getIllegalReasons(DictCore core, ConWord word) {
+        ConWord reasons = core.getWordCollection().testWordLegality(word);
+        String ret = "";
+
+        for (String reason : new String[]{reasons.getValue(), reasons.getLocalWord(),
+            reasons.typeError, reasons.getDefinition()}) {
+            for (String line : reason.split("\n")) {
+                if (!line.trim().equals("")) {
+                    ret += "\n    " + line.trim();
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets path of file derived from an input file, in the output directory if
+     * one was given, otherwise beside the input
+     *
+     * @param fileName input file
+     * @param suffix suffix replacing input file's extension
+     * @return path of output file
+     */
+    private String getOutputFile(String fileName, String suffix) {
+        File inFile = new File(fileName);
+        String name = inFile.getName();
+        int dot = name.lastIndexOf('.');
+        name = (dot > 0 ? name.substring(0, dot) : name) + suffix;
+
+        return outDir.isEmpty() ? new File(inFile.getAbsoluteFile().getParentFile(), name).getPath()
+                : new File(outDir, name).getPath();
+    }
+
+    /**
+     * Outcome of processing a single file
+     */
+    private static class FileResult {
+
+        final String log;
+        final int status;
+
+        FileResult(String _log, int _status) {
+            log = _log;
+            status = _status;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package PolyGlot;
 
 import PolyGlot.Nodes.DeclensionGenTransform;
 import PolyGlot.Nodes.DeclensionGenRule;
+import PolyGlot.Nodes.DeclensionCombinedId;
 import PolyGlot.Nodes.ConWord;
 import PolyGlot.Nodes.PronunciationNode;
 import PolyGlot.Nodes.LogoNode;
@@ -543,7 +544,7 @@ public class CustHandlerFactory {
 
                     // skip insertion of empty
                     if (!declensionMgr.getBuffer().getValue().trim().equals("")) {
-                        declensionMgr.getBuffer().setCombinedDimId("," + wId + "," + PGTUtil.wordPlurXID + ",");
+                        declensionMgr.getBuffer().setCombinedDimId(DeclensionCombinedId.parse("," + wId + "," + PGTUtil.wordPlurXID + ","));
                         declensionMgr.addDeclensionToWord(wId, Integer.MAX_VALUE, declensionMgr.getBuffer());
                     }
 
@@ -909,7 +910,7 @@ public class CustHandlerFactory {
                     declensionMgr.setBufferDecTemp(new String(ch, start, length).equals("1"));
                     bDecIsTemp = false;
                 } else if (bDecCombId) {
-                    declensionMgr.getBuffer().setCombinedDimId(new String(ch, start, length));
+                    declensionMgr.getBuffer().setCombinedDimId(DeclensionCombinedId.parse(new String(ch, start, length)));
                     bDecIsTemp = false;
                 } else if (bDecRelId) {
                     declensionMgr.setBufferRelId(Integer.parseInt(new String(ch, start, length)));
@@ -989,7 +990,7 @@ public class CustHandlerFactory {
                     core.getPropertiesManager().setDisableProcRegex(new String(ch, start, length).equals(PGTUtil.True));
                     bdisableProcRegex = false;
                 } else if (bdecGenRuleComb) {
-                    core.getDeclensionManager().getRuleBuffer().setCombinationId(new String(ch, start, length));
+                    core.getDeclensionManager().getRuleBuffer().setCombinationId(DeclensionCombinedId.parse(new String(ch, start, length)));
                     bdecGenRuleComb = false;
                 } else if (bdecGenRuleName) {
                     DeclensionGenRule ruleBuffer = core.getDeclensionManager().getRuleBuffer();
@@ -1014,7 +1015,7 @@ public class CustHandlerFactory {
                 } else if (bcombinedFormId) {
                     combinedDecId += new String(ch, start, length);
                 } else if (bcombinedFormSurpress) {
-                    core.getDeclensionManager().setCombinedDeclSurpressed(combinedDecId,
+                    core.getDeclensionManager().setCombinedDeclSurpressed(DeclensionCombinedId.parse(combinedDecId),
                             new String(ch, start, length).equals(PGTUtil.True));
                 } else if (blogoStrokes) {
                     try {
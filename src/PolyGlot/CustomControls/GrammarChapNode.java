@@ -20,6 +20,7 @@
 package PolyGlot.CustomControls;
 
 import PolyGlot.ManagersCollections.GrammarManager;
+import PolyGlot.ManagersCollections.GrammarSearchIndex;
 import java.util.Enumeration;
 import java.util.Vector;
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -83,11 +84,9 @@ public class GrammarChapNode extends DefaultMutableTreeNode {
         } else if (children.elementAt(0) instanceof GrammarSectionNode) {
             Vector<GrammarSectionNode> v = new Vector<>();
 
-            for (Object curObject : children.toArray()) {
-                GrammarSectionNode curNode = (GrammarSectionNode)curObject;
-                if (curNode.getName().toLowerCase().contains(filter.toLowerCase())
-                        || curNode.getSectionText().toLowerCase().contains(filter.toLowerCase())) {
-                    v.add(curNode);
+            for (GrammarSearchIndex.Hit hit : parentManager.search(filter)) {
+                if (hit.getChapter() == this) {
+                    v.add(hit.getSection());
                 }
             }
 
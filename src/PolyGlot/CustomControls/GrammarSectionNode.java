@@ -48,6 +48,7 @@ public class GrammarSectionNode extends DefaultMutableTreeNode {
     
     public void setName(String _name) {
         name = _name;
+        manager.sectionChanged(this);
     }
     public String getName() {
         return name;
@@ -63,6 +64,7 @@ public class GrammarSectionNode extends DefaultMutableTreeNode {
     
     public void setSectionText(String _sectionText) {
         sectionText = _sectionText;
+        manager.sectionChanged(this);
     }
     public String getSectionText() {
         return sectionText;
@@ -74,6 +76,12 @@ public class GrammarSectionNode extends DefaultMutableTreeNode {
     public byte[] getRecording() throws Exception {
         return manager.getRecording(recordingId);
     }
+    public byte[] getEncodedRecording() throws Exception {
+        return manager.getEncodedRecording(recordingId);
+    }
+    public boolean hasRecording() {
+        return manager.hasRecording(recordingId);
+    }
     
     @Override
     public String toString() {
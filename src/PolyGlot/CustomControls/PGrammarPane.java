@@ -135,7 +135,7 @@ public class PGrammarPane extends JTextPane {
         try {
             MutableAttributeSet inputAttributes = getInputAttributes();
             inputAttributes.removeAttributes(inputAttributes);
-            StyleConstants.setIcon(inputAttributes, new ImageIcon(image.getImagePath()));
+            StyleConstants.setIcon(inputAttributes, new ImageIcon(image.getImage()));
             inputAttributes.addAttribute(PGTUtil.ImageIdAttribute, image.getId());
             replaceSelection(" ", false);
             inputAttributes.removeAttributes(inputAttributes);
@@ -257,8 +257,8 @@ public class PTextPane extends JTextPane {
 
         super.paste();
         String newText = getRawHTML();
-        String imagePath = image.getImagePath();
-        imagePath = "<img src=\"file:///" + imagePath + "\">";
+        String imagePath = core.getImageCollection().getImageURL(image);
+        imagePath = "<img src=\"" + imagePath + "\">";
         setText(newText.replace(placeHold, imagePath));
         test.restoreClipboard();
     }
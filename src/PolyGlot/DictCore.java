@@ -39,6 +39,8 @@ import java.awt.Color;
 import java.awt.FontFormatException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -69,7 +71,7 @@ public class DictCore {
     public DictCore() {
         wordCollection = new ConWordCollection(this);
         typeCollection = new TypeCollection(this);
-        declensionMgr = new DeclensionManager();
+        declensionMgr = new DeclensionManager(this);
         propertiesManager = new PropertiesManager();
         pronuncMgr = new PronunciationMgr(this);
         famManager = new FamilyManager(this);
@@ -286,19 +288,39 @@ public class DictCore {
     }
 
     /**
-     * Builds a report on the conlang. Potentially very computationally
-     * expensive.
+     * Builds a report on the conlang. Word statistics are maintained as the
+     * lexicon changes, so this only renders them.
      *
      * @return String formatted report
      */
     public String buildLanguageReport() {
-        String ret = ConWordCollection.formatPlain("<center>---LANGUAGE STAT REPORT---</center><br><br>");
+        StringWriter ret = new StringWriter();
 
-        ret += propertiesManager.buildPropertiesReport();
+        try {
+            writeLanguageReport(ret, 0);
+        } catch (IOException e) {
+            // writing to memory; cannot happen
+            throw new IllegalStateException(e);
+        }
 
-        ret += wordCollection.buildWordReport();
+        return ret.toString();
+    }
 
-        return ret;
+    /**
+     * Streams report on the conlang section by section, so that it never needs
+     * to be held in memory whole
+     *
+     * @param out writer to stream report to
+     * @param pageSize maximum rows and columns per heat map table, larger maps
+     * being split. 0 for no limit.
+     * @throws IOException on write failure
+     */
+    public void writeLanguageReport(Writer out, int pageSize) throws IOException {
+        out.write(ConWordCollection.formatPlain("<center>---LANGUAGE STAT REPORT---</center><br><br>"));
+
+        propertiesManager.writePropertiesReport(out);
+
+        wordCollection.writeWordReport(out, pageSize);
     }
 
     /**
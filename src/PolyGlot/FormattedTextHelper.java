@@ -20,22 +20,23 @@
 package PolyGlot;
 
 import PolyGlot.CustomControls.InfoBox;
-import PolyGlot.CustomControls.PGrammarPane;
+import PolyGlot.CustomControls.PGDocument;
 import PolyGlot.Nodes.ImageNode;
 import java.awt.Color;
 import java.awt.Font;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
+import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JTextPane;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
-import javax.swing.text.Document;
 import javax.swing.text.Element;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
 
 /**
  * This is a helper class, which deals with formatted text in Java
@@ -62,17 +63,31 @@ public class FormattedTextHelper {
      * @throws javax.swing.text.BadLocationException if unable to load
      */
     public static void restoreFromString(String savedVal, JTextPane pane, DictCore core) throws BadLocationException {
-        String remaining = savedVal;
-        pane.setText("");
+        pane.setStyledDocument(buildDocument(savedVal, core));
+    }
+    
+    /**
+     * Builds a document holding the formatted text values encoded in the saved
+     * value string. The document is not attached to any pane, so this may be
+     * run off the EDT: swap the result in with setStyledDocument().
+     * @param savedVal value to restore formatted text from
+     * @param core Dictionary Core (needed for references)
+     * @return document of formatted text
+     * @throws javax.swing.text.BadLocationException if unable to load
+     */
+    public static StyledDocument buildDocument(String savedVal, DictCore core) throws BadLocationException {
+        Font conFont = core.getPropertiesManager().getFontCon();
+        boolean enforceRTL = core.getPropertiesManager().isEnforceRTL();
+        PGDocument doc = new PGDocument(conFont);
+        NodeCursor nodes = new NodeCursor(savedVal);
         Color fontColor = Color.black;
         String font = "";
         int fontSize = -1;
+        
+        doc.addStyle("default", null); // default style makes word wrap active
                 
-        while (!remaining.isEmpty()) {
-            String nextNode = getNextNode(remaining);
-            Font conFont = core.getPropertiesManager().getFontCon();
-            
-            remaining = remaining.substring(nextNode.length(), remaining.length());
+        while (nodes.hasNext()) {
+            String nextNode = nodes.next();
             
             if (nextNode.startsWith("<font")) {
                 
@@ -90,23 +105,24 @@ public class FormattedTextHelper {
                 Integer id = Integer.parseInt(idString);
                 try {
                     ImageNode imageNode = (ImageNode)core.getImageCollection().getNodeById(id);
-                    ((PGrammarPane)pane).addImage(imageNode);
+                    MutableAttributeSet aset = new SimpleAttributeSet();
+                    StyleConstants.setIcon(aset, new ImageIcon(imageNode.getImage()));
+                    aset.addAttribute(PGTUtil.ImageIdAttribute, imageNode.getId());
+                    doc.insertString(doc.getLength(), " ", aset);
                 } catch (Exception e) {
                     InfoBox.error("Image Load Error", "Unable to load image: " 
                             + e.getLocalizedMessage(), null);
                 }                
             } else {
-                Document doc = pane.getDocument();
-                
                 MutableAttributeSet aset = new SimpleAttributeSet();
                 if (font.equals(PGTUtil.conLangFont)) {
-                    if (core.getPropertiesManager().isEnforceRTL()) {
+                    if (enforceRTL) {
                         nextNode = PGTUtil.RTLMarker + nextNode;
                     }
                     StyleConstants.setFontFamily(aset, conFont.getFamily());
                 } else {
                     // TODO: In the future, consider whether to leverege this logic to allow arbitrary fonts in grammar section text
-                    if (core.getPropertiesManager().isEnforceRTL()) {
+                    if (enforceRTL) {
                         nextNode = PGTUtil.LTRMarker + nextNode;
                     }
                     if (!font.equals("")) {
@@ -125,6 +141,8 @@ public class FormattedTextHelper {
                 }
             }
         }
+        
+        return doc;
     }
     
     /**
@@ -135,16 +153,17 @@ public class FormattedTextHelper {
      * @return ordered list of text
      */
     public static List<Entry<String, PFontInfo>> getSectionTextFontSpecifec(String savedVal, DictCore core) {
-        String remaining = savedVal;
+        Font conLangFont = core.getPropertiesManager().getFontCon();
+        boolean enforceRTL = core.getPropertiesManager().isEnforceRTL();
+        Font defaultFont = null;
+        NodeCursor nodes = new NodeCursor(savedVal);
         String font = "";
         List<Entry<String, PFontInfo>> ret = new ArrayList();
         PFontInfo conFont = new PFontInfo();
                 
-        while (!remaining.isEmpty()) {
-            String nextNode = getNextNode(remaining);
-            conFont.awtFont = core.getPropertiesManager().getFontCon();
-            
-            remaining = remaining.substring(nextNode.length(), remaining.length());
+        while (nodes.hasNext()) {
+            String nextNode = nodes.next();
+            conFont.awtFont = conLangFont;
             
             if (nextNode.startsWith("<font")) {                
                 font = extractFamily(nextNode);
@@ -153,15 +172,21 @@ public class FormattedTextHelper {
             } else if (nextNode.startsWith("</font")) {
                 // do nothing. All font changes are prefixed with<font
             } else {
-                if (font.equals(conFont.awtFont.getFamily()) && core.getPropertiesManager().isEnforceRTL()) {
+                if (font.equals(conFont.awtFont.getFamily()) && enforceRTL) {
                     nextNode = PGTUtil.RTLMarker + nextNode;
-                } else if (core.getPropertiesManager().isEnforceRTL()) {
+                } else if (enforceRTL) {
                     nextNode = PGTUtil.LTRMarker + nextNode;
                 }
                 
                 if (!nextNode.equals("")){
-                    conFont.awtFont = font.equals(core.getPropertiesManager().getFontCon().getFamily()) ? 
-                            core.getPropertiesManager().getFontCon() : new JLabel().getFont();
+                    if (font.equals(conLangFont.getFamily())) {
+                        conFont.awtFont = conLangFont;
+                    } else {
+                        if (defaultFont == null) {
+                            defaultFont = new JLabel().getFont();
+                        }
+                        conFont.awtFont = defaultFont;
+                    }
                     ret.add(new SecEntry(nextNode, conFont));
                     conFont = new PFontInfo();
                 }
@@ -171,6 +196,32 @@ public class FormattedTextHelper {
         return ret;
     }
     
+    /**
+     * Returns text of saved section with all formatting removed. Images are
+     * replaced by a single space, so offsets line up with the text as
+     * displayed (before any RTL/LTR markers are applied).
+     * @param savedVal saved section text
+     * @return plain text of section
+     */
+    public static String getPlainText(String savedVal) {
+        NodeCursor nodes = new NodeCursor(savedVal);
+        StringBuilder ret = new StringBuilder(savedVal.length());
+        
+        while (nodes.hasNext()) {
+            String nextNode = nodes.next();
+            
+            if (nextNode.startsWith("<font") || nextNode.startsWith("</font")) {
+                // formatting only
+            } else if (nextNode.startsWith("<img src=")) {
+                ret.append(' ');
+            } else {
+                ret.append(nextNode);
+            }
+        }
+        
+        return ret.toString();
+    }
+    
     public static com.itextpdf.kernel.color.Color swtColorToItextColor(Color awtc) {
         com.itextpdf.kernel.color.Color ret = com.itextpdf.kernel.color.Color.BLACK;
         if (awtc == Color.BLACK) {
@@ -317,39 +368,65 @@ public class FormattedTextHelper {
     }
     
     /**
-     * Gets next node from saved text
-     * @param fromText remaining text from which to pull node
-     * @return next node in string form
+     * Walks saved text node by node: font tags, and the text (or image) runs
+     * between them. Each character is visited once, however long the text.
      */
-    private static String getNextNode(String fromText) {
-        String ret;
+    private static class NodeCursor {
+        private final String text;
+        private int pos = 0;
+        // next font tag openings/closings at or after pos, -1 if none remain
+        private int nextOpen;
+        private int nextClose;
         
-        if (fromText.startsWith("<font") ||
-                fromText.startsWith("</font")) {
-            int pos = fromText.indexOf('>');
-            ret = fromText.substring(0, pos + 1);
-        } else {
-            int posStart = fromText.indexOf("<font");
-            int posEnd = fromText.indexOf("</font");
+        NodeCursor(String _text) {
+            text = _text;
+            nextOpen = text.indexOf("<font");
+            nextClose = text.indexOf("</font");
+        }
+        
+        boolean hasNext() {
+            return pos < text.length();
+        }
+        
+        /**
+         * Gets next node from saved text
+         * @return next node in string form
+         */
+        String next() {
+            int end;
             
-            // get the nearest start/end of a font ascription
-            int pos;
-            if (posStart == -1 && posEnd == -1) {
-                pos = fromText.length();
-            } else if (posStart == -1) {
-                pos = posEnd;
-            } else if (posEnd == -1) {
-                pos = posStart;
-            } else if (posStart < posEnd) {
-                pos = posStart;
+            if (text.startsWith("<font", pos) ||
+                    text.startsWith("</font", pos)) {
+                end = text.indexOf('>', pos) + 1;
+                
+                // unterminated tag: take remainder rather than stall
+                if (end == 0) {
+                    end = text.length();
+                }
             } else {
-                pos = posEnd;
+                if (nextOpen != -1 && nextOpen < pos) {
+                    nextOpen = text.indexOf("<font", pos);
+                }
+                if (nextClose != -1 && nextClose < pos) {
+                    nextClose = text.indexOf("</font", pos);
+                }
+                
+                // get the nearest start/end of a font ascription
+                if (nextOpen == -1 && nextClose == -1) {
+                    end = text.length();
+                } else if (nextOpen == -1) {
+                    end = nextClose;
+                } else if (nextClose == -1) {
+                    end = nextOpen;
+                } else {
+                    end = Math.min(nextOpen, nextClose);
+                }
             }
             
-            ret = fromText.substring(0, pos);
+            String ret = text.substring(pos, end);
+            pos = end;
+            return ret;
         }
-        
-        return ret;
     }
     
     /**
@@ -360,19 +437,19 @@ public class FormattedTextHelper {
      * @throws BadLocationException if unable to create string format
      */
     public static String storageFormat(JTextPane pane) throws BadLocationException, Exception {
-        String ret = storeFormatRecurse(pane.getDocument().getDefaultRootElement(), pane);
-        return ret.replace(PGTUtil.RTLMarker, "").replace(PGTUtil.LTRMarker, "");
+        StringBuilder ret = new StringBuilder();
+        storeFormatRecurse(pane.getDocument().getDefaultRootElement(), pane, ret);
+        return ret.toString().replace(PGTUtil.RTLMarker, "").replace(PGTUtil.LTRMarker, "");
     }
 
     /**
      * Recursing method implementing functionality of storageFormat()
      * @param e element to be cycled through
      * @param pane top parent JTextPane
-     * @return string format value of current node and its children
+     * @param ret receives string format value of current node and its children
      * @throws BadLocationException if unable to create string format
      */
-    private static String storeFormatRecurse(Element e, JTextPane pane) throws BadLocationException, Exception {
-        String ret = "";
+    private static void storeFormatRecurse(Element e, JTextPane pane, StringBuilder ret) throws BadLocationException, Exception {
         int ec = e.getElementCount();
 
         if (ec == 0) {
@@ -384,7 +461,7 @@ public class FormattedTextHelper {
                     throw new Exception("ID For image not stored. Unable to store section.");
                 }
                 
-                ret += "<img src=\"" + e.getAttributes().getAttribute(PGTUtil.ImageIdAttribute) + "\">";
+                ret.append("<img src=\"").append(e.getAttributes().getAttribute(PGTUtil.ImageIdAttribute)).append("\">");
             } else {
                 int start = e.getStartOffset();
                 int len = e.getEndOffset() - start;
@@ -393,20 +470,18 @@ public class FormattedTextHelper {
                     String font = StyleConstants.getFontFamily(a);
                     String fontColor = colorToText(StyleConstants.getForeground(a));
                     int fontSize = StyleConstants.getFontSize(a);
-                    ret += "<font face=\"" + font + "\""
-                            + "size=\"" + fontSize + "\""
-                            + "color=\"" + fontColor + "\"" + ">";
-                    ret += pane.getDocument().getText(start, len);
-                    ret += "</font>";
+                    ret.append("<font face=\"").append(font).append("\"")
+                            .append("size=\"").append(fontSize).append("\"")
+                            .append("color=\"").append(fontColor).append("\"").append(">");
+                    ret.append(pane.getDocument().getText(start, len));
+                    ret.append("</font>");
                 }
             }
         } else {
             for (int i = 0; i < ec; i++) {
-                ret += storeFormatRecurse(e.getElement(i), pane);
+                storeFormatRecurse(e.getElement(i), pane, ret);
             }
         }
-
-        return ret;
     }
 
     /**
@@ -59,7 +59,6 @@ import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -468,7 +467,7 @@ public class IOHandler {
                                     out.putNextEntry(new ZipEntry(PGTUtil.imagesSavePath
                                             + curNode.getId().toString() + ".png"));
 
-                                    ImageIO.write(curNode.getImage(), "png", out);
+                                    out.write(curNode.getImageBytes());
 
                                     out.closeEntry();
                                 } catch (IOException ex) {
@@ -480,24 +479,27 @@ public class IOHandler {
                         }
                     }
 
-                    // write all grammar wav recordings to file
-                    Map<Integer, byte[]> grammarSoundMap = core.getGrammarManager().getSoundMap();
-                    Iterator<Entry<Integer, byte[]>> gramSoundIt = grammarSoundMap.entrySet().iterator();
+                    // write all grammar recordings to file, compressed. Recordings
+                    // never opened this session are copied straight from the source archive
+                    GrammarManager grammarManager = core.getGrammarManager();
+                    Iterator<Integer> gramSoundIt = grammarManager.getRecordingIds().iterator();
                     if (gramSoundIt.hasNext()) {
-                        try {
+                        try (ZipFile soundArchive = grammarManager.hasArchivedRecordings()
+                                ? new ZipFile(grammarManager.getSoundArchive()) : null) {
                             out.putNextEntry(new ZipEntry(PGTUtil.grammarSoundSavePath));
 
                             while (gramSoundIt.hasNext()) {
-                                Entry<Integer, byte[]> curEntry = gramSoundIt.next();
-                                Integer curId = curEntry.getKey();
-                                byte[] curSound = curEntry.getValue();
+                                Integer curId = gramSoundIt.next();
 
                                 try {
+                                    byte[] curSound = grammarManager.isRecordingArchived(curId)
+                                            ? readGrammarSound(soundArchive, curId)
+                                            : grammarManager.getEncodedRecording(curId);
                                     out.putNextEntry(new ZipEntry(PGTUtil.grammarSoundSavePath
-                                            + curId.toString() + ".raw"));
+                                            + curId.toString() + PGTUtil.grammarSoundExtension));
                                     out.write(curSound);
                                     out.closeEntry();
-                                } catch (IOException ex) {
+                                } catch (Exception ex) {
                                     writeLog += "\nUnable to save sound: " + ex.getLocalizedMessage();
                                 }
 
@@ -529,6 +531,9 @@ public class IOHandler {
                 //} else {
                 //throw new IOException("Unable to write to file: " + finalFile.toPath());
                 //}
+
+                // all recordings were written to the new file; read them from there hereafter
+                core.getGrammarManager().setSoundArchive(finalFile.getAbsolutePath());
             } catch (IOException ex) {
                 throw new IOException("Unable to save file: " + ex.getMessage());
             }
@@ -683,15 +688,14 @@ public class IOHandler {
                     break;
                 }
                 
-                BufferedImage img;
                 try (InputStream imageStream = zipFile.getInputStream(entry)) {
                     String name = entry.getName().replace(".png", "")
                             .replace(PGTUtil.imagesSavePath, "");
                     int imageId = Integer.parseInt(name);
-                    img = ImageIO.read(imageStream);
                     ImageNode imageNode = new ImageNode();
                     imageNode.setId(imageId);
-                    imageNode.setImage(img);
+                    // keep archived PNG bytes so save/export need not re-encode
+                    imageNode.setImageBytes(IOUtils.toByteArray(imageStream));
                     imageCollection.getBuffer().setEqual(imageNode);
                     imageCollection.insert(imageId);
                 }
@@ -779,8 +783,8 @@ public class IOHandler {
     }
 
     /**
-     * Loads any related grammar recordings into the passed grammar manager via
-     * id
+     * Registers any related grammar recordings with the passed grammar manager
+     * via id. Recordings are left in the archive until they are played.
      *
      * @param _fileName name of file to load sound recordings from
      * @param grammarManager grammar manager to populate with sounds
@@ -791,6 +795,7 @@ public class IOHandler {
 
         try (ZipFile zipFile = new ZipFile(fileName)) {
             Iterator<GrammarChapNode> chapIt = grammarManager.getChapters().iterator();
+            grammarManager.setSoundArchive(fileName);
 
             while (chapIt.hasNext()) {
                 GrammarChapNode curChap = chapIt.next();
@@ -802,25 +807,13 @@ public class IOHandler {
                         continue;
                     }
 
-                    String soundPath = PGTUtil.grammarSoundSavePath
-                            + curNode.getRecordingId().toString() + ".raw";
-                    ZipEntry soundEntry = zipFile.getEntry(soundPath);
-
-                    byte[] sound = null;
-
-                    try (InputStream soundStream = zipFile.getInputStream(soundEntry)) {
-                        sound = IOUtils.toByteArray(soundStream);
-                    } catch (IOException e) {
-                        loadLog += "\nUnable to load sound: " + e.getLocalizedMessage();
-                    } catch (Exception e) {
-                        loadLog += "\nUnable to load sound: " + e.getLocalizedMessage();
-                    }
-
-                    if (sound == null) {
+                    if (getGrammarSoundEntry(zipFile, curNode.getRecordingId()) == null) {
+                        loadLog += "\nUnable to load sound: recording "
+                                + curNode.getRecordingId() + " missing from archive.";
                         continue;
                     }
 
-                    grammarManager.addChangeRecording(curNode.getRecordingId(), sound);
+                    grammarManager.addArchivedRecording(curNode.getRecordingId());
                 }
             }
         }
@@ -830,6 +823,48 @@ public class IOHandler {
         }
     }
 
+    /**
+     * Reads a single grammar recording from archive, compressed. Legacy raw
+     * recordings are compressed as they are read.
+     *
+     * @param fileName name of archive to read from
+     * @param id ID of recording
+     * @return compressed recording
+     * @throws IOException if recording cannot be read
+     */
+    public static byte[] loadGrammarSound(String fileName, Integer id) throws IOException {
+        try (ZipFile zipFile = new ZipFile(fileName)) {
+            return readGrammarSound(zipFile, id);
+        }
+    }
+
+    private static byte[] readGrammarSound(ZipFile zipFile, Integer id) throws IOException {
+        ZipEntry soundEntry = getGrammarSoundEntry(zipFile, id);
+
+        if (soundEntry == null) {
+            throw new IOException("Recording " + id + " missing from archive.");
+        }
+
+        byte[] sound;
+        try (InputStream soundStream = zipFile.getInputStream(soundEntry)) {
+            sound = IOUtils.toByteArray(soundStream);
+        }
+
+        return SoundCodec.isEncoded(sound) ? sound : SoundCodec.encode(sound);
+    }
+
+    private static ZipEntry getGrammarSoundEntry(ZipFile zipFile, Integer id) {
+        ZipEntry ret = zipFile.getEntry(PGTUtil.grammarSoundSavePath
+                + id.toString() + PGTUtil.grammarSoundExtension);
+
+        if (ret == null) {
+            ret = zipFile.getEntry(PGTUtil.grammarSoundSavePath
+                    + id.toString() + PGTUtil.grammarSoundLegacyExtension);
+        }
+
+        return ret;
+    }
+
     public static Font getLcdFont() throws FontFormatException, IOException {
         return new IOHandler().getLcdFontInternal();
     }
@@ -893,6 +928,24 @@ public class IOHandler {
         return ret;
     }
     
+    /**
+     * Streams language report straight to an HTML file
+     *
+     * @param core dictionary core to report on
+     * @param fileName file to write
+     * @param pageSize maximum rows and columns per heat map table, 0 for no
+     * limit
+     * @throws IOException on write failure
+     */
+    public static void exportLanguageReport(DictCore core, String fileName, int pageSize) throws IOException {
+        try (Writer f0 = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(fileName), "UTF-8"))) {
+            f0.write("<html><head><meta charset=\"UTF-8\"></head><body>");
+            core.writeLanguageReport(f0, pageSize);
+            f0.write("</body></html>");
+        }
+    }
+    
     public static void saveOptionsIni(DictCore core) throws IOException {
         
         try (Writer f0 = new BufferedWriter(new OutputStreamWriter(
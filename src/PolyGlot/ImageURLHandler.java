@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot;
+
+import PolyGlot.ManagersCollections.ImageCollection;
+import PolyGlot.Nodes.ImageNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.net.URLStreamHandlerFactory;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves images of image collections to HTML panes through URLs of the form
+ * pgimage:&lt;collection key&gt;/&lt;image id&gt;, straight from memory. This
+ * avoids writing each image out to a temp file to display it.
+ *
+ * @author draque.thompson
+ */
+public class ImageURLHandler extends URLStreamHandler {
+
+    public static final String PROTOCOL = "pgimage";
+
+    private static final Map<Integer, WeakReference<ImageCollection>> collections
+            = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextKey = new AtomicInteger();
+    private static Boolean installed = null;
+
+    /**
+     * Registers handler for pgimage URLs with the JVM. Safe to call more than
+     * once.
+     *
+     * @return true if pgimage URLs can be resolved, false if another handler
+     * factory was already installed (callers should fall back to files)
+     */
+    public static synchronized boolean install() {
+        if (installed == null) {
+            try {
+                URL.setURLStreamHandlerFactory(new URLStreamHandlerFactory() {
+                    @Override
+                    public URLStreamHandler createURLStreamHandler(String protocol) {
+                        return PROTOCOL.equals(protocol) ? new ImageURLHandler() : null;
+                    }
+                });
+                installed = true;
+            } catch (Error e) {
+                // factory may only be set once per JVM
+                installed = false;
+            }
+        }
+
+        return installed;
+    }
+
+    /**
+     * Registers collection so its images may be served. Collections are only
+     * weakly held.
+     *
+     * @param collection collection to register
+     * @return key of collection, used in its image URLs
+     */
+    public static int register(ImageCollection collection) {
+        // drop collections no longer in use
+        Iterator<WeakReference<ImageCollection>> it = collections.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+
+        int key = nextKey.incrementAndGet();
+        collections.put(key, new WeakReference<>(collection));
+        return key;
+    }
+
+    /**
+     * Gets URL image may be displayed from
+     *
+     * @param collectionKey key of collection holding image
+     * @param imageId id of image
+     * @return URL of image
+     */
+    public static String getURL(int collectionKey, int imageId) {
+        return PROTOCOL + ":" + collectionKey + "/" + imageId;
+    }
+
+    /**
+     * Gets id of image a URL refers to
+     *
+     * @param url image URL
+     * @return image id, -1 if not a pgimage URL
+     */
+    public static int getImageId(String url) {
+        if (!url.startsWith(PROTOCOL + ":")) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(url.substring(url.indexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    protected URLConnection openConnection(URL u) throws IOException {
+        String path = u.getPath();
+        int split = path.indexOf('/');
+        ImageNode image;
+
+        try {
+            int key = Integer.parseInt(path.substring(0, split));
+            int imageId = Integer.parseInt(path.substring(split + 1));
+            WeakReference<ImageCollection> ref = collections.get(key);
+            ImageCollection collection = ref == null ? null : ref.get();
+
+            if (collection == null) {
+                throw new IOException("Image collection no longer loaded: " + u);
+            }
+
+            image = (ImageNode) collection.getNodeById(imageId);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Image not found: " + u);
+        }
+
+        return new ImageConnection(u, image);
+    }
+
+    /**
+     * Connection reading PNG bytes of image from memory
+     */
+    private static class ImageConnection extends URLConnection {
+
+        private final ImageNode image;
+
+        ImageConnection(URL url, ImageNode _image) {
+            super(url);
+            image = _image;
+        }
+
+        @Override
+        public void connect() {
+            connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(image.getImageBytes());
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+    }
+}
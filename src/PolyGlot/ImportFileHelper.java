@@ -28,18 +28,45 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.InputStream;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+import javax.xml.parsers.SAXParserFactory;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
-
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Imports lexicons from CSV and Excel files. Column settings are resolved
+ * once per import. Rows are read in batches: each batch is turned into words
+ * in parallel, and the words are then given their classes and types (looked
+ * up through caches) and added to the lexicon together. XLSX sheets are
+ * streamed rather than loaded whole, so memory use does not grow with the
+ * size of the file.
+ */
 public class ImportFileHelper {
 
+    private static final int MIN_SPLIT = 256;
+    private static final int BATCH_SIZE = 8192;
+
     private final DictCore core;
     private String iConWord;
     private String iLocalWord;
@@ -49,7 +76,28 @@ public class ImportFileHelper {
     private String iPronunciation;
     private String delimiter;
     private boolean bFirstLineLabels;
-    private boolean bCreateTypes;
+
+    // column numbers of each field, resolved once per import
+    private int[] conWordCols;
+    private int[] localWordCols;
+    private int[] typeCols;
+    private int[] classCols;
+    private int[] definitionCols;
+    private int[] pronunciationCols;
+    private Pattern delimiterPattern;
+    private ProgressListener progressListener = null;
+    // shared by both Excel readers so that cells read the same from either format
+    private final DataFormatter formatter = new DataFormatter();
+
+    // rows read but not yet imported, and count of rows imported so far
+    private final List<Object> batch = new ArrayList<>();
+    private int rowsImported;
+    private ForkJoinPool pool;
+
+    // lookups made while importing; Integer is column number or class ID
+    private final Map<Integer, WordProperty> importClasses = new HashMap<>();
+    private final Map<Integer, Map<String, WordPropValueNode>> importClassValues = new HashMap<>();
+    private final Map<String, TypeNode> importTypes = new HashMap<>();
 
     public ImportFileHelper(DictCore _core) {
         core = _core;
@@ -65,10 +113,18 @@ public class ImportFileHelper {
         iDefinition = _iDefinition;
         iPronunciation = _iPronunciation;
         bFirstLineLabels = _bFirstLineLabels;
-        bCreateTypes = _bCreateTypes;
         delimiter = _delimiter;
     }
 
+    /**
+     * Sets listener informed as rows are imported
+     *
+     * @param _progressListener listener, null for none
+     */
+    public void setProgressListener(ProgressListener _progressListener) {
+        progressListener = _progressListener;
+    }
+
     /**
      * Imports lexicons from foreign formats
      *
@@ -78,23 +134,34 @@ public class ImportFileHelper {
      * @throws Exception
      */
     public void importFile(String inputFile, Integer sheetNum) throws Exception {
-        if (inputFile.endsWith("xls")
-                || inputFile.endsWith("xlsx")
-                || inputFile.endsWith("xlsm")) {
-            importExcel(inputFile, sheetNum);
-        } else if (inputFile.endsWith("csv")
-                || inputFile.endsWith("txt")) {
-            importCSV(inputFile);
-        } else {
-            importCSV(inputFile);
-            throw new InvalidFormatException("Unrecognized file type for file: "
-                    + inputFile + ". Defaulting to CSV functionality.");
+        resolveColumns();
+        pool = new ForkJoinPool();
+
+        try {
+            if (inputFile.endsWith("xlsx")
+                    || inputFile.endsWith("xlsm")) {
+                importExcelStreaming(inputFile, sheetNum);
+            } else if (inputFile.endsWith("xls")) {
+                importExcel(inputFile, sheetNum);
+            } else if (inputFile.endsWith("csv")
+                    || inputFile.endsWith("txt")) {
+                importCSV(inputFile);
+            } else {
+                importCSV(inputFile);
+                throw new InvalidFormatException("Unrecognized file type for file: "
+                        + inputFile + ". Defaulting to CSV functionality.");
+            }
+        } finally {
+            pool.shutdown();
+            pool = null;
         }
     }
 
     private void importExcel(String inputFile, Integer sheetNum) throws Exception {
         Workbook wb;
         Sheet mySheet;
+        int width = getMaxColumn() + 1;
+
         try (InputStream myFile = new FileInputStream(inputFile)) {
             wb = WorkbookFactory.create(myFile);
             mySheet = wb.getSheetAt(sheetNum);
@@ -105,18 +172,79 @@ public class ImportFileHelper {
                 rowIterator.next();
             }
 
+            // workbooks are not thread safe, so only the needed cells are read here
             while (rowIterator.hasNext()) {
-                processWordRow(rowIterator.next());
+                Row row = rowIterator.next();
+                String[] cells = new String[width];
+
+                for (int i = 0; i < width; i++) {
+                    Cell curCell = row.getCell(i);
+                    cells[i] = curCell == null ? null : formatter.formatCellValue(curCell);
+                }
+
+                addRow(cells);
             }
         }
+
+        flushRows();
+    }
+
+    /**
+     * Imports XLSX sheet through POI's event API, handling each row as it is
+     * parsed rather than loading the workbook
+     *
+     * @param inputFile file to import
+     * @param sheetNum index of sheet to import
+     * @throws Exception on unreadable files, missing sheets and import errors
+     */
+    private void importExcelStreaming(String inputFile, Integer sheetNum) throws Exception {
+        OPCPackage pkg = OPCPackage.open(inputFile, PackageAccess.READ);
+
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            InputStream sheet = null;
+
+            for (int i = 0; sheets.hasNext(); i++) {
+                InputStream curSheet = sheets.next();
+
+                if (i == sheetNum) {
+                    sheet = curSheet;
+                    break;
+                }
+
+                curSheet.close();
+            }
+
+            if (sheet == null) {
+                throw new Exception("Sheet " + sheetNum + " does not exist in file.");
+            }
+
+            try {
+                XMLReader parser = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new StreamedSheetHandler(getMaxColumn() + 1), formatter, false));
+                parser.parse(new InputSource(sheet));
+            } catch (RowImportException e) {
+                throw e.getCause();
+            } finally {
+                sheet.close();
+            }
+        } finally {
+            // opened read only: closes without writing anything
+            pkg.revert();
+        }
+
+        flushRows();
     }
 
     private void importCSV(String inputFile) throws Exception {
         File file = new File(inputFile);
+
         try (FileReader reader = new FileReader(file)) {
             try (BufferedReader br = new BufferedReader(reader)) {
                 String line;
-                List<String> columnList;
 
                 // skip first line if specified by user
                 if (bFirstLineLabels) {
@@ -124,191 +252,45 @@ public class ImportFileHelper {
                 }
 
                 while ((line = br.readLine()) != null) {
-                    String[] columns = line.split(delimiter);
-
-                    ConWord newWord = new ConWord();
-
-                    // add conword
-                    columnList = Arrays.asList(iConWord.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        if (newWord.getValue().trim().equals("")) {
-                            newWord.setValue(columns[cellNum].trim());
-                        } else {
-                            newWord.setValue(newWord.getValue() + ", " + columns[cellNum].trim());
-                        }
-                    }
-
-                    // if conword is blank, continue. Bare minimum for imported word is a conword value.
-                    if (newWord.getValue().trim().equals("")) {
-                        continue;
-                    }
-
-                    // add definition
-                    columnList = Arrays.asList(iDefinition.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        if (newWord.getDefinition().trim().equals("")) {
-                            newWord.setDefinition(columns[cellNum].trim());
-                        } else {
-                            newWord.setDefinition(newWord.getDefinition() + "\n\n" + columns[cellNum].trim());
-                        }
-                    }
-
-                    // add classes
-                    columnList = Arrays.asList(iClass.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        String className = "CLASS" + cellNum.toString(); // guarantee unique name for user to rename later (based on column)
-                        WordProperty wordProp = null;
-
-                        // find class
-                        for (WordProperty findProp : core.getWordPropertiesCollection().getAllWordProperties()) {
-                            if (findProp.getValue().equals(className)) {
-                                wordProp = findProp;
-                                break;
-                            }
-                        }
-
-                        // create class if doesn't yet exist
-                        if (wordProp == null) {
-                            wordProp = new WordProperty();
-                            wordProp.setValue(className);
-                            int propId = core.getWordPropertiesCollection().addNode(wordProp);
-                            try {
-                                wordProp = (WordProperty) core.getWordPropertiesCollection().getNodeById(propId);
-                            } catch (Exception e) {
-                                throw new Exception("Problem pulling word class for word: " + newWord.getValue());
-                            }
-                        }
-
-                        // find class value
-                        WordPropValueNode wordVal = null;
-                        for (WordPropValueNode findVal : wordProp.getValues()) {
-                            if (findVal.getValue().equals(columns[cellNum].trim())) {
-                                wordVal = findVal;
-                                break;
-                            }
-                        }
-
-                        // create class value if doesn't exist yet
-                        if (wordVal == null) {
-                            wordVal = new WordPropValueNode();
-                            wordVal.setValue(columns[cellNum].trim());
-                            wordVal = wordProp.addValue(columns[cellNum].trim());
-                        }
-
-                        // add class value to word
-                        newWord.setClassValue(wordProp.getId(), wordVal.getId());
-                    }
-
-                    // add local word
-                    columnList = Arrays.asList(iLocalWord.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        if (newWord.getLocalWord().trim().equals("")) {
-                            newWord.setLocalWord(columns[cellNum].trim());
-                        } else {
-                            newWord.setLocalWord(newWord.getLocalWord() + ", " + columns[cellNum].trim());
-                        }
-                    }
-
-                    // add pronunciation
-                    columnList = Arrays.asList(iPronunciation.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        if (newWord.getPronunciation().trim().equals("")) {
-                            newWord.setPronunciation(columns[cellNum].trim());
-                        } else {
-                            newWord.setPronunciation(newWord.getPronunciation() + ", " + columns[cellNum].trim());
-                        }
-                    }
-
-                    // add type
-                    columnList = Arrays.asList(iType.split(","));
-                    for (String entry : columnList) {
-                        if (entry == null || entry.equals("")) {
-                            continue;
-                        }
-
-                        Integer cellNum = cellNumCheckGet(entry);
-
-                        // fail silently for files that truncate empty trailing fields
-                        if (cellNum > columns.length) {
-                            continue;
-                        }
-
-                        if (newWord.getWordTypeId() == 0) {
-                            newWord.setWordTypeId(core.getTypes().findOrCreate(columns[cellNum].trim()).getId());
-                        } else {
-                            newWord.setWordTypeId(core.getTypes().findOrCreate(newWord.getWordTypeDisplay() + ", " + columns[cellNum].trim()).getId());
-                        }
-                    }
-
-                    // add type to list of potential types if applicable and user
-                    // specified
-                    if (bCreateTypes && newWord.getWordTypeId() != 0
-                            && !core.getTypes().nodeExists(newWord.getWordTypeId())) {
-                        core.getTypes().clear();
-                        TypeNode newType = core.getTypes().getBufferType();
-                        newType.setValue(newWord.getWordTypeDisplay());
-                        core.getTypes().insert();
-                    }
-
-                    core.getWordCollection().addWord(newWord);
+                    addRow(line);
                 }
             }
         }
+
+        flushRows();
+    }
+
+    /**
+     * Queues row for import, importing the queue once a batch is full
+     *
+     * @param row CSV line or array of Excel cell values
+     * @throws Exception if unable to import batch
+     */
+    private void addRow(Object row) throws Exception {
+        batch.add(row);
+
+        if (batch.size() >= BATCH_SIZE) {
+            flushRows();
+        }
+    }
+
+    /**
+     * Imports all queued rows
+     *
+     * @throws Exception if unable to create classes, types or words
+     */
+    private void flushRows() throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        addWords(parseRows(batch));
+        rowsImported += batch.size();
+        batch.clear();
+
+        if (progressListener != null) {
+            progressListener.rowsImported(rowsImported);
+        }
     }
 
     private Integer cellNumCheckGet(String entry) throws Exception {
@@ -329,169 +311,450 @@ public class ImportFileHelper {
     }
 
     /**
-     * Processes Excel row
+     * Resolves column settings to column numbers and clears lookups left from
+     * any previous import
      *
-     * @param row row to process
-     * @throws Exception
+     * @throws Exception on invalid column values
      */
-    private void processWordRow(Row row) throws Exception {
-        ConWord newWord = new ConWord();
+    private void resolveColumns() throws Exception {
+        conWordCols = getColumns(iConWord);
+        localWordCols = getColumns(iLocalWord);
+        typeCols = getColumns(iType);
+        classCols = getColumns(iClass);
+        definitionCols = getColumns(iDefinition);
+        pronunciationCols = getColumns(iPronunciation);
+        delimiterPattern = Pattern.compile(delimiter);
+        batch.clear();
+        rowsImported = 0;
+
+        importClasses.clear();
+        importClassValues.clear();
+        importTypes.clear();
+    }
 
-        List<String> columnList;
+    private int[] getColumns(String columns) throws Exception {
+        List<Integer> found = new ArrayList<>();
 
-        // add conword
-        columnList = Arrays.asList(iConWord.split(","));
-        for (String entry : columnList) {
+        for (String entry : columns.split(",")) {
             if (entry == null || entry.equals("")) {
                 continue;
             }
 
-            Integer cellNum = cellNumCheckGet(entry);
+            found.add(cellNumCheckGet(entry));
+        }
+
+        int[] ret = new int[found.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = found.get(i);
+        }
+
+        return ret;
+    }
+
+    private int getMaxColumn() {
+        int ret = -1;
+
+        for (int[] cols : new int[][]{conWordCols, localWordCols, typeCols,
+            classCols, definitionCols, pronunciationCols}) {
+            for (int col : cols) {
+                ret = Math.max(ret, col);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Turns rows into words in parallel. Classes and types are left for
+     * addWords(), as they may create entries in shared collections.
+     *
+     * @param rows CSV lines or arrays of Excel cell values
+     * @return row contents in order, null where a row has no conword
+     */
+    private ParsedRow[] parseRows(final List<?> rows) {
+        final ParsedRow[] ret = new ParsedRow[rows.size()];
+
+        if (!rows.isEmpty()) {
+            int split = Math.max(MIN_SPLIT, rows.size() / (pool.getParallelism() * 4));
+            pool.invoke(new ParseTask(rows, ret, 0, rows.size(), split));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Processes single row
+     *
+     * @param row CSV line or array of Excel cell values
+     * @return row contents, null if row has no conword
+     */
+    private ParsedRow parseRow(Object row) {
+        String[] cells;
+
+        if (row instanceof String) {
+            cells = delimiterPattern.split((String) row);
+
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = cells[i].trim();
+            }
+        } else {
+            cells = (String[]) row;
+        }
+
+        ConWord newWord = new ConWord();
+
+        // add conword
+        for (int cellNum : conWordCols) {
+            String cell = getCell(cells, cellNum);
+
+            // fail silently for files that truncate empty trailing fields
+            if (cell == null) {
+                continue;
+            }
 
             if (newWord.getValue().trim().equals("")) {
-                newWord.setValue(row.getCell(cellNum) != null ? row.getCell(cellNum).toString() : "");
-            } else if (row.getCell(cellNum) != null) {
-                newWord.setValue(newWord.getValue() + ", " + row.getCell(cellNum).toString());
+                newWord.setValue(cell);
+            } else {
+                newWord.setValue(newWord.getValue() + ", " + cell);
             }
         }
 
-        // if conword is blank, return. Bare minimum for imported word is a conword value.
+        // if conword is blank, skip. Bare minimum for imported word is a conword value.
         if (newWord.getValue().trim().equals("")) {
-            return;
+            return null;
         }
 
         // add definition
-        columnList = Arrays.asList(iDefinition.split(","));
-        for (String entry : columnList) {
-            if (entry == null || entry.equals("")) {
+        for (int cellNum : definitionCols) {
+            String cell = getCell(cells, cellNum);
+
+            if (cell == null) {
                 continue;
             }
 
-            Integer cellNum = cellNumCheckGet(entry);
-
             if (newWord.getDefinition().trim().equals("")) {
-                newWord.setDefinition(row.getCell(cellNum) != null ? row.getCell(cellNum).toString() : "");
-            } else if (row.getCell(cellNum) != null) {
-                newWord.setDefinition(newWord.getDefinition() + "\n\n" + row.getCell(cellNum).toString());
+                newWord.setDefinition(cell);
+            } else {
+                newWord.setDefinition(newWord.getDefinition() + "\n\n" + cell);
             }
         }
 
-        // add classes
-        columnList = Arrays.asList(iClass.split(","));
-        for (String entry : columnList) {
-            if (entry == null || entry.equals("")) {
+        // add local word
+        for (int cellNum : localWordCols) {
+            String cell = getCell(cells, cellNum);
+
+            if (cell == null) {
                 continue;
             }
 
-            Integer cellNum = cellNumCheckGet(entry);
+            if (newWord.getLocalWord().trim().equals("")) {
+                newWord.setLocalWord(cell);
+            } else {
+                newWord.setLocalWord(newWord.getLocalWord() + ", " + cell);
+            }
+        }
 
-            String className = "CLASS" + cellNum.toString(); // guarantee unique name for user to rename later (based on column)
-            WordProperty wordProp = null;
+        // add pronunciation (word has no core yet, so this is the saved value)
+        for (int cellNum : pronunciationCols) {
+            String cell = getCell(cells, cellNum);
+
+            if (cell == null) {
+                continue;
+            }
+
+            if (newWord.getPronunciation().trim().equals("")) {
+                newWord.setPronunciation(cell);
+            } else {
+                newWord.setPronunciation(newWord.getPronunciation() + ", " + cell);
+            }
+        }
+
+        ParsedRow ret = new ParsedRow(newWord, classCols.length, typeCols.length);
+
+        for (int i = 0; i < classCols.length; i++) {
+            String cell = getCell(cells, classCols[i]);
+            ret.classValues[i] = cell == null ? null : cell.trim();
+        }
+
+        for (int i = 0; i < typeCols.length; i++) {
+            ret.typeValues[i] = getCell(cells, typeCols[i]);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return cell value, null if cell missing or past end of row
+     */
+    private static String getCell(String[] cells, int cellNum) {
+        return cellNum >= 0 && cellNum < cells.length ? cells[cellNum] : null;
+    }
+
+    /**
+     * Sets classes and types of parsed words, then adds them to the lexicon
+     * in one batch
+     *
+     * @param parsed parsed rows, in order
+     * @throws Exception if unable to create classes, types or words
+     */
+    private void addWords(ParsedRow[] parsed) throws Exception {
+        List<ConWord> newWords = new ArrayList<>();
+
+        for (ParsedRow row : parsed) {
+            if (row == null) {
+                continue;
+            }
+
+            ConWord newWord = row.word;
+
+            // add classes
+            for (int i = 0; i < classCols.length; i++) {
+                if (row.classValues[i] == null) {
+                    continue;
+                }
+
+                WordProperty wordProp = getImportClass(classCols[i]);
+                WordPropValueNode wordVal = getImportClassValue(wordProp, row.classValues[i]);
+                newWord.setClassValue(wordProp.getId(), wordVal.getId());
+            }
+
+            // add type, each further column appended to the name of the last
+            TypeNode type = null;
+            for (String typeValue : row.typeValues) {
+                if (typeValue == null) {
+                    continue;
+                }
+
+                type = getImportType(type == null ? typeValue : type.getValue() + ", " + typeValue);
+            }
+
+            if (type != null) {
+                newWord.setWordTypeId(type.getId());
+            }
+
+            newWords.add(newWord);
+        }
+
+        core.getWordCollection().addWords(newWords);
+    }
+
+    /**
+     * Finds or creates class for column
+     *
+     * @param cellNum column number
+     * @return class
+     * @throws Exception if class cannot be created
+     */
+    private WordProperty getImportClass(int cellNum) throws Exception {
+        WordProperty ret = importClasses.get(cellNum);
+
+        if (ret == null) {
+            String className = "CLASS" + cellNum; // guarantee unique name for user to rename later (based on column)
 
-            // find class
             for (WordProperty findProp : core.getWordPropertiesCollection().getAllWordProperties()) {
                 if (findProp.getValue().equals(className)) {
-                    wordProp = findProp;
+                    ret = findProp;
                     break;
                 }
             }
 
             // create class if doesn't yet exist
-            if (wordProp == null) {
-                wordProp = new WordProperty();
-                wordProp.setValue(className);
-                int propId = core.getWordPropertiesCollection().addNode(wordProp);
+            if (ret == null) {
+                ret = new WordProperty();
+                ret.setValue(className);
+                int propId = core.getWordPropertiesCollection().addNode(ret);
                 try {
-                    wordProp = (WordProperty) core.getWordPropertiesCollection().getNodeById(propId);
+                    ret = (WordProperty) core.getWordPropertiesCollection().getNodeById(propId);
                 } catch (Exception e) {
-                    throw new Exception("Problem pulling word class for word: " + newWord.getValue());
+                    throw new Exception("Problem pulling word class: " + className);
                 }
             }
 
-            // find class value
-            Cell curCell = row.getCell(cellNum);
-            WordPropValueNode wordVal = null;
-            if (curCell != null) { // null = empty cell in many occasions, skip if this is the case
-                for (WordPropValueNode findVal : wordProp.getValues()) {
-                    if (findVal.getValue().equals(curCell.toString().trim())) {
-                        wordVal = findVal;
-                        break;
-                    }
+            importClasses.put(cellNum, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Finds or creates value of class
+     *
+     * @param wordProp class
+     * @param value value name
+     * @return class value
+     * @throws Exception if value cannot be created
+     */
+    private WordPropValueNode getImportClassValue(WordProperty wordProp, String value) throws Exception {
+        Map<String, WordPropValueNode> values = importClassValues.get(wordProp.getId());
+
+        if (values == null) {
+            values = new HashMap<>();
+
+            for (WordPropValueNode findVal : wordProp.getValues()) {
+                if (!values.containsKey(findVal.getValue())) {
+                    values.put(findVal.getValue(), findVal);
                 }
-            } else {
-                continue;
             }
 
-            // create class value if doesn't exist yet
-            if (wordVal == null) {
-                wordVal = new WordPropValueNode();
-                wordVal.setValue(row.getCell(cellNum).toString().trim());
-                wordVal = wordProp.addValue(row.getCell(cellNum).toString().trim());
-            }
+            importClassValues.put(wordProp.getId(), values);
+        }
 
-            // add class value to word
-            newWord.setClassValue(wordProp.getId(), wordVal.getId());
+        WordPropValueNode ret = values.get(value);
+
+        // create class value if doesn't exist yet
+        if (ret == null) {
+            ret = wordProp.addValue(value);
+            values.put(value, ret);
         }
 
-        // add local word
-        columnList = Arrays.asList(iLocalWord.split(","));
-        for (String entry : columnList) {
-            if (entry == null || entry.equals("")) {
-                continue;
-            }
+        return ret;
+    }
 
-            Integer cellNum = cellNumCheckGet(entry);
+    /**
+     * Finds or creates type by name
+     *
+     * @param name type name
+     * @return type
+     * @throws Exception if type cannot be created
+     */
+    private TypeNode getImportType(String name) throws Exception {
+        TypeNode ret = importTypes.get(name);
 
-            if (newWord.getLocalWord().trim().equals("")) {
-                newWord.setLocalWord(row.getCell(cellNum) != null ? row.getCell(cellNum).toString() : "");
-            } else if (row.getCell(cellNum) != null) {
-                newWord.setLocalWord(newWord.getLocalWord() + ", " + row.getCell(cellNum).toString());
-            }
+        if (ret == null) {
+            ret = core.getTypes().findOrCreate(name);
+            importTypes.put(name, ret);
         }
 
-        // add pronunciation
-        columnList = Arrays.asList(iPronunciation.split(","));
-        for (String entry : columnList) {
-            if (entry == null || entry.equals("")) {
-                continue;
-            }
+        return ret;
+    }
 
-            Integer cellNum = cellNumCheckGet(entry);
+    /**
+     * Informed as rows are imported
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called after each batch of rows is added to the lexicon
+         *
+         * @param rowCount number of rows imported so far (including any
+         * without a conword, which are skipped)
+         */
+        void rowsImported(int rowCount);
+    }
 
-            if (newWord.getPronunciation().trim().equals("")) {
-                newWord.setPronunciation(row.getCell(cellNum) != null ? row.getCell(cellNum).toString() : "");
-            } else if (row.getCell(cellNum) != null) {
-                newWord.setPronunciation(newWord.getPronunciation() + ", " + row.getCell(cellNum).toString());
-            }
+    /**
+     * Collects cells of streamed XLSX rows, queueing each row as it ends
+     */
+    private class StreamedSheetHandler implements SheetContentsHandler {
+
+        private final int width;
+        private String[] cells;
+        private boolean firstRow = true;
+
+        StreamedSheetHandler(int _width) {
+            width = _width;
         }
 
-        // add type
-        columnList = Arrays.asList(iType.split(","));
-        for (String entry : columnList) {
-            if (entry == null || entry.equals("")) {
-                continue;
+        @Override
+        public void startRow(int rowNum) {
+            cells = new String[width];
+        }
+
+        @Override
+        public void endRow() {
+            // if first row is labels, skip
+            if (firstRow && bFirstLineLabels) {
+                firstRow = false;
+                return;
+            }
+            firstRow = false;
+
+            try {
+                addRow(cells);
+            } catch (Exception e) {
+                throw new RowImportException(e);
             }
+        }
 
-            Integer cellNum = cellNumCheckGet(entry);
+        @Override
+        public void cell(String cellReference, String formattedValue) {
+            int cellNum = new CellReference(cellReference).getCol();
 
-            if (newWord.getWordTypeId() == 0) {
-                newWord.setWordTypeId(core.getTypes().findOrCreate(row.getCell(cellNum) != null ? row.getCell(cellNum).toString() : "").getId());
-            } else if (row.getCell(cellNum) != null) {
-                newWord.setWordTypeId(core.getTypes().findOrCreate(newWord.getWordTypeDisplay() + ", " + row.getCell(cellNum).toString()).getId());
+            if (cellNum < width) {
+                cells[cellNum] = formattedValue;
             }
         }
 
-        // add type to list of potential types if applicable and user
-        // specified
-        if (bCreateTypes && newWord.getWordTypeId() != 0
-                && !core.getTypes().nodeExists(newWord.getWordTypeId())) {
-            core.getTypes().clear();
-            TypeNode newType = core.getTypes().getBufferType();
-            newType.setValue(newWord.getWordTypeDisplay());
-            core.getTypes().insert();
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            // not imported
         }
+    }
 
-        core.getWordCollection().addWord(newWord);
+    /**
+     * Carries import errors out of the SAX callbacks, which may not throw
+     * checked exceptions
+     */
+    private static class RowImportException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+        RowImportException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    /**
+     * Contents of an imported row not yet resolved against the dictionary
+     */
+    private static class ParsedRow {
+
+        final ConWord word;
+        // values for each class and type column, null where cell is missing
+        final String[] classValues;
+        final String[] typeValues;
+
+        ParsedRow(ConWord _word, int classCount, int typeCount) {
+            word = _word;
+            classValues = new String[classCount];
+            typeValues = new String[typeCount];
+        }
+    }
+
+    private class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<?> rows;
+        private final ParsedRow[] parsed;
+        private final int start;
+        private final int end;
+        private final int split;
+
+        ParseTask(List<?> _rows, ParsedRow[] _parsed, int _start, int _end, int _split) {
+            rows = _rows;
+            parsed = _parsed;
+            start = _start;
+            end = _end;
+            split = _split;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= split) {
+                for (int i = start; i < end; i++) {
+                    parsed[i] = parseRow(rows.get(i));
+                }
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new ParseTask(rows, parsed, start, mid, split),
+                    new ParseTask(rows, parsed, mid, end, split));
+        }
     }
 
     /**
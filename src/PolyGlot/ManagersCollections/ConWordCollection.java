@@ -24,12 +24,15 @@ import PolyGlot.DictCore;
 import PolyGlot.Nodes.DeclensionPair;
 import PolyGlot.Nodes.DictNode;
 import PolyGlot.PGTUtil;
-import PolyGlot.Nodes.PronunciationNode;
 import PolyGlot.Nodes.TypeNode;
 import PolyGlot.RankedObject;
 import PolyGlot.WebInterface;
 import java.awt.Font;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -48,6 +51,8 @@ public class ConWordCollection extends DictionaryCollection {
     private final DictCore core;
     private final Map<String, Integer> allConWords;
     private final Map<String, Integer> allLocalWords;
+    private final LexiconStatistics statistics;
+    private final WordLegalityTracker legality;
     private boolean orderByLocal = false;
 
     public ConWordCollection(DictCore _core) {
@@ -55,6 +60,11 @@ public class ConWordCollection extends DictionaryCollection {
         allConWords = new HashMap<>();
         allLocalWords = new HashMap<>();
         core = _core;
+        statistics = new LexiconStatistics(core);
+
+        @SuppressWarnings("unchecked")
+        Map<Integer, ConWord> words = nodeMap;
+        legality = new WordLegalityTracker(core, words);
     }
 
     /**
@@ -76,8 +86,10 @@ public class ConWordCollection extends DictionaryCollection {
         ((ConWord) bufferNode).setParent(this);
         ((ConWord) bufferNode).setCore(core);
         ret = super.insert(_id, bufferNode);
+        legality.markDirty(ret);
 
         balanceWordCounts(insWord, true);
+        statistics.putWord(ret, insWord.getValue(), insWord.getWordTypeId());
 
         bufferNode = new ConWord();
 
@@ -85,23 +97,31 @@ public class ConWordCollection extends DictionaryCollection {
     }
 
     /**
-     * Gets all words that are illegal in some way
+     * Gets all words that are illegal in some way. Only words which have
+     * changed, or which depend on rules that have changed, are tested again.
      *
      * @return an iterator full of all illegal conwords
      */
     public Iterator<ConWord> illegalFilter() {
-        List<ConWord> retList = new ArrayList<>();
-
-        for (Object object : nodeMap.values()) {
-            ConWord curWord = (ConWord) object;
+        return legality.getIllegalWords().iterator();
+    }
 
-            if (!curWord.isWordLegal()) {
-                retList.add(curWord);
-            }
-        }
+    /**
+     * Marks a word's legality to be tested again when next asked for, as
+     * something it depends on outside the word itself (such as its
+     * declensions) has changed
+     *
+     * @param id id of word
+     */
+    public void externalLegalityChanged(Integer id) {
+        legality.markDirty(id);
+    }
 
-        Collections.sort(retList);
-        return retList.iterator();
+    /**
+     * Marks every word's legality to be tested again when next asked for
+     */
+    public void externalLegalityChangedAll() {
+        legality.markAllDirty();
     }
 
     /**
@@ -142,9 +162,7 @@ public class ConWordCollection extends DictionaryCollection {
                 + core.getDeclensionManager().declensionRequirementsMet(word, wordType));
 
         if (wordType != null) {
-            String typeRegex = wordType.getPattern();
-
-            if (!typeRegex.equals("") && !word.getValue().matches(typeRegex)) {
+            if (!wordType.matchesPattern(word.getValue())) {
                 ret.setDefinition(ret.getDefinition() + (ret.getDefinition().equals("") ? "" : "\n")
                         + "Word does not match enforced pattern for type: " + word.getWordTypeDisplay() + ".");
                 ret.setProcOverride(true);
@@ -169,6 +187,7 @@ public class ConWordCollection extends DictionaryCollection {
         ret = super.insert(bufferNode);
 
         balanceWordCounts((ConWord) bufferNode, true);
+        statistics.putWord(ret, bufferNode.getValue(), ((ConWord) bufferNode).getWordTypeId());
 
         bufferNode = new ConWord();
 
@@ -252,6 +271,21 @@ public class ConWordCollection extends DictionaryCollection {
 
         balanceWordCounts(oldWord, false);
         balanceWordCounts(newWord, true);
+        // value as word will hold it (trimmed)
+        statistics.setWordValue(id, newWord.getValue());
+        legality.markDirty(id);
+        core.getLogoCollection().wordValueChanged(id, newWord.getValue());
+    }
+
+    /**
+     * Balances statistics when modifying a word's type directly
+     *
+     * @param id id of word to modify
+     * @param typeId new type id
+     */
+    public void externalBalanceWordType(Integer id, int typeId) {
+        statistics.setWordType(id, typeId);
+        legality.markDirty(id);
     }
 
     /**
@@ -286,7 +320,11 @@ public class ConWordCollection extends DictionaryCollection {
 
         balanceWordCounts(deleteWord, false);
         super.deleteNodeById(_id);
+        statistics.removeWord(_id);
+        legality.markDirty(_id);
         core.getDeclensionManager().clearAllDeclensionsWord(_id);
+        core.getFamManager().removeDeadWord(_id);
+        core.getLogoCollection().wordDeleted(_id);
     }
 
     @Override
@@ -297,7 +335,17 @@ public class ConWordCollection extends DictionaryCollection {
         balanceWordCounts((ConWord) _modNode, true);
         ((ConWord) _modNode).setCore(core);
 
+        // changes made through a word's own setters are already marked
+        if (oldWord != _modNode
+                && (!oldWord.getValue().equals(_modNode.getValue())
+                || !oldWord.getLocalWord().equals(((ConWord) _modNode).getLocalWord())
+                || !oldWord.getWordTypeId().equals(((ConWord) _modNode).getWordTypeId()))) {
+            legality.markDirty(_id);
+        }
+
         super.modifyNode(_id, _modNode);
+        statistics.putWord(_id, _modNode.getValue(), ((ConWord) _modNode).getWordTypeId());
+        core.getLogoCollection().wordValueChanged(_id, _modNode.getValue());
     }
 
     /**
@@ -313,7 +361,9 @@ public class ConWordCollection extends DictionaryCollection {
     protected Integer insert(Integer _id, DictNode _buffer) throws Exception {
         ((ConWord) _buffer).setCore(core);
         ((ConWord) _buffer).setParent(this);
-        return super.insert(_id, _buffer);
+        Integer ret = super.insert(_id, _buffer);
+        legality.markDirty(ret);
+        return ret;
     }
 
     /**
@@ -360,13 +410,13 @@ public class ConWordCollection extends DictionaryCollection {
 
             String word = curWord.getValue();
             String compare = _match;
-            String definition = curWord.getDefinition();
+            String definition = curWord.getParsedDefinition().getPlainText();
 
             // on ignore case, force all to lowercase
             if (core.getPropertiesManager().isIgnoreCase()) {
                 word = word.toLowerCase();
                 compare = compare.toLowerCase();
-                definition = definition.toLowerCase();
+                definition = curWord.getParsedDefinition().getPlainTextLower();
             }
 
             if (word.equals(compare)) {
@@ -413,8 +463,7 @@ public class ConWordCollection extends DictionaryCollection {
      * @throws Exception on filtering error
      */
     public List<ConWord> filteredList(ConWord _filter) throws Exception {
-        ConWordCollection retValues = new ConWordCollection(core);
-        retValues.setAlphaOrder(alphaOrder);
+        List<ConWord> retValues = new ArrayList<>();
 
         Iterator<Entry<Integer, ConWord>> filterList = nodeMap.entrySet()
                 .iterator();
@@ -441,13 +490,13 @@ public class ConWordCollection extends DictionaryCollection {
 
                 // if set to ignore case, set up caseless matches, normal otherwise
                 if (core.getPropertiesManager().isIgnoreCase()) {
-                    definition = curWord.getDefinition().toLowerCase();
+                    definition = curWord.getParsedDefinition().getPlainTextLower();
                     type = curWord.getWordTypeId();
                     local = curWord.getLocalWord().toLowerCase();
                     //gender = curWord.getGender().toLowerCase(); // TODO: replace with class filtering
                     proc = curWord.getPronunciation().toLowerCase();
                 } else {
-                    definition = curWord.getDefinition();
+                    definition = curWord.getParsedDefinition().getPlainText();
                     type = curWord.getWordTypeId();
                     local = curWord.getLocalWord();
                     //gender = curWord.getGender(); // TODO: replace with class filtering
@@ -492,15 +541,16 @@ public class ConWordCollection extends DictionaryCollection {
                     continue;
                 }
 
-                retValues.setBufferWord(curWord);
-                retValues.insert(curWord.getId());
+                retValues.add(curWord);
             } catch (Exception e) {
                 throw new Exception("FILTERING ERROR: " + e.getMessage());
             }
 
         }
 
-        return retValues.getWordNodes();
+        Collections.sort(retValues);
+
+        return retValues;
     }
 
     /**
@@ -621,249 +671,71 @@ public class ConWordCollection extends DictionaryCollection {
     }
 
     /**
-     * Builds report on words in ConLang. Potentially computationally expensive.
+     * Adds many words at once (such as on import). Words are inserted as
+     * given rather than copied through the buffer, and legality is left to be
+     * tested in full when next asked for rather than word by word.
      *
-     * @return
+     * @param _addWords words to be inserted
+     * @return IDs of newly inserted words, in order
+     * @throws Exception
      */
-    public String buildWordReport() {
-        String ret = "";
-
-        Map<String, Integer> wordStart = new HashMap<>();
-        Map<String, Integer> wordEnd = new HashMap<>();
-        Map<String, Integer> characterCombos2 = new HashMap<>();
-        Integer highestCombo2 = 0;
-        Map<String, Integer> characterCombos3 = new HashMap<>();
-        Map<Integer, Integer> typeCountByWord = new HashMap<>();
-        Map<String, Integer> phonemeCount = new HashMap<>();
-        Map<String, Integer> charCount = new HashMap<>();
-        Map<String, Integer> phonemeCombo2 = new HashMap<>();
-        Integer wordCount = nodeMap.size();
-        String allChars = core.getPropertiesManager().getAlphaPlainText();
-
-        Iterator<ConWord> wordIt = new ArrayList<>(nodeMap.values()).iterator();
-
-        // Put values into maps to count/record... 
-        while (wordIt.hasNext()) {
-            ConWord curWord = wordIt.next();
-            final String curValue = curWord.getValue();
-            final int curValueLength = curValue.length();
-            final int curType = curWord.getWordTypeId();
-
-            // make sure we have all the characters in the word (fi they forgot to populate one in their alpha order(
-            for (char c : curValue.toCharArray()) {
-                if (!allChars.contains(String.valueOf(c))) {
-                    allChars += c;
-                }
-            }
-
-            String beginsWith = curValue.substring(0, 1);
-            String endsWith = curValue.substring(curValueLength - 1, curValueLength);
+    public List<Integer> addWords(List<ConWord> _addWords) throws Exception {
+        List<Integer> ret = new ArrayList<>();
 
-            // either increment or create value for starting character
-            if (wordStart.containsKey(beginsWith)) {
-                int newValue = wordStart.get(beginsWith) + 1;
-                wordStart.remove(beginsWith);
-                wordStart.put(beginsWith, newValue);
-            } else {
-                wordStart.put(beginsWith, 1);
-            }
-
-            // either increment or create value for ending character
-            if (wordEnd.containsKey(endsWith)) {
-                int newValue = wordEnd.get(endsWith) + 1;
-                wordEnd.remove(endsWith);
-                wordEnd.put(endsWith, newValue);
-            } else {
-                wordEnd.put(endsWith, 1);
-            }
+        legality.markAllDirty();
 
-            // capture and record all phonemes in word and phoneme combinations
-            List<PronunciationNode> phonArray = core.getPronunciationMgr()
-                    .getPronunciationElements(curValue);
+        for (ConWord curWord : _addWords) {
+            Integer id = super.insert(curWord);
 
-            for (int i = 0; i < phonArray.size(); i++) {
-                if (phonemeCount.containsKey(phonArray.get(i).getPronunciation())) {
-                    int newValue = phonemeCount.get(phonArray.get(i).getPronunciation()) + 1;
-                    phonemeCount.remove(phonArray.get(i).getPronunciation());
-                    phonemeCount.put(phonArray.get(i).getPronunciation(), newValue);
-                } else {
-                    phonemeCount.put(phonArray.get(i).getPronunciation(), 1);
-                }
-
-                // grab combo if there are additinal phonemes, otherwise you're done
-                if (i + 1 < phonArray.size()) {
-                    String curCombo = phonArray.get(i).getPronunciation() + " "
-                            + phonArray.get(i + 1).getPronunciation();
-
-                    if (phonemeCombo2.containsKey(curCombo)) {
-                        int newValue = phonemeCombo2.get(curCombo) + 1;
-                        phonemeCombo2.remove(curCombo);
-                        phonemeCombo2.put(curCombo, newValue);
-                    } else {
-                        phonemeCombo2.put(curCombo, 1);
-                    }
-                }
-            }
-
-            // caupture all individual characters
-            for (int i = 0; i < curValueLength; i++) {
-                String curChar = curValue.substring(i, i + 1);
-
-                if (charCount.containsKey(curChar)) {
-                    int newValue = charCount.get(curChar) + 1;
-                    charCount.remove(curChar);
-                    charCount.put(curChar, newValue);
-                } else {
-                    charCount.put(curChar, 1);
-                }
-            }
-
-            // capture and record all 2 character combinations in words
-            for (int i = 0; i < curValueLength - 1; i++) {
-                String combo = curValue.substring(i, i + 2);
-
-                if (characterCombos2.containsKey(combo)) {
-                    int curComboCount = characterCombos2.get(combo);
-
-                    if (highestCombo2 <= curComboCount) {
-                        highestCombo2 = curComboCount + 1;
-                    }
-
-                    int newValue = characterCombos2.get(combo) + 1;
-                    characterCombos2.remove(combo);
-                    characterCombos2.put(combo, newValue);
-                } else {
-                    characterCombos2.put(combo, 1);
-                }
-            }
-
-            // capture and record all 3 character combinations in words
-            for (int i = 0; i < curValueLength - 2; i++) {
-                String combo = curValue.substring(i, i + 3);
-
-                if (characterCombos3.containsKey(combo)) {
-                    int newValue = characterCombos3.get(combo) + 1;
-                    characterCombos3.remove(combo);
-                    characterCombos3.put(combo, newValue);
-                } else {
-                    characterCombos3.put(combo, 1);
-                }
-            }
-
-            // record type count...
-            if (typeCountByWord.containsKey(curType)) {
-                int newValue = typeCountByWord.get(curType) + 1;
-                typeCountByWord.remove(curType);
-                typeCountByWord.put(curType, newValue);
-            } else {
-                typeCountByWord.put(curType, 1);
-            }
+            balanceWordCounts(curWord, true);
+            statistics.putWord(id, curWord.getValue(), curWord.getWordTypeId());
+            ret.add(id);
         }
 
-        ret += formatPlain("Count of words in conlang lexicon: " + wordCount + "<br><br>");
-
-        // build display of type counts
-        ret += formatPlain("count of words by type:<br>");
-        for (Entry<Integer, Integer> curEntry : typeCountByWord.entrySet()) {
-            TypeNode type = core.getTypes().getNodeById(curEntry.getKey());
+        return ret;
+    }
 
-            if (type != null) {
-                ret += formatPlain(type.getValue() + " : " + curEntry.getValue() + "<br>");
-            }
-        }
-        ret += formatPlain("<br><br>");
+    /**
+     * Builds report on words in ConLang from statistics kept current as words
+     * change. To check them against a full recount, use verifyStatistics().
+     *
+     * @return
+     */
+    public String buildWordReport() {
+        StringWriter ret = new StringWriter();
 
-        // build display for starts-with statistics
-        ret += formatPlain(" Breakdown of words counted starting with letter:<br>");
-        for (char letter : allChars.toCharArray()) {
-            ret += letter + formatPlain(" : "
-                    + (wordStart.containsKey("" + letter) ? wordStart.get("" + letter) : formatPlain("0")) + "<br>");
+        try {
+            writeWordReport(ret, 0);
+        } catch (IOException e) {
+            // writing to memory; cannot happen
+            throw new IllegalStateException(e);
         }
-        ret += formatPlain("<br><br>");
 
-        // build display for ends-with statistics
-        ret += formatPlain(" Breakdown of words counted ending with letter:<br>");
-        for (char letter : allChars.toCharArray()) {
-            ret += letter + formatPlain(" : "
-                    + (wordEnd.containsKey("" + letter) ? wordEnd.get("" + letter) : formatPlain("0")) + "<br>");
-        }
-        ret += formatPlain("<br><br>");
+        return ret.toString();
+    }
 
-        // build display for character counts
-        ret += formatPlain(" Breakdown of characters counted across all words:<br>");
-        for (char letter : allChars.toCharArray()) {
-            ret += letter + formatPlain(" : "
-                    + (charCount.containsKey("" + letter) ? charCount.get("" + letter) : formatPlain("0")) + "<br>");
-        }
-        ret += formatPlain("<br><br>");
-
-        // build display for phoneme count
-        ret += formatPlain(" Breakdown of phonemes counted across all words:<br>");
-        Iterator<PronunciationNode> procLoop = core.getPronunciationMgr().getPronunciations();
-        while (procLoop.hasNext()) {
-            PronunciationNode curNode = procLoop.next();
-            ret += formatPlain(curNode.getPronunciation() + " : "
-                    + (phonemeCount.containsKey(curNode.getPronunciation())
-                    ? phonemeCount.get(curNode.getPronunciation()) : formatPlain("0")) + "<br>");
-        }
-        ret += formatPlain("<br><br>");
-
-        // buid grid of 2 letter combos
-        ret += formatPlain("Heat map of letter combination frequency:<br>");
-        ret += "<table border=\"1\">";
-        ret += "<tr><td></td>";
-        for (char topRow : allChars.toCharArray()) {
-            ret += "<td>" + topRow + "</td>";
-        }
-        ret += "</tr>";
-        for (char y : core.getPropertiesManager().getAlphaPlainText().toCharArray()) {
-            ret += "<tr><td>" + y + "</td>";
-            for (char x : allChars.toCharArray()) {
-                String search = "" + x + y;
-                Integer comboValue = (characterCombos2.containsKey(search)
-                        ? characterCombos2.get(search) : 0);
-
-                Integer red = (255 / highestCombo2) * comboValue;
-                Integer blue = 255 - red;
-                ret += "<td bgcolor=rgb(" + red + "," + blue + "," + blue + ")>"
-                        + x + y + formatPlain(":"
-                                + comboValue.toString()) + "</td>";
-            }
-            ret += "</tr>";
-        }
-        ret += "</table>" + formatPlain("<br><br>");
-
-        // buid grid of 2 phoneme combos
-        ret += formatPlain("Heat map of phoneme combination frequency:<br>");
-        ret += "<table border=\"1\">";
-        ret += "<tr>" + formatPlain("<td></td>");
-        Iterator<PronunciationNode> procIty = core.getPronunciationMgr().getPronunciations();
-        while (procIty.hasNext()) {
-            ret += "<td>" + formatPlain(formatPlain(procIty.next().getPronunciation())) + "</td>";
-        }
-        ret += "</tr>";
-        procIty = core.getPronunciationMgr().getPronunciations();
-        while (procIty.hasNext()) {
-            PronunciationNode y = procIty.next();
-            ret += "<tr><td>" + formatPlain(y.getPronunciation()) + "</td>";
-            Iterator<PronunciationNode> procItx = core.getPronunciationMgr().getPronunciations();
-            while (procItx.hasNext()) {
-                PronunciationNode x = procItx.next();
-                String search = x.getPronunciation() + " " + y.getPronunciation();
-                Integer comboValue = (phonemeCombo2.containsKey(search)
-                        ? phonemeCombo2.get(search) : 0);
-
-                Integer red = (255 / highestCombo2) * comboValue;
-                Integer blue = 255 - red;
-                ret += "<td bgcolor=rgb(" + red + "," + blue + "," + blue + ")>"
-                        + formatPlain(x.getPronunciation() + y.getPronunciation() + ":"
-                                + comboValue.toString()) + "</td>";
-            }
-            ret += "</tr>";
-        }
-        ret += "</table>";
+    /**
+     * Streams report on words in ConLang (see buildWordReport())
+     *
+     * @param out writer to stream report to
+     * @param pageSize maximum rows and columns per heat map table, 0 for no
+     * limit
+     * @throws IOException on write failure
+     */
+    public void writeWordReport(Writer out, int pageSize) throws IOException {
+        statistics.writeReport(out, pageSize);
+    }
 
-        return ret;
+    /**
+     * Compares live word statistics against a full recount of the lexicon (as
+     * run by BatchRunner --check-stats)
+     *
+     * @return description of each difference, empty if consistent
+     */
+    public List<String> verifyStatistics() {
+        @SuppressWarnings("unchecked")
+        Collection<ConWord> words = nodeMap.values();
+        return statistics.diff(LexiconStatistics.compute(core, words));
     }
 
     /**
@@ -0,0 +1,613 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.DeclensionCombinedId;
+import PolyGlot.Nodes.DeclensionGenRule;
+import PolyGlot.Nodes.DeclensionGenTransform;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Dry run of edits to a type's declension generation rules. The rules as they
+ * stand when this is created are compiled into a baseline table. An edited or
+ * new rule can then be checked against that baseline to find every word whose
+ * generated form it changes, without touching the dictionary.
+ *
+ * To avoid running expressions across the whole lexicon, head words are
+ * indexed by prefix and suffix. Literal text that a rule's expression demands
+ * at the start or end of a word narrows the words tested to a range of the
+ * index. The forms a rule sees are only head words where no earlier rule in
+ * the chain applied, so words earlier rules apply to are always tested too.
+ *
+ * @author draque.thompson
+ */
+public class DeclensionImpactAnalyzer {
+
+    private static final String META_CHARS = "\\^$.|?*+()[]{}";
+
+    private final List<ConWord> words = new ArrayList<>();
+    private final List<CompiledRule> baseline = new ArrayList<>();
+    // maps live rules to their baseline entries, by identity as rules are edited in place
+    private final Map<DeclensionGenRule, CompiledRule> baselineByRule = new IdentityHashMap<>();
+    // head words sorted, and reversed head words sorted, as positions in words
+    private int[] byPrefix = null;
+    private int[] bySuffix = null;
+    private String[] reversed = null;
+
+    /**
+     * Captures baseline rules of a type and the words they apply to
+     *
+     * @param decMan declension manager holding rules
+     * @param typeId type to analyze rules of
+     * @param allWords lexicon (words not of the type, or which override
+     * automatic declension, are ignored)
+     */
+    public DeclensionImpactAnalyzer(DeclensionManager decMan, int typeId, Collection<ConWord> allWords) {
+        for (DeclensionGenRule curRule : decMan.getDeclensionRules(typeId)) {
+            DeclensionGenRule copy = new DeclensionGenRule();
+            copy.setEqual(curRule, true);
+            CompiledRule compiled = new CompiledRule(copy, false);
+            baseline.add(compiled);
+            baselineByRule.put(curRule, compiled);
+        }
+
+        for (ConWord curWord : allWords) {
+            if (curWord.getWordTypeId() == typeId && !curWord.isOverrideAutoDeclen()) {
+                words.add(curWord);
+            }
+        }
+    }
+
+    /**
+     * Works out which words a rule's current state changes the forms of,
+     * compared to the baseline. If the rule existed at baseline its old state
+     * is replaced, otherwise it is treated as added to the end of its
+     * combination's rules.
+     *
+     * @param rule rule as edited
+     * @param sampleLimit maximum number of before/after samples to keep
+     * @return impact of rule
+     * @throws PatternSyntaxException if rule's expressions are malformed
+     */
+    public Impact analyze(DeclensionGenRule rule, int sampleLimit) throws PatternSyntaxException {
+        buildIndex();
+
+        DeclensionCombinedId combId = rule.getCombinationId();
+        CompiledRule oldRule = baselineByRule.get(rule);
+        CompiledRule newRule = new CompiledRule(rule, true);
+        List<CompiledRule> before = new ArrayList<>();
+        List<CompiledRule> after = new ArrayList<>();
+        BitSet candidates = new BitSet(words.size());
+        boolean passedOld = false;
+
+        for (CompiledRule curRule : baseline) {
+            if (!curRule.rule.getCombinationId().equals(combId)) {
+                continue;
+            }
+
+            before.add(curRule);
+
+            if (curRule == oldRule) {
+                after.add(newRule);
+                passedOld = true;
+            } else {
+                after.add(curRule);
+
+                // rules applying ahead of this one alter what it sees
+                if (!passedOld) {
+                    addMatches(curRule, candidates);
+                }
+            }
+        }
+
+        if (oldRule == null) {
+            after.add(newRule);
+        } else {
+            addMatches(oldRule, candidates);
+        }
+        addMatches(newRule, candidates);
+
+        Impact ret = new Impact(candidates.cardinality(), words.size());
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ConWord curWord = words.get(i);
+            String oldForm = decline(before, curWord.getValue());
+            String newForm = decline(after, curWord.getValue());
+
+            if (!oldForm.equals(newForm)) {
+                ret.changed++;
+
+                if (ret.samples.size() < sampleLimit) {
+                    ret.samples.add(new Sample(curWord, oldForm, newForm));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Applies chain of rules as DeclensionManager.declineWord() does
+     */
+    static String decline(List<CompiledRule> rules, String base) {
+        String ret = "";
+
+        for (CompiledRule curRule : rules) {
+            if (curRule.matches(base)) {
+                for (int i = 0; i < curRule.transforms.length; i++) {
+                    base = curRule.transforms[i].matcher(base).replaceAll(curRule.replacements[i]);
+                    ret = base;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Marks all words whose head word the rule matches, testing only the
+     * index range its literal prefix or suffix allows
+     */
+    private void addMatches(CompiledRule rule, BitSet found) {
+        if (rule.match == null) {
+            return;
+        }
+
+        int[] range = null;
+        int[] order = null;
+
+        if (!rule.prefix.isEmpty()) {
+            range = prefixRange(byPrefix, rule.prefix, false);
+            order = byPrefix;
+        }
+
+        if (!rule.suffix.isEmpty()) {
+            int[] suffixRange = suffixRange(rule.suffix);
+
+            if (range == null || suffixRange[1] - suffixRange[0] < range[1] - range[0]) {
+                range = suffixRange;
+                order = bySuffix;
+            }
+        }
+
+        if (range == null) {
+            for (int i = 0; i < words.size(); i++) {
+                if (!found.get(i) && rule.matches(words.get(i).getValue())) {
+                    found.set(i);
+                }
+            }
+        } else {
+            for (int i = range[0]; i < range[1]; i++) {
+                int pos = order[i];
+                if (!found.get(pos) && rule.matches(words.get(pos).getValue())) {
+                    found.set(pos);
+                }
+            }
+        }
+    }
+
+    private int[] suffixRange(String suffix) {
+        return prefixRange(bySuffix, new StringBuilder(suffix).reverse().toString(), true);
+    }
+
+    /**
+     * Finds range of sorted positions whose key starts with prefix
+     *
+     * @param order positions sorted by key
+     * @param prefix prefix to find
+     * @param reverse whether keys are reversed head words
+     * @return start (inclusive) and end (exclusive) within order
+     */
+    private int[] prefixRange(int[] order, String prefix, boolean reverse) {
+        int low = 0;
+        int high = order.length;
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(order[mid], reverse).compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int end = low;
+        while (end < order.length && key(order[end], reverse).startsWith(prefix)) {
+            end++;
+        }
+
+        return new int[]{low, end};
+    }
+
+    private String key(int pos, boolean reverse) {
+        return reverse ? reversed[pos] : words.get(pos).getValue();
+    }
+
+    private void buildIndex() {
+        if (byPrefix != null) {
+            return;
+        }
+
+        int count = words.size();
+        Integer[] prefixOrder = new Integer[count];
+        Integer[] suffixOrder = new Integer[count];
+        reversed = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            prefixOrder[i] = i;
+            suffixOrder[i] = i;
+            reversed[i] = new StringBuilder(words.get(i).getValue()).reverse().toString();
+        }
+
+        Arrays.sort(prefixOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return words.get(a).getValue().compareTo(words.get(b).getValue());
+            }
+        });
+        Arrays.sort(suffixOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return reversed[a].compareTo(reversed[b]);
+            }
+        });
+
+        byPrefix = new int[count];
+        bySuffix = new int[count];
+        for (int i = 0; i < count; i++) {
+            byPrefix[i] = prefixOrder[i];
+            bySuffix[i] = suffixOrder[i];
+        }
+    }
+
+    /**
+     * Gets literal text every match of an expression (matched against a
+     * whole word) must start with. Conservative: empty if unsure.
+     *
+     * @param regex expression
+     * @return required literal prefix
+     */
+    static String literalPrefix(String regex) {
+        if (regex.contains("|") || regex.contains("(?")) {
+            return "";
+        }
+
+        StringBuilder ret = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+
+        while (i < regex.length()) {
+            int end = elementEnd(regex, i);
+            int literal = elementLiteral(regex, i, end);
+
+            if (literal == -1) {
+                break;
+            }
+
+            i = end;
+
+            // an optional or repeated character is not required
+            if (i < regex.length() && "?*{".indexOf(regex.charAt(i)) != -1) {
+                // the quantifier covers the whole of a surrogate pair
+                if (Character.isLowSurrogate((char) literal) && ret.length() > 0) {
+                    ret.setLength(ret.length() - 1);
+                }
+                break;
+            }
+
+            ret.append((char) literal);
+        }
+
+        return ret.toString();
+    }
+
+    /**
+     * Gets literal text every match of an expression (matched against a
+     * whole word) must end with. Conservative: empty if unsure.
+     *
+     * @param regex expression
+     * @return required literal suffix
+     */
+    static String literalSuffix(String regex) {
+        if (regex.contains("|") || regex.contains("(?")) {
+            return "";
+        }
+
+        int length = regex.length();
+
+        if (length > 0 && regex.charAt(length - 1) == '$' && !isEscaped(regex, length - 1)) {
+            length--;
+        }
+
+        // read forward, as escapes can only be told apart from the start;
+        // anything other than a literal character starts the suffix over
+        StringBuilder ret = new StringBuilder();
+        int i = 0;
+
+        while (i < length) {
+            int end = Math.min(elementEnd(regex, i), length);
+            int literal = elementLiteral(regex, i, end);
+
+            if (literal == -1) {
+                ret.setLength(0);
+            } else {
+                ret.append((char) literal);
+            }
+
+            i = end;
+        }
+
+        // a quantifier is meta, so it always clears the character it follows
+        return ret.toString();
+    }
+
+    /**
+     * Finds end of the expression element starting at a position: a single
+     * character, an escape sequence, a character class, or a quoted section
+     *
+     * @param regex expression
+     * @param pos start of element
+     * @return position after element
+     */
+    private static int elementEnd(String regex, int pos) {
+        int length = regex.length();
+        char c = regex.charAt(pos);
+
+        if (c == '[') {
+            int depth = 0;
+
+            for (int i = pos; i < length; i++) {
+                char cur = regex.charAt(i);
+
+                if (cur == '\\') {
+                    i++;
+                } else if (cur == '[') {
+                    depth++;
+                } else if (cur == ']' && --depth == 0) {
+                    return i + 1;
+                }
+            }
+
+            return length;
+        }
+
+        if (c != '\\' || pos + 1 >= length) {
+            return pos + 1;
+        }
+
+        int ret;
+
+        switch (regex.charAt(pos + 1)) {
+            case 'Q':
+                ret = regex.indexOf("\\E", pos + 2);
+                ret = ret == -1 ? length : ret + 2;
+                break;
+            case 'u':
+                ret = pos + 6;
+                break;
+            case 'c':
+                ret = pos + 3;
+                break;
+            case 'x':
+                ret = isAt(regex, pos + 2, '{') ? closeAfter(regex, pos + 2, '}') : pos + 4;
+                break;
+            case 'p':
+            case 'P':
+                ret = isAt(regex, pos + 2, '{') ? closeAfter(regex, pos + 2, '}') : pos + 3;
+                break;
+            case 'N':
+                ret = isAt(regex, pos + 2, '{') ? closeAfter(regex, pos + 2, '}') : pos + 2;
+                break;
+            case 'k':
+                ret = isAt(regex, pos + 2, '<') ? closeAfter(regex, pos + 2, '>') : pos + 2;
+                break;
+            case '0':
+                // up to three octal digits, the first of three at most 3
+                ret = pos + 2;
+                while (ret < length && ret < pos + 5
+                        && regex.charAt(ret) >= '0' && regex.charAt(ret) <= '7'
+                        && (ret < pos + 4 || regex.charAt(pos + 2) <= '3')) {
+                    ret++;
+                }
+                break;
+            default:
+                ret = pos + 2;
+
+                // back references take every digit that follows
+                if (Character.isDigit(regex.charAt(pos + 1))) {
+                    while (ret < length && Character.isDigit(regex.charAt(ret))) {
+                        ret++;
+                    }
+                }
+        }
+
+        return Math.min(ret, length);
+    }
+
+    /**
+     * Gets character an expression element must match: a plain character
+     * which is not meta, or an escaped character which is neither a letter
+     * nor a digit (those escapes have special meanings)
+     *
+     * @param regex expression
+     * @param start start of element
+     * @param end end of element
+     * @return literal character, -1 if element is not a literal
+     */
+    private static int elementLiteral(String regex, int start, int end) {
+        char c = regex.charAt(start);
+
+        if (end - start == 1) {
+            return META_CHARS.indexOf(c) == -1 ? c : -1;
+        }
+
+        if (end - start == 2 && c == '\\'
+                && !Character.isLetterOrDigit(regex.charAt(start + 1))) {
+            return regex.charAt(start + 1);
+        }
+
+        return -1;
+    }
+
+    private static boolean isAt(String regex, int pos, char c) {
+        return pos < regex.length() && regex.charAt(pos) == c;
+    }
+
+    private static int closeAfter(String regex, int from, char close) {
+        int ret = regex.indexOf(close, from);
+        return ret == -1 ? regex.length() : ret + 1;
+    }
+
+    /**
+     * Tests whether character is preceded by an odd number of backslashes
+     */
+    private static boolean isEscaped(String regex, int pos) {
+        int slashes = 0;
+
+        while (pos - slashes - 1 >= 0 && regex.charAt(pos - slashes - 1) == '\\') {
+            slashes++;
+        }
+
+        return slashes % 2 == 1;
+    }
+
+    /**
+     * A rule with its expressions compiled
+     */
+    static class CompiledRule {
+
+        final DeclensionGenRule rule;
+        // null if rule's expression is malformed (never matches)
+        final Pattern match;
+        final Pattern[] transforms;
+        final String[] replacements;
+        final String prefix;
+        final String suffix;
+
+        /**
+         * @param _rule rule to compile
+         * @param strict whether to throw on malformed expressions, rather than
+         * treating the rule as never matching
+         */
+        CompiledRule(DeclensionGenRule _rule, boolean strict) throws PatternSyntaxException {
+            rule = _rule;
+            List<DeclensionGenTransform> transList = rule.getTransforms();
+            Pattern compiled;
+            transforms = new Pattern[transList.size()];
+            replacements = new String[transList.size()];
+
+            try {
+                compiled = Pattern.compile(rule.getRegex());
+
+                for (int i = 0; i < transforms.length; i++) {
+                    transforms[i] = Pattern.compile(transList.get(i).regex);
+                    replacements[i] = transList.get(i).replaceText;
+                }
+            } catch (PatternSyntaxException e) {
+                if (strict) {
+                    throw e;
+                }
+                compiled = null;
+            }
+
+            match = compiled;
+            prefix = compiled == null ? "" : literalPrefix(rule.getRegex());
+            suffix = compiled == null ? "" : literalSuffix(rule.getRegex());
+        }
+
+        boolean matches(String base) {
+            return match != null && match.matcher(base).matches();
+        }
+    }
+
+    /**
+     * Outcome of analyzing a rule
+     */
+    public static class Impact {
+
+        private final int tested;
+        private final int total;
+        private int changed = 0;
+        private final List<Sample> samples = new ArrayList<>();
+
+        Impact(int _tested, int _total) {
+            tested = _tested;
+            total = _total;
+        }
+
+        /**
+         * @return number of words whose generated form changes
+         */
+        public int getChangedCount() {
+            return changed;
+        }
+
+        /**
+         * @return number of words actually run through the rules
+         */
+        public int getTestedCount() {
+            return tested;
+        }
+
+        /**
+         * @return number of words rules apply to
+         */
+        public int getWordCount() {
+            return total;
+        }
+
+        public List<Sample> getSamples() {
+            return Collections.unmodifiableList(samples);
+        }
+    }
+
+    /**
+     * Before and after forms of a single word
+     */
+    public static class Sample {
+
+        public final ConWord word;
+        // empty if no rule produces a form
+        public final String before;
+        public final String after;
+
+        Sample(ConWord _word, String _before, String _after) {
+            word = _word;
+            before = _before;
+            after = _after;
+        }
+
+        @Override
+        public String toString() {
+            return word.getValue() + ": " + (before.isEmpty() ? "(none)" : before)
+                    + " -> " + (after.isEmpty() ? "(none)" : after);
+        }
+    }
+}
@@ -21,6 +21,8 @@ package PolyGlot.ManagersCollections;
 
 import PolyGlot.Nodes.ConWord;
 import PolyGlot.DeclensionDimension;
+import PolyGlot.DictCore;
+import PolyGlot.Nodes.DeclensionCombinedId;
 import PolyGlot.Nodes.DeclensionGenRule;
 import PolyGlot.Nodes.DeclensionGenTransform;
 import PolyGlot.Nodes.DeclensionNode;
@@ -37,6 +39,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.PatternSyntaxException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -46,16 +50,26 @@ import org.w3c.dom.Element;
  */
 public class DeclensionManager {
 
+    private final DictCore core;
+
     // Integer is ID of related word, list is list of declension nodes
     private final Map<Integer, List<DeclensionNode>> dList = new HashMap<>();
 
+    // Integer is ID of related word, map indexes the word's declensions by combined dim ID
+    // built on demand from dList, dropped whenever the word's declensions change
+    private final Map<Integer, Map<DeclensionCombinedId, DeclensionNode>> dIndex = new ConcurrentHashMap<>();
+
     // Integer is ID of related type, list is list of declensions for this type
     private final Map<Integer, List<DeclensionNode>> dTemplates = new HashMap<>();
 
     // If specific combined declensions require additional settings in the future,
     // change the boolean here to an object which will store them
-    private final Map<String, Boolean> combSettings = new HashMap<>();
+    private final Map<DeclensionCombinedId, Boolean> combSettings = new HashMap<>();
+
+    // Integer is ID of type, value is every combination of the type's template dimensions
+    private final Map<Integer, CombinationCache> combCache = new ConcurrentHashMap<>();
 
+    private int suppressionVersion = 0;
     private Integer topId = 0;
     private boolean bufferDecTemp = false;
     private Integer bufferRelId = -1;
@@ -63,7 +77,11 @@ public class DeclensionManager {
     private final List<DeclensionGenRule> generationRules = new ArrayList<>();
     private DeclensionGenRule ruleBuffer = new DeclensionGenRule();
 
-    public boolean isCombinedDeclSurpressed(String _combId) {
+    public DeclensionManager(DictCore _core) {
+        core = _core;
+    }
+
+    public boolean isCombinedDeclSurpressed(DeclensionCombinedId _combId) {
         if (!combSettings.containsKey(_combId)) {
             return false;
         }
@@ -71,12 +89,24 @@ public class DeclensionManager {
         return combSettings.get(_combId);
     }
 
-    public void setCombinedDeclSurpressed(String _combId, boolean _surpress) {
+    public void setCombinedDeclSurpressed(DeclensionCombinedId _combId, boolean _surpress) {
         if (!combSettings.containsKey(_combId)) {
             combSettings.put(_combId, _surpress);
         } else {
             combSettings.replace(_combId, _surpress);
         }
+
+        suppressionVersion++;
+    }
+
+    /**
+     * Gets count of changes to suppressed forms, so that anything depending
+     * on them can tell when they have changed
+     *
+     * @return current suppression version
+     */
+    public int getSuppressionVersion() {
+        return suppressionVersion;
     }
 
     /**
@@ -88,7 +118,7 @@ public class DeclensionManager {
     public List<DeclensionGenRule> getAllDepGenerationRules(int typeId) {
         List<DeclensionGenRule> ret = new ArrayList<>();
         List<DeclensionPair> typeRules = getAllCombinedIds(typeId);
-        Map<String, Integer> ruleMap = new HashMap<>();
+        Map<DeclensionCombinedId, Integer> ruleMap = new HashMap<>();
 
         // creates searchable map of extant combination IDs
         for (DeclensionPair curPair : typeRules) {
@@ -207,7 +237,7 @@ public class DeclensionManager {
      * @param base base word string
      * @return new word value if exists, empty string otherwise
      */
-    public String declineWord(int typeId, String combinedId, String base) {
+    public String declineWord(int typeId, DeclensionCombinedId combinedId, String base) {
         Iterator<DeclensionGenRule> typeRules = getDeclensionRules(typeId).iterator();
         String ret = "";
 
@@ -234,6 +264,20 @@ public class DeclensionManager {
         return ret;
     }
 
+    /**
+     * Creates a bulk regeneration of automatic declensions for a set of words.
+     * Nothing is generated until the returned regeneration is run, and nothing
+     * is changed until it is committed.
+     *
+     * @param words words to regenerate declensions of
+     * @return regeneration ready to run
+     * @throws PatternSyntaxException if a generation rule's expressions are
+     * malformed
+     */
+    public DeclensionRegeneration createRegeneration(Collection<ConWord> words) throws PatternSyntaxException {
+        return new DeclensionRegeneration(this, words);
+    }
+
     public Map<Integer, List<DeclensionNode>> getTemplateMap() {
         return dTemplates;
     }
@@ -244,14 +288,17 @@ public class DeclensionManager {
 
     public void addDeclensionToWord(Integer wordId, Integer declensionId, DeclensionNode declension) {
         addDeclension(wordId, declensionId, declension, dList);
+        wordDeclensionsChanged(wordId);
     }
 
     public void deleteDeclensionFromWord(Integer wordId, Integer declensionId) {
         deleteDeclension(wordId, declensionId, dList);
+        wordDeclensionsChanged(wordId);
     }
 
     public void updateDeclensionWord(Integer wordId, Integer declensionId, DeclensionNode declension) {
         updateDeclension(wordId, declensionId, declension, dList);
+        wordDeclensionsChanged(wordId);
     }
 
     /**
@@ -268,9 +315,24 @@ public class DeclensionManager {
             while (nodeIt.hasNext()) {
                 DeclensionNode curNode = nodeIt.next();
 
-                curNode.setCombinedDimId("D" + curNode.getCombinedDimId());
+                curNode.setCombinedDimId(curNode.getCombinedDimId().deprecate());
             }
         }
+
+        for (Integer wordId : dList.keySet()) {
+            wordDeclensionsChanged(wordId);
+        }
+    }
+
+    /**
+     * Drops index of a word's declensions and lets the lexicon know that the
+     * word's legality may have changed
+     *
+     * @param wordId ID of word whose declensions changed
+     */
+    private void wordDeclensionsChanged(Integer wordId) {
+        dIndex.remove(wordId);
+        core.getWordCollection().externalLegalityChanged(wordId);
     }
 
     /**
@@ -305,14 +367,14 @@ public class DeclensionManager {
      * Recursive method to get all mandatory declensions for a type
      *
      * @param depth current dim depth
-     * @param curId current generated id
+     * @param curPath dimension ids chosen so far (reused between branches)
      * @param retValue return list(passed by ref)
      * @param declensionList list of all declensions headers
      * @param mand whether any dimensions were mandatory
      * @return string list of all mandatory declensions
      */
     private List<DeclensionNode> getMandDims(int depth,
-            String curId,
+            int[] curPath,
             List<DeclensionNode> retValue,
             List<DeclensionNode> declensionList,
             String label,
@@ -320,7 +382,7 @@ public class DeclensionManager {
         if (depth >= declensionList.size()) {
             if (mand) {
                 DeclensionNode ret = new DeclensionNode(-1);
-                ret.setCombinedDimId(curId);
+                ret.setCombinedDimId(DeclensionCombinedId.of(curPath, depth));
                 ret.setValue(label);
                 retValue.add(ret);
             }
@@ -334,9 +396,10 @@ public class DeclensionManager {
 
         while (dimIt.hasNext()) {
             DeclensionDimension curDim = dimIt.next();
+            curPath[depth] = curDim.getId();
 
             getMandDims(depth + 1,
-                    curId + curDim.getId().toString() + ",",
+                    curPath,
                     retValue,
                     declensionList,
                     label + " " + curDim.getValue(),
@@ -354,7 +417,45 @@ public class DeclensionManager {
      * @return a list of all mandatory declensions
      */
     public List<DeclensionNode> getMandDims(Integer typeId) {
-        return getMandDims(0, ",", new ArrayList<DeclensionNode>(), getDeclensionListTemplate(typeId), "", false);
+        return getCombinations(typeId).mandDims;
+    }
+
+    /**
+     * Gets enumerated combinations for a type, enumerating them only if the
+     * type's templates have changed since last asked
+     *
+     * @param typeId ID of type
+     * @return cached combinations for type
+     */
+    private CombinationCache getCombinations(Integer typeId) {
+        List<DeclensionNode> declensionList = getDeclensionListTemplate(typeId);
+        CombinationCache ret = combCache.get(typeId);
+
+        if (ret == null || !ret.isCurrent(declensionList)) {
+            List<DeclensionPair> allIds = new ArrayList<>();
+
+            // for the specific case that a word with no declension patterns has a deprecated declension
+            if (!declensionList.isEmpty()) {
+                getAllCombinedIds(0, new int[declensionList.size()], "", declensionList, allIds);
+            }
+
+            List<DeclensionNode> mandDims = getMandDims(0, new int[declensionList.size()],
+                    new ArrayList<DeclensionNode>(), declensionList, "", false);
+
+            ret = new CombinationCache(declensionList, allIds, mandDims);
+            combCache.put(typeId, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * drops cached combinations of a type after its templates change
+     *
+     * @param typeId ID of type
+     */
+    private void invalidateCombinations(Integer typeId) {
+        combCache.remove(typeId);
     }
 
     /**
@@ -397,6 +498,7 @@ public class DeclensionManager {
      */
     public void clearAllDeclensionsWord(Integer wordId) {
         clearAllDeclensions(wordId, dList);
+        wordDeclensionsChanged(wordId);
     }
 
     /**
@@ -407,28 +509,22 @@ public class DeclensionManager {
      * @return list of labels and IDs
      */
     public List<DeclensionPair> getAllCombinedIds(Integer typeId) {
-        return getAllCombinedIds(0, ",", "", getDeclensionListTemplate(typeId));
+        return getCombinations(typeId).allIds;
     }
 
     /**
      * recursive method to calculate value of overridden method
      *
      * @param depth current depth in calculation
-     * @param curId current combined ID
+     * @param curPath dimension ids chosen so far (reused between branches)
      * @param curLabel current constructed label
      * @param declensionList list of template declensions for type
-     * @return list of currently constructed labels and ids
+     * @param ret list of constructed labels and ids (passed by ref)
      */
-    private List<DeclensionPair> getAllCombinedIds(int depth, String curId, String curLabel, List<DeclensionNode> declensionList) {
-        List<DeclensionPair> ret = new ArrayList<>();
-
-        // for the specific case that a word with no declension patterns has a deprecated declension
-        if (declensionList.isEmpty()) {
-            return ret;
-        }
-
+    private void getAllCombinedIds(int depth, int[] curPath, String curLabel,
+            List<DeclensionNode> declensionList, List<DeclensionPair> ret) {
         if (depth >= declensionList.size()) {
-            ret.add(new DeclensionPair(curId, curLabel));
+            ret.add(new DeclensionPair(DeclensionCombinedId.of(curPath, depth), curLabel));
         } else {
 
             DeclensionNode curNode = declensionList.get(depth);
@@ -437,13 +533,12 @@ public class DeclensionManager {
 
             while (dimIt.hasNext()) {
                 DeclensionDimension curDim = dimIt.next();
+                curPath[depth] = curDim.getId();
 
-                ret.addAll(getAllCombinedIds(depth + 1, curId + curDim.getId().toString() + ",",
-                        curLabel + (curLabel.equals("") ? "" : " ") + curDim.getValue(), declensionList));
+                getAllCombinedIds(depth + 1, curPath,
+                        curLabel + (curLabel.equals("") ? "" : " ") + curDim.getValue(), declensionList, ret);
             }
         }
-
-        return ret;
     }
 
     public List<DeclensionNode> getDeclensionListWord(Integer wordId) {
@@ -455,18 +550,22 @@ public class DeclensionManager {
     }
 
     public DeclensionNode addDeclensionToTemplate(Integer typeId, Integer declensionId, DeclensionNode declension) {
+        invalidateCombinations(typeId);
         return addDeclension(typeId, declensionId, declension, dTemplates);
     }
 
     public DeclensionNode addDeclensionToTemplate(Integer typeId, String declension) {
+        invalidateCombinations(typeId);
         return addDeclension(typeId, declension, dTemplates);
     }
 
     public void deleteDeclensionFromTemplate(Integer typeId, Integer declensionId) {
+        invalidateCombinations(typeId);
         deleteDeclension(typeId, declensionId, dTemplates);
     }
 
     public void updateDeclensionTemplate(Integer typeId, Integer declensionId, DeclensionNode declension) {
+        invalidateCombinations(typeId);
         updateDeclension(typeId, declensionId, declension, dTemplates);
     }
 
@@ -493,6 +592,7 @@ public class DeclensionManager {
      * @param typeId ID of word to clear of all declensions
      */
     public void clearAllDeclensionsTemplate(Integer typeId) {
+        invalidateCombinations(typeId);
         clearAllDeclensions(typeId, dTemplates);
     }
 
@@ -568,6 +668,8 @@ public class DeclensionManager {
     public DeclensionNode addDeclensionTemplate(Integer typeId, DeclensionNode node) throws Exception {
         List recList;
 
+        invalidateCombinations(typeId);
+
         if (dTemplates.containsKey(node.getId())) {
             recList = (List) dTemplates.get(node.getId());
             recList.add(node);
@@ -616,7 +718,8 @@ public class DeclensionManager {
             declensionId = topId + 1;
         }
 
-        deleteDeclensionFromWord(relId, declensionId);
+        // replaces any entry with the same ID; callers handle side effects of their own list
+        deleteDeclension(relId, declensionId, list);
 
         if (list.containsKey(relId)) {
             wordList = (List) list.get(relId);
@@ -644,34 +747,50 @@ public class DeclensionManager {
      * @param dimId the combined dim Id of the dimension
      * @return The declension node if found, null if otherwise
      */
-    public DeclensionNode getDeclensionByCombinedId(Integer wordId, String dimId) {
-        DeclensionNode ret = null;
+    public DeclensionNode getDeclensionByCombinedId(Integer wordId, DeclensionCombinedId dimId) {
+        return getWordIndex(wordId).get(dimId);
+    }
 
-        if (dList.containsKey(wordId)) {
-            List<DeclensionNode> searchList = (List<DeclensionNode>) dList.get(wordId);
-            Iterator<DeclensionNode> searchIt = searchList.iterator();
+    /**
+     * Gets a word's declensions keyed by combined dim Id, building the index
+     * from the word's declension list if needed. Where a word has several
+     * declensions with the same combined Id, the first in the list wins.
+     *
+     * @param wordId the id of the root word
+     * @return read only index of the word's declensions (empty if none)
+     */
+    private Map<DeclensionCombinedId, DeclensionNode> getWordIndex(Integer wordId) {
+        Map<DeclensionCombinedId, DeclensionNode> ret = dIndex.get(wordId);
 
-            while (searchIt.hasNext()) {
-                DeclensionNode test = searchIt.next();
+        if (ret == null) {
+            List<DeclensionNode> decList = dList.get(wordId);
 
-                if (dimId.equals(test.getCombinedDimId())) {
-                    ret = test;
-                    break;
+            if (decList == null) {
+                return Collections.emptyMap();
+            }
+
+            ret = new HashMap<>();
+
+            for (DeclensionNode curNode : decList) {
+                if (!ret.containsKey(curNode.getCombinedDimId())) {
+                    ret.put(curNode.getCombinedDimId(), curNode);
                 }
             }
+
+            ret = Collections.unmodifiableMap(ret);
+            dIndex.put(wordId, ret);
         }
 
         return ret;
     }
     
-    public String getCombNameFromCombId(int typeId, String combId) {
+    public String getCombNameFromCombId(int typeId, DeclensionCombinedId combId) {
         String ret = "";
         Iterator<DeclensionNode> it = getDeclensionListTemplate(typeId).iterator();
-        String[] splitIds = combId.split(",");
         
-        for (int i = 0; it.hasNext(); i++) {
+        for (int i = 0; it.hasNext() && i < combId.getDepth(); i++) {
             DeclensionNode curNode = it.next();
-            int dimId = Integer.parseInt(splitIds[i+1]);
+            int dimId = combId.getDimId(i);
             Iterator<DeclensionDimension> dimIt = curNode.getDimensions().iterator();
             DeclensionDimension curDim = null;
             
@@ -782,7 +901,7 @@ public class DeclensionManager {
      * @return map of all declensions in a word (empty if none)
      */
     public Map getWordDeclensions(Integer wordId) {
-        Map<String, DeclensionNode> ret = new HashMap<>();
+        Map<DeclensionCombinedId, DeclensionNode> ret = new HashMap<>();
 
         Iterator<DeclensionNode> decs = getDeclensionListWord(wordId).iterator();
 
@@ -889,7 +1008,7 @@ public class DeclensionManager {
                 wordNode.appendChild(wordValue);
 
                 wordValue = doc.createElement(PGTUtil.declensionComDimIdXID);
-                wordValue.appendChild(doc.createTextNode(curNode.getCombinedDimId()));
+                wordValue.appendChild(doc.createTextNode(curNode.getCombinedDimId().toString()));
                 wordNode.appendChild(wordValue);
 
                 wordValue = doc.createElement(PGTUtil.declensionIsTemplateXID);
@@ -904,7 +1023,7 @@ public class DeclensionManager {
             rootElement.appendChild(ruleNode);
 
             wordValue = doc.createElement(PGTUtil.decGenRuleCombXID);
-            wordValue.appendChild(doc.createTextNode(curRule.getCombinationId()));
+            wordValue.appendChild(doc.createTextNode(curRule.getCombinationId().toString()));
             ruleNode.appendChild(wordValue);
 
             wordValue = doc.createElement(PGTUtil.decGenRuleNameXID);
@@ -948,7 +1067,7 @@ public class DeclensionManager {
             
             // This section will have to be slightly rewritten if the combined settings become more complex
             curAttrib = doc.createElement(PGTUtil.decCombinedIdXID);
-            curAttrib.appendChild(doc.createTextNode((String)pairs.getKey()));
+            curAttrib.appendChild(doc.createTextNode(pairs.getKey().toString()));
             curCombForm.appendChild(curAttrib);
             
             curAttrib = doc.createElement(PGTUtil.decCombinedSurpressXID);
@@ -958,4 +1077,53 @@ public class DeclensionManager {
             combinedForms.appendChild(curCombForm);
         }
     }
+
+    /**
+     * All dimension combinations of one type's templates, along with the
+     * template nodes (and their dimension versions) they were built from.
+     * Lists are read only, as they are shared between callers.
+     */
+    private static class CombinationCache {
+
+        final List<DeclensionPair> allIds;
+        final List<DeclensionNode> mandDims;
+        private final DeclensionNode[] templates;
+        private final int[] versions;
+
+        CombinationCache(List<DeclensionNode> declensionList,
+                List<DeclensionPair> _allIds,
+                List<DeclensionNode> _mandDims) {
+            allIds = Collections.unmodifiableList(_allIds);
+            mandDims = Collections.unmodifiableList(_mandDims);
+            templates = declensionList.toArray(new DeclensionNode[declensionList.size()]);
+            versions = new int[templates.length];
+
+            for (int i = 0; i < templates.length; i++) {
+                versions[i] = templates[i].getDimensionVersion();
+            }
+        }
+
+        /**
+         * Tests whether templates are still those combinations were built from
+         *
+         * @param declensionList current templates of type
+         * @return true if cache still valid
+         */
+        boolean isCurrent(List<DeclensionNode> declensionList) {
+            if (declensionList.size() != templates.length) {
+                return false;
+            }
+
+            for (int i = 0; i < templates.length; i++) {
+                DeclensionNode curNode = declensionList.get(i);
+
+                if (curNode != templates[i]
+                        || curNode.getDimensionVersion() != versions[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
 }
@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.ManagersCollections.DeclensionImpactAnalyzer.CompiledRule;
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.DeclensionCombinedId;
+import PolyGlot.Nodes.DeclensionGenRule;
+import PolyGlot.Nodes.DeclensionNode;
+import PolyGlot.Nodes.DeclensionPair;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Regenerates the automatic declensions of many words at once. Running it
+ * works out every form the current generation rules produce (in parallel)
+ * and records which saved forms would change, without touching anything.
+ * The changes are only written to the declension manager by commit(), so
+ * they can be reviewed first. Words set to override automatic declensions
+ * are left alone, as are suppressed forms and forms no rule produces.
+ *
+ * Progress and cancellation may be used from any thread while running.
+ *
+ * @author draque.thompson
+ */
+public class DeclensionRegeneration {
+
+    private static final int MIN_SPLIT = 64;
+
+    private final DeclensionManager decMan;
+    private final List<ConWord> words;
+    // forms of each word's type as it was when captured, parallel to words
+    private final TypeForms[] wordForms;
+    private final AtomicInteger progress = new AtomicInteger();
+    private volatile boolean cancelled = false;
+    private boolean finished = false;
+    private boolean committed = false;
+    private List<FormChange> changes = Collections.emptyList();
+
+    /**
+     * Prepares regeneration. Rules and combinations are captured here, so
+     * this should be created after any rule edits are complete.
+     *
+     * @param _decMan declension manager to read rules from and commit to
+     * @param _words words to regenerate forms of
+     * @throws PatternSyntaxException if a generation rule's expressions are
+     * malformed
+     */
+    DeclensionRegeneration(DeclensionManager _decMan, Collection<ConWord> _words) throws PatternSyntaxException {
+        decMan = _decMan;
+        words = new ArrayList<>(_words);
+        wordForms = new TypeForms[words.size()];
+        Map<Integer, TypeForms> typeForms = new HashMap<>();
+
+        // words are matched to their types here, so later type changes do not reach running tasks
+        for (int i = 0; i < wordForms.length; i++) {
+            Integer typeId = words.get(i).getWordTypeId();
+            TypeForms forms = typeForms.get(typeId);
+
+            if (forms == null) {
+                forms = new TypeForms(typeId);
+                typeForms.put(typeId, forms);
+            }
+
+            wordForms[i] = forms;
+        }
+    }
+
+    /**
+     * Works out all changed forms across a fork join pool. Blocks until done
+     * or cancelled, so call from a worker thread if the UI must stay live.
+     *
+     * @return list of changed forms in word order (partial if cancelled)
+     */
+    public List<FormChange> run() {
+        if (finished) {
+            return changes;
+        }
+
+        if (!words.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool();
+            try {
+                int split = Math.max(MIN_SPLIT, words.size() / (pool.getParallelism() * 4));
+                changes = Collections.unmodifiableList(pool.invoke(new RegenTask(0, words.size(), split)));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        finished = true;
+        return changes;
+    }
+
+    /**
+     * Writes all changed forms to the declension manager. Forms edited since
+     * run() are skipped rather than overwritten.
+     *
+     * @return number of forms written
+     * @throws IllegalStateException if not run, cancelled or already committed
+     */
+    public int commit() throws IllegalStateException {
+        if (!finished || cancelled) {
+            throw new IllegalStateException("Regeneration must run to completion before it is committed.");
+        }
+        if (committed) {
+            throw new IllegalStateException("Regeneration already committed.");
+        }
+
+        int ret = 0;
+
+        for (FormChange change : changes) {
+            DeclensionNode existing = decMan.getDeclensionByCombinedId(change.wordId, change.combinedId);
+            String curValue = existing == null ? null : existing.getValue();
+
+            if (curValue == null ? change.oldValue != null : !curValue.equals(change.oldValue)) {
+                continue;
+            }
+
+            if (existing == null) {
+                DeclensionNode newNode = new DeclensionNode(-1);
+                newNode.setValue(change.newValue);
+                newNode.setCombinedDimId(change.combinedId);
+                newNode.setNotes(change.label);
+                decMan.addDeclensionToWord(change.wordId, -1, newNode);
+            } else {
+                DeclensionNode modified = new DeclensionNode(-1);
+                modified.setEqual(existing);
+                modified.setValue(change.newValue);
+                decMan.updateDeclensionWord(change.wordId, existing.getId(), modified);
+            }
+
+            ret++;
+        }
+
+        committed = true;
+        return ret;
+    }
+
+    /**
+     * Stops a running regeneration as soon as possible. A cancelled
+     * regeneration cannot be committed.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return number of words processed so far
+     */
+    public int getProgress() {
+        return progress.get();
+    }
+
+    /**
+     * @return number of words to process
+     */
+    public int getTotal() {
+        return words.size();
+    }
+
+    /**
+     * Works out changed forms of one word
+     *
+     * @param word word to regenerate
+     * @param forms forms of word's type
+     * @param ret list to add changes to
+     */
+    private void regenerateWord(ConWord word, TypeForms forms, List<FormChange> ret) {
+        if (word.isOverrideAutoDeclen()) {
+            return;
+        }
+
+        for (int i = 0; i < forms.pairs.size(); i++) {
+            DeclensionPair curPair = forms.pairs.get(i);
+            String newForm = DeclensionImpactAnalyzer.decline(forms.pairRules.get(i), word.getValue());
+
+            // no rule produced form: saved value (if any) stands, as in the declensions window
+            if (newForm.equals("")) {
+                continue;
+            }
+
+            DeclensionNode existing = decMan.getDeclensionByCombinedId(word.getId(), curPair.combinedId);
+            String oldValue = existing == null ? null : existing.getValue();
+
+            if (!newForm.equals(oldValue)) {
+                ret.add(new FormChange(word.getId(), curPair.combinedId, curPair.label, oldValue, newForm));
+            }
+        }
+    }
+
+    /**
+     * Combinations of a type which are not suppressed, each with the type's
+     * rules for it compiled in application order
+     */
+    private class TypeForms {
+
+        final List<DeclensionPair> pairs = new ArrayList<>();
+        final List<List<CompiledRule>> pairRules = new ArrayList<>();
+
+        TypeForms(int typeId) throws PatternSyntaxException {
+            List<CompiledRule> rules = new ArrayList<>();
+            for (DeclensionGenRule curRule : decMan.getDeclensionRules(typeId)) {
+                rules.add(new CompiledRule(curRule, true));
+            }
+
+            // type without rules generates nothing, so has no forms to check
+            if (rules.isEmpty()) {
+                return;
+            }
+
+            for (DeclensionPair curPair : decMan.getAllCombinedIds(typeId)) {
+                if (decMan.isCombinedDeclSurpressed(curPair.combinedId)) {
+                    continue;
+                }
+
+                List<CompiledRule> forPair = new ArrayList<>();
+                for (CompiledRule curRule : rules) {
+                    if (curRule.rule.getCombinationId().equals(curPair.combinedId)) {
+                        forPair.add(curRule);
+                    }
+                }
+
+                pairs.add(curPair);
+                pairRules.add(forPair);
+            }
+        }
+    }
+
+    /**
+     * Regenerates words in a range of the word list, splitting across the pool
+     */
+    private class RegenTask extends RecursiveTask<List<FormChange>> {
+
+        private static final long serialVersionUID = 1L;
+        private final int start;
+        private final int end;
+        private final int split;
+
+        RegenTask(int _start, int _end, int _split) {
+            start = _start;
+            end = _end;
+            split = _split;
+        }
+
+        @Override
+        protected List<FormChange> compute() {
+            if (end - start <= split) {
+                List<FormChange> ret = new ArrayList<>();
+
+                for (int i = start; i < end && !cancelled; i++) {
+                    regenerateWord(words.get(i), wordForms[i], ret);
+                    progress.incrementAndGet();
+                }
+
+                return ret;
+            }
+
+            int mid = (start + end) >>> 1;
+            RegenTask right = new RegenTask(mid, end, split);
+            right.fork();
+            List<FormChange> ret = new RegenTask(start, mid, split).compute();
+            ret.addAll(right.join());
+            return ret;
+        }
+    }
+
+    /**
+     * A single form whose generated value differs from what is saved
+     */
+    public static class FormChange {
+
+        public final Integer wordId;
+        public final DeclensionCombinedId combinedId;
+        public final String label;
+        // null if word has no saved value for form
+        public final String oldValue;
+        public final String newValue;
+
+        FormChange(Integer _wordId, DeclensionCombinedId _combinedId, String _label,
+                String _oldValue, String _newValue) {
+            wordId = _wordId;
+            combinedId = _combinedId;
+            label = _label;
+            oldValue = _oldValue;
+            newValue = _newValue;
+        }
+
+        @Override
+        public String toString() {
+            return label + ": " + (oldValue == null ? "(none)" : oldValue) + " -> " + newValue;
+        }
+    }
+}
@@ -25,8 +25,12 @@ import PolyGlot.PGTUtil;
 import PolyGlot.Nodes.FamNode;
 import PolyGlot.WebInterface;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -37,6 +41,8 @@ import org.w3c.dom.Element;
 public class FamilyManager {
     private FamNode famRoot = null;
     private FamNode buffer;
+    // word id -> families word is directly in
+    private final Map<Integer, Set<FamNode>> wordFamilies = new HashMap<>();
     DictCore core;
     
     public FamilyManager(DictCore _core) {
@@ -64,18 +70,56 @@ public class FamilyManager {
     }
     
     /**
-     * This deletes words from the word list that no longer exist in the lexicon
-     * @param fam family entry to clean
-     * @param wordList raw words from entry
+     * Removes word from every family containing it. Called when word is
+     * deleted from the lexicon.
+     * @param wordId id of word
      */
-    public void removeDeadWords(FamNode fam, List<ConWord> wordList) {
-        Iterator<ConWord> wordIt = new ArrayList(wordList).iterator();
+    public void removeDeadWord(Integer wordId) {
+        for (FamNode curFam : getFamilies(wordId)) {
+            curFam.removeWordById(wordId);
+        }
+    }
+    
+    /**
+     * Gets families word is directly a member of (not counting families whose
+     * subfamilies contain it)
+     * @param wordId id of word
+     * @return families containing word, empty if none
+     */
+    public List<FamNode> getFamilies(Integer wordId) {
+        Set<FamNode> fams = wordFamilies.get(wordId);
+        return fams == null ? new ArrayList<FamNode>() : new ArrayList<>(fams);
+    }
+    
+    /**
+     * Records word joining family. Called by FamNode only.
+     * @param wordId id of word added
+     * @param fam family added to
+     */
+    public void wordAdded(Integer wordId, FamNode fam) {
+        Set<FamNode> fams = wordFamilies.get(wordId);
         
-        while (wordIt.hasNext()) {
-            ConWord curWord = wordIt.next();
+        if (fams == null) {
+            fams = new HashSet<>();
+            wordFamilies.put(wordId, fams);
+        }
+        
+        fams.add(fam);
+    }
+    
+    /**
+     * Records word leaving family. Called by FamNode only.
+     * @param wordId id of word removed
+     * @param fam family removed from
+     */
+    public void wordRemoved(Integer wordId, FamNode fam) {
+        Set<FamNode> fams = wordFamilies.get(wordId);
+        
+        if (fams != null) {
+            fams.remove(fam);
             
-            if (!core.getWordCollection().exists(curWord.getId())) {
-                fam.removeWord(curWord);
+            if (fams.isEmpty()) {
+                wordFamilies.remove(wordId);
             }
         }
     }
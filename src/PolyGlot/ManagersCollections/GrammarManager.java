@@ -21,12 +21,18 @@ package PolyGlot.ManagersCollections;
 
 import PolyGlot.CustomControls.GrammarSectionNode;
 import PolyGlot.CustomControls.GrammarChapNode;
+import PolyGlot.IOHandler;
 import PolyGlot.PGTUtil;
+import PolyGlot.SoundCodec;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -37,10 +43,14 @@ import org.w3c.dom.Element;
 public class GrammarManager {
     private final List<GrammarChapNode> chapters = new ArrayList<>();
     private final Map<Integer, byte[]> soundMap;
+    private final Set<Integer> archivedSounds;
+    private final GrammarSearchIndex searchIndex = new GrammarSearchIndex();
+    private String soundArchive = "";
     private GrammarChapNode buffer;
     
     public GrammarManager() {
         soundMap = new HashMap<>();
+        archivedSounds = new HashSet<>();
         buffer = new GrammarChapNode(this);
     }
     
@@ -71,6 +81,24 @@ public class GrammarManager {
         return chapters;
     }
 
+    /**
+     * Searches names and text of all sections for words
+     * @param query words to search for
+     * @return matching sections, best match first
+     */
+    public List<GrammarSearchIndex.Hit> search(String query) {
+        return searchIndex.search(query, chapters);
+    }
+    
+    /**
+     * Notes that a section's name or text has changed, so it is reindexed
+     * before the next search
+     * @param section changed section
+     */
+    public void sectionChanged(GrammarSectionNode section) {
+        searchIndex.sectionChanged(section);
+    }
+
     /**
      * Adds new chapter to index
      * @param newChap new chapter to add
@@ -79,8 +107,55 @@ public class GrammarManager {
         chapters.add(newChap);
     }
     
-    public Map<Integer, byte[]> getSoundMap() {
-        return soundMap;
+    /**
+     * Gets ids of all recordings, whether held in memory or still in the
+     * archive they were loaded from
+     * @return sorted set of recording ids
+     */
+    public Set<Integer> getRecordingIds() {
+        Set<Integer> ret = new TreeSet<>(soundMap.keySet());
+        ret.addAll(archivedSounds);
+        return ret;
+    }
+    
+    /**
+     * Sets the archive that recordings not yet in memory are read from
+     * @param _soundArchive path of PGD file
+     */
+    public void setSoundArchive(String _soundArchive) {
+        soundArchive = _soundArchive;
+    }
+    
+    public String getSoundArchive() {
+        return soundArchive;
+    }
+    
+    /**
+     * Tests whether any recordings have yet to be read from the sound archive
+     * @return true if any recording lives only in the archive
+     */
+    public boolean hasArchivedRecordings() {
+        return !archivedSounds.isEmpty();
+    }
+    
+    /**
+     * Tests whether a recording lives only in the sound archive
+     * @param id ID of recording
+     * @return true if not held in memory
+     */
+    public boolean isRecordingArchived(Integer id) {
+        return archivedSounds.contains(id);
+    }
+    
+    /**
+     * Registers a recording which lives in the sound archive. It will not be
+     * read into memory until requested.
+     * @param id ID of recording in archive
+     */
+    public void addArchivedRecording(Integer id) {
+        if (!soundMap.containsKey(id)) {
+            archivedSounds.add(id);
+        }
     }
     
     /**
@@ -109,7 +184,7 @@ public class GrammarManager {
      */
     
     /**
-     * Adds or changes a grammar recording.
+     * Adds or changes a grammar recording. Recordings are held compressed.
      * @param id ID of sound to replace. -1 if newly adding
      * @param newRec New wave recording
      * @return ID of sound replaced/created, -1 if null passed in
@@ -121,29 +196,68 @@ public class GrammarManager {
             return -1;
         }
         
+        byte[] encoded = SoundCodec.encode(newRec);
+        
         if (ret == -1) {
-            for (ret = 0; soundMap.containsKey(ret); ret++){}
-            soundMap.put(ret, newRec);
+            for (ret = 0; soundMap.containsKey(ret) || archivedSounds.contains(ret); ret++){}
+            soundMap.put(ret, encoded);
         } else {
+            archivedSounds.remove(ret);
             soundMap.remove(ret);
-            soundMap.put(ret, newRec);
+            soundMap.put(ret, encoded);
         }
         
         return ret;
     }
     
-    public byte[] getRecording(Integer id) throws Exception {
+    /**
+     * Tests whether a recording exists for the given ID (without loading it)
+     * @param id ID of recording
+     * @return true if recording exists
+     */
+    public boolean hasRecording(Integer id) {
+        return soundMap.containsKey(id) || archivedSounds.contains(id);
+    }
+    
+    /**
+     * Gets compressed recording. Recordings still in the archive are read from
+     * it on each request rather than being kept in memory.
+     * @param id ID of recording
+     * @return compressed recording, null if id is -1
+     * @throws Exception if recording cannot be found or read
+     */
+    public byte[] getEncodedRecording(Integer id) throws Exception {
         byte[] ret = null;
         
         if (id != -1) {
             if (soundMap.containsKey(id)) {
                 ret = soundMap.get(id);
+            } else if (archivedSounds.contains(id)) {
+                ret = IOHandler.loadGrammarSound(soundArchive, id);
             } else {
                 throw new Exception("Unable to retrieve related recording with ID: " + id);
             }
         }
         
         return ret;
+    }
+    
+    /**
+     * Gets recording decompressed. Prefer getEncodedRecording where the
+     * recording may be streamed.
+     * @param id ID of recording
+     * @return raw recording, null if id is -1
+     * @throws Exception if recording cannot be found or read
+     */
+    public byte[] getRecording(Integer id) throws Exception {
+        byte[] encoded = getEncodedRecording(id);
+        
+        try {
+            return SoundCodec.decode(encoded);
+        } catch (IOException e) {
+            throw new Exception("Unable to decode recording with ID: " + id 
+                    + ": " + e.getLocalizedMessage());
+        }
     }    
     
     /**
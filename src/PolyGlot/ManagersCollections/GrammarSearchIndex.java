@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.CustomControls.GrammarChapNode;
+import PolyGlot.CustomControls.GrammarSectionNode;
+import PolyGlot.FormattedTextHelper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the plain text and names of grammar sections. Words are
+ * mapped to the sections they appear in and the offsets they appear at, so
+ * searches never scan (or strip the formatting from) section text.
+ *
+ * Edited sections are only marked stale. They are reindexed, and sections no
+ * longer in the guide dropped, the next time a search runs, so repeated
+ * edits (or text loaded in pieces) cost nothing until then.
+ *
+ * @author draque.thompson
+ */
+public class GrammarSearchIndex {
+
+    // a match in a section's name outweighs this many in its text
+    private static final int NAME_WEIGHT = 10;
+    // a whole word match outweighs this many matches on a word's start
+    private static final int EXACT_WEIGHT = 2;
+
+    // word -> sections containing it -> where
+    private final TreeMap<String, Map<GrammarSectionNode, Postings>> terms = new TreeMap<>();
+    // indexed sections -> words they were indexed under, by identity as nodes are edited in place
+    private final Map<GrammarSectionNode, List<String>> indexed = new IdentityHashMap<>();
+    private final Set<GrammarSectionNode> stale = Collections.newSetFromMap(
+            new IdentityHashMap<GrammarSectionNode, Boolean>());
+
+    /**
+     * Marks section as needing reindexing
+     *
+     * @param section section whose name or text changed
+     */
+    public void sectionChanged(GrammarSectionNode section) {
+        stale.add(section);
+    }
+
+    /**
+     * Finds sections containing every word of the query. Query words match
+     * the start of indexed words (so partial words typed so far match), case
+     * insensitive. Hits are ranked by score, then by position in the guide.
+     *
+     * @param query words to search for
+     * @param chapters chapters of the grammar guide
+     * @return ranked hits, empty if query contains no words
+     */
+    public List<Hit> search(String query, List<GrammarChapNode> chapters) {
+        final Map<GrammarSectionNode, Position> positions = refresh(chapters);
+        List<Hit> ret = new ArrayList<>();
+        List<Token> queryTokens = tokenize(query);
+        Map<GrammarSectionNode, Hit> matches = null;
+
+        if (queryTokens.isEmpty()) {
+            return ret;
+        }
+
+        for (Token queryToken : queryTokens) {
+            Map<GrammarSectionNode, Hit> termMatches = new IdentityHashMap<>();
+            String term = queryToken.term;
+            SortedMap<String, Map<GrammarSectionNode, Postings>> range
+                    = terms.subMap(term, term + Character.MAX_VALUE);
+
+            for (Map.Entry<String, Map<GrammarSectionNode, Postings>> curTerm : range.entrySet()) {
+                int weight = curTerm.getKey().equals(term) ? EXACT_WEIGHT : 1;
+
+                for (Map.Entry<GrammarSectionNode, Postings> curPost : curTerm.getValue().entrySet()) {
+                    GrammarSectionNode section = curPost.getKey();
+
+                    // only sections matching every earlier word remain candidates
+                    if (matches != null && !matches.containsKey(section)) {
+                        continue;
+                    }
+
+                    Hit hit = termMatches.get(section);
+                    if (hit == null) {
+                        hit = matches == null ? new Hit(section) : matches.get(section);
+                        termMatches.put(section, hit);
+                    }
+
+                    hit.add(curPost.getValue(), weight);
+                }
+            }
+
+            matches = termMatches;
+
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+
+        for (Hit hit : matches.values()) {
+            hit.finish(positions.get(hit.section));
+            ret.add(hit);
+        }
+
+        Collections.sort(ret, new Comparator<Hit>() {
+            @Override
+            public int compare(Hit a, Hit b) {
+                int comp = Integer.compare(b.score, a.score);
+                return comp != 0 ? comp : Integer.compare(a.position, b.position);
+            }
+        });
+
+        return ret;
+    }
+
+    /**
+     * Brings index up to date with guide: indexes new and edited sections,
+     * drops removed ones
+     *
+     * @param chapters chapters of the grammar guide
+     * @return position in guide of each section
+     */
+    private Map<GrammarSectionNode, Position> refresh(List<GrammarChapNode> chapters) {
+        Map<GrammarSectionNode, Position> ret = new IdentityHashMap<>();
+
+        for (GrammarChapNode curChap : chapters) {
+            for (int i = 0; i < curChap.getChildCount(); i++) {
+                GrammarSectionNode curSec = (GrammarSectionNode) curChap.getChildAt(i);
+                ret.put(curSec, new Position(curChap, ret.size()));
+
+                if (stale.contains(curSec) || !indexed.containsKey(curSec)) {
+                    removeSection(curSec);
+                    addSection(curSec);
+                }
+            }
+        }
+
+        stale.clear();
+
+        if (indexed.size() > ret.size()) {
+            for (GrammarSectionNode curSec : new ArrayList<>(indexed.keySet())) {
+                if (!ret.containsKey(curSec)) {
+                    removeSection(curSec);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private void addSection(GrammarSectionNode section) {
+        Map<String, Postings> sectionTerms = new TreeMap<>();
+
+        for (Token token : tokenize(section.getName())) {
+            getPostings(sectionTerms, token.term).nameOffsets.add(token.offset);
+        }
+
+        for (Token token : tokenize(FormattedTextHelper.getPlainText(section.getSectionText()))) {
+            getPostings(sectionTerms, token.term).textOffsets.add(token.offset);
+        }
+
+        for (Map.Entry<String, Postings> entry : sectionTerms.entrySet()) {
+            Map<GrammarSectionNode, Postings> sections = terms.get(entry.getKey());
+
+            if (sections == null) {
+                sections = new IdentityHashMap<>();
+                terms.put(entry.getKey(), sections);
+            }
+
+            sections.put(section, entry.getValue());
+        }
+
+        indexed.put(section, new ArrayList<>(sectionTerms.keySet()));
+    }
+
+    private void removeSection(GrammarSectionNode section) {
+        List<String> sectionTerms = indexed.remove(section);
+
+        if (sectionTerms == null) {
+            return;
+        }
+
+        for (String term : sectionTerms) {
+            Map<GrammarSectionNode, Postings> sections = terms.get(term);
+            sections.remove(section);
+
+            if (sections.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static Postings getPostings(Map<String, Postings> sectionTerms, String term) {
+        Postings ret = sectionTerms.get(term);
+
+        if (ret == null) {
+            ret = new Postings();
+            sectionTerms.put(term, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Splits text into lower case words. Combining marks are kept as part of
+     * words, as conlang text often leans on them.
+     *
+     * @param text text to split
+     * @return words, with offsets they begin at in text
+     */
+    private static List<Token> tokenize(String text) {
+        List<Token> ret = new ArrayList<>();
+        int start = -1;
+
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && isWordChar(text.charAt(i))) {
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                ret.add(new Token(text.substring(start, i).toLowerCase(), start));
+                start = -1;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.SURROGATE;
+    }
+
+    private static class Token {
+
+        final String term;
+        final int offset;
+
+        Token(String _term, int _offset) {
+            term = _term;
+            offset = _offset;
+        }
+    }
+
+    private static class Position {
+
+        final GrammarChapNode chapter;
+        final int index;
+
+        Position(GrammarChapNode _chapter, int _index) {
+            chapter = _chapter;
+            index = _index;
+        }
+    }
+
+    /**
+     * Where a word appears in one section
+     */
+    private static class Postings {
+
+        final List<Integer> nameOffsets = new ArrayList<>();
+        final List<Integer> textOffsets = new ArrayList<>();
+    }
+
+    /**
+     * A section matching a search
+     */
+    public static class Hit {
+
+        private final GrammarSectionNode section;
+        private GrammarChapNode chapter = null;
+        private int position = 0;
+        private int score = 0;
+        private List<Integer> nameOffsets = new ArrayList<>();
+        private List<Integer> textOffsets = new ArrayList<>();
+
+        Hit(GrammarSectionNode _section) {
+            section = _section;
+        }
+
+        private void add(Postings postings, int weight) {
+            score += weight * (NAME_WEIGHT * postings.nameOffsets.size()
+                    + postings.textOffsets.size());
+            nameOffsets.addAll(postings.nameOffsets);
+            textOffsets.addAll(postings.textOffsets);
+        }
+
+        private void finish(Position _position) {
+            chapter = _position.chapter;
+            position = _position.index;
+            Collections.sort(nameOffsets);
+            Collections.sort(textOffsets);
+            nameOffsets = Collections.unmodifiableList(nameOffsets);
+            textOffsets = Collections.unmodifiableList(textOffsets);
+        }
+
+        public GrammarSectionNode getSection() {
+            return section;
+        }
+
+        public GrammarChapNode getChapter() {
+            return chapter;
+        }
+
+        /**
+         * Gets rank of hit. Higher is better.
+         *
+         * @return score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Gets offsets in section's name at which matching words begin
+         *
+         * @return sorted offsets
+         */
+        public List<Integer> getNameOffsets() {
+            return nameOffsets;
+        }
+
+        /**
+         * Gets offsets in section's plain text (see
+         * FormattedTextHelper.getPlainText()) at which matching words begin
+         *
+         * @return sorted offsets
+         */
+        public List<Integer> getTextOffsets() {
+            return textOffsets;
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package PolyGlot.ManagersCollections;
 
 import PolyGlot.IOHandler;
+import PolyGlot.ImageURLHandler;
 import PolyGlot.Nodes.ImageNode;
 import java.awt.Window;
 import java.awt.image.BufferedImage;
@@ -32,10 +33,28 @@ import java.util.List;
  * @author Draque
  */
 public class ImageCollection extends DictionaryCollection {
+    private final boolean servesURLs = ImageURLHandler.install();
+    private final int urlKey = ImageURLHandler.register(this);
+    
     public ImageCollection() {
         bufferNode = new ImageNode();
     }
     
+    /**
+     * Gets URL from which HTML panes may display image. Images are served from
+     * memory where possible, otherwise written to a temp file.
+     * @param image image in this collection
+     * @return URL of image
+     * @throws IOException if temp file cannot be written
+     */
+    public String getImageURL(ImageNode image) throws IOException {
+        if (servesURLs) {
+            return ImageURLHandler.getURL(urlKey, image.getId());
+        }
+        
+        return "file:///" + image.getImagePath();
+    }
+    
     @Override
     public void clear() {
         bufferNode = new ImageNode();
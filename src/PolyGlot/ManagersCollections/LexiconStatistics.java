@@ -0,0 +1,1026 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.DictCore;
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.PronunciationNode;
+import PolyGlot.Nodes.TypeNode;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Letter, letter combination, phoneme and type frequency statistics for a
+ * lexicon. Characters and phonemes are given ordinals the first time they are
+ * seen and all counts are kept in primitive arrays indexed by those ordinals,
+ * so counting a word allocates nothing beyond its pronunciation breakdown.
+ *
+ * Statistics are either computed in one pass with compute(), or maintained
+ * live as words are added, changed and removed. Live statistics keep what
+ * each word contributed, so removing a word subtracts exactly what was
+ * counted for it. Phoneme breakdowns are only worked out when needed, and
+ * are redone in full when the pronunciation rules change.
+ *
+ * @author draque.thompson
+ */
+public class LexiconStatistics {
+
+    private static final int MAX_ORDINAL_BITS = 21;
+    private static final int MIN_SPLIT = 256;
+
+    private final DictCore core;
+    // shared between partial tallies of a parallel pass; char -> ordinal, -1 if unseen
+    private final int[] charOrdinals;
+    private final Map<String, Integer> phonemeIds;
+    private char[] alphabet;
+    private int alphaSize = 0;
+    private int alphaCap;
+    private int[] startCounts;
+    private int[] endCounts;
+    private int[] charCounts;
+    // pair and triple counts are sparse: dense tables grow with the square
+    // (or cube) of the alphabet, which logographic scripts make huge
+    private final LongCounter bigramCounts = new LongCounter();
+    private final LongCounter trigramCounts = new LongCounter();
+    private String[] phonemes;
+    private int phonemeSize = 0;
+    private int phonemeCap;
+    private int[] phonemeCounts;
+    private final LongCounter phonemeBigramCounts = new LongCounter();
+    private final Map<Integer, int[]> typeCounts = new HashMap<>();
+    private int wordCount = 0;
+    // live statistics only (null for computed ones): contribution of each word by id
+    private final Map<Integer, WordTally> tallies;
+    private final Set<Integer> pendingPhonemes = new LinkedHashSet<>();
+    private int ruleVersion = -1;
+
+    /**
+     * Creates empty live statistics
+     *
+     * @param _core dictionary core
+     */
+    public LexiconStatistics(DictCore _core) {
+        this(_core, true);
+    }
+
+    private LexiconStatistics(DictCore _core, boolean live) {
+        core = _core;
+        charOrdinals = new int[Character.MAX_VALUE + 1];
+        Arrays.fill(charOrdinals, -1);
+        phonemeIds = new HashMap<>();
+        tallies = live ? new HashMap<Integer, WordTally>() : null;
+        allocateAlpha(16);
+        allocatePhonemes(16);
+    }
+
+    /**
+     * Creates partial tally sharing ordinals with parent. Ordinals must all be
+     * assigned before partials are created.
+     */
+    private LexiconStatistics(LexiconStatistics parent) {
+        core = parent.core;
+        charOrdinals = parent.charOrdinals;
+        phonemeIds = parent.phonemeIds;
+        alphabet = parent.alphabet;
+        alphaSize = parent.alphaSize;
+        phonemes = parent.phonemes;
+        phonemeSize = parent.phonemeSize;
+        tallies = null;
+        allocateAlpha(Math.max(alphaSize, 1));
+        allocatePhonemes(Math.max(phonemeSize, 1));
+    }
+
+    /**
+     * Computes statistics for the given words in a single parallel pass. The
+     * result is a read only snapshot.
+     *
+     * @param core dictionary core
+     * @param words words to count
+     * @return populated statistics
+     */
+    public static LexiconStatistics compute(DictCore core, Collection<ConWord> words) {
+        LexiconStatistics ret = new LexiconStatistics(core, false);
+        List<ConWord> wordList = new ArrayList<>(words);
+        ret.ruleVersion = core.getPronunciationMgr().getRuleVersion();
+
+        // assign every ordinal up front so partial tallies can share them read only
+        Iterator<PronunciationNode> procIt = core.getPronunciationMgr().getPronunciations();
+        while (procIt.hasNext()) {
+            ret.phonemeOrdinal(procIt.next().getPronunciation());
+        }
+        for (ConWord curWord : wordList) {
+            String value = curWord.getValue();
+            for (int i = 0; i < value.length(); i++) {
+                ret.charOrdinal(value.charAt(i));
+            }
+        }
+
+        if (wordList.isEmpty()) {
+            return ret;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            int split = Math.max(MIN_SPLIT, wordList.size() / (pool.getParallelism() * 4));
+            ret.merge(pool.invoke(new CountTask(ret, wordList, 0, wordList.size(), split)));
+        } finally {
+            pool.shutdown();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Counts words in a range of a list, splitting across the pool
+     */
+    private static class CountTask extends RecursiveTask<LexiconStatistics> {
+
+        private static final long serialVersionUID = 1L;
+        private final LexiconStatistics parent;
+        private final List<ConWord> words;
+        private final int start;
+        private final int end;
+        private final int split;
+
+        CountTask(LexiconStatistics _parent, List<ConWord> _words, int _start, int _end, int _split) {
+            parent = _parent;
+            words = _words;
+            start = _start;
+            end = _end;
+            split = _split;
+        }
+
+        @Override
+        protected LexiconStatistics compute() {
+            if (end - start <= split) {
+                LexiconStatistics ret = new LexiconStatistics(parent);
+                PronunciationMgr procMgr = parent.core.getPronunciationMgr();
+
+                for (int i = start; i < end; i++) {
+                    ConWord curWord = words.get(i);
+                    ret.countLetters(curWord.getValue(), curWord.getWordTypeId(), 1);
+                    ret.countPhonemes(ret.phonemeOrdinals(
+                            procMgr.getPronunciationElements(curWord.getValue())), 1);
+                }
+
+                return ret;
+            }
+
+            int mid = (start + end) >>> 1;
+            CountTask left = new CountTask(parent, words, start, mid, split);
+            left.fork();
+            LexiconStatistics ret = new CountTask(parent, words, mid, end, split).compute();
+            ret.merge(left.join());
+            return ret;
+        }
+    }
+
+    /**
+     * Breaks down pronunciations of words in a range of a list, splitting
+     * across the pool
+     */
+    private static class BreakdownTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final LexiconStatistics parent;
+        private final List<WordTally> words;
+        private final int start;
+        private final int end;
+        private final int split;
+
+        BreakdownTask(LexiconStatistics _parent, List<WordTally> _words, int _start, int _end, int _split) {
+            parent = _parent;
+            words = _words;
+            start = _start;
+            end = _end;
+            split = _split;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= split) {
+                PronunciationMgr procMgr = parent.core.getPronunciationMgr();
+
+                for (int i = start; i < end; i++) {
+                    WordTally curWord = words.get(i);
+                    curWord.phonemes = parent.phonemeOrdinals(
+                            procMgr.getPronunciationElements(curWord.value));
+                }
+
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new BreakdownTask(parent, words, start, mid, split),
+                    new BreakdownTask(parent, words, mid, end, split));
+        }
+    }
+
+    /**
+     * What a single word contributed to live statistics
+     */
+    private static class WordTally {
+
+        final String value;
+        int typeId;
+        // phoneme ordinals, null until worked out
+        int[] phonemes = null;
+
+        WordTally(String _value, int _typeId) {
+            value = _value;
+            typeId = _typeId;
+        }
+    }
+
+    private void assertLive() {
+        if (tallies == null) {
+            throw new UnsupportedOperationException("Computed statistics are read only.");
+        }
+    }
+
+    /**
+     * Adds word to live statistics, replacing whatever was counted for the
+     * same id previously
+     *
+     * @param id id of word
+     * @param value word value
+     * @param typeId word type
+     */
+    public synchronized void putWord(Integer id, String value, int typeId) {
+        assertLive();
+        WordTally tally = tallies.get(id);
+
+        if (tally != null) {
+            if (tally.value.equals(value) && tally.typeId == typeId) {
+                return;
+            }
+
+            removeWord(id);
+        }
+
+        tallies.put(id, new WordTally(value, typeId));
+        countLetters(value, typeId, 1);
+        pendingPhonemes.add(id);
+    }
+
+    /**
+     * Removes everything counted for a word from live statistics
+     *
+     * @param id id of word
+     */
+    public synchronized void removeWord(Integer id) {
+        assertLive();
+        WordTally tally = tallies.remove(id);
+
+        if (tally == null) {
+            return;
+        }
+
+        countLetters(tally.value, tally.typeId, -1);
+        if (tally.phonemes != null) {
+            countPhonemes(tally.phonemes, -1);
+        }
+        pendingPhonemes.remove(id);
+    }
+
+    /**
+     * Updates value of a word already counted. Ignored for uncounted words.
+     *
+     * @param id id of word
+     * @param value new value
+     */
+    public synchronized void setWordValue(Integer id, String value) {
+        assertLive();
+        WordTally tally = tallies.get(id);
+
+        if (tally != null) {
+            putWord(id, value, tally.typeId);
+        }
+    }
+
+    /**
+     * Updates type of a word already counted. Ignored for uncounted words.
+     *
+     * @param id id of word
+     * @param typeId new type
+     */
+    public synchronized void setWordType(Integer id, int typeId) {
+        assertLive();
+        WordTally tally = tallies.get(id);
+
+        if (tally != null && tally.typeId != typeId) {
+            countType(tally.typeId, -1);
+            countType(typeId, 1);
+            tally.typeId = typeId;
+        }
+    }
+
+    /**
+     * Brings phoneme counts of live statistics up to date: discards all
+     * breakdowns if pronunciation rules have changed, then breaks down any
+     * words not yet counted
+     */
+    private void settlePhonemes() {
+        if (tallies == null) {
+            return;
+        }
+
+        PronunciationMgr procMgr = core.getPronunciationMgr();
+
+        if (procMgr.getRuleVersion() != ruleVersion) {
+            Arrays.fill(phonemeCounts, 0);
+            phonemeBigramCounts.clear();
+            for (WordTally curTally : tallies.values()) {
+                curTally.phonemes = null;
+            }
+            pendingPhonemes.addAll(tallies.keySet());
+            ruleVersion = procMgr.getRuleVersion();
+        }
+
+        if (pendingPhonemes.isEmpty()) {
+            return;
+        }
+
+        List<WordTally> pending = new ArrayList<>();
+        for (Integer curId : pendingPhonemes) {
+            pending.add(tallies.get(curId));
+        }
+        pendingPhonemes.clear();
+
+        // register every phoneme first so breakdowns only read shared state
+        Iterator<PronunciationNode> procIt = procMgr.getPronunciations();
+        while (procIt.hasNext()) {
+            phonemeOrdinal(procIt.next().getPronunciation());
+        }
+
+        if (pending.size() <= MIN_SPLIT) {
+            new BreakdownTask(this, pending, 0, pending.size(), MIN_SPLIT).compute();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool();
+            try {
+                int split = Math.max(MIN_SPLIT, pending.size() / (pool.getParallelism() * 4));
+                pool.invoke(new BreakdownTask(this, pending, 0, pending.size(), split));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        for (WordTally curTally : pending) {
+            countPhonemes(curTally.phonemes, 1);
+        }
+    }
+
+    /**
+     * Adds (or with negative weight, removes) a word's letter and type
+     * contribution
+     *
+     * @param value word value
+     * @param typeId word type
+     * @param weight 1 to add, -1 to remove
+     */
+    private void countLetters(String value, int typeId, int weight) {
+        final int length = value.length();
+        wordCount += weight;
+        countType(typeId, weight);
+
+        if (length > 0) {
+            // ordinals first: assigning one may reallocate the count arrays
+            int first = charOrdinal(value.charAt(0));
+            int last = charOrdinal(value.charAt(length - 1));
+            startCounts[first] += weight;
+            endCounts[last] += weight;
+        }
+
+        int prev2 = -1;
+        int prev1 = -1;
+        for (int i = 0; i < length; i++) {
+            int cur = charOrdinal(value.charAt(i));
+            charCounts[cur] += weight;
+
+            if (prev1 != -1) {
+                bigramCounts.add(pairKey(prev1, cur), weight);
+            }
+            if (prev2 != -1) {
+                trigramCounts.add(trigramKey(prev2, prev1, cur), weight);
+            }
+
+            prev2 = prev1;
+            prev1 = cur;
+        }
+    }
+
+    private void countType(int typeId, int weight) {
+        int[] typeCount = typeCounts.get(typeId);
+        if (typeCount == null) {
+            typeCount = new int[1];
+            typeCounts.put(typeId, typeCount);
+        }
+        typeCount[0] += weight;
+    }
+
+    /**
+     * Adds (or with negative weight, removes) a word's phoneme contribution
+     *
+     * @param phonOrdinals ordinals of phonemes making up word
+     * @param weight 1 to add, -1 to remove
+     */
+    private void countPhonemes(int[] phonOrdinals, int weight) {
+        int prevPhon = -1;
+        for (int cur : phonOrdinals) {
+            phonemeCounts[cur] += weight;
+
+            if (prevPhon != -1) {
+                phonemeBigramCounts.add(pairKey(prevPhon, cur), weight);
+            }
+
+            prevPhon = cur;
+        }
+    }
+
+    private int[] phonemeOrdinals(List<PronunciationNode> phonArray) {
+        int[] ret = new int[phonArray.size()];
+
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = phonemeOrdinal(phonArray.get(i).getPronunciation());
+        }
+
+        return ret;
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) a << MAX_ORDINAL_BITS) | b;
+    }
+
+    private static long trigramKey(int a, int b, int c) {
+        return ((long) a << (MAX_ORDINAL_BITS * 2)) | ((long) b << MAX_ORDINAL_BITS) | c;
+    }
+
+    /**
+     * Adds all counts of a partial tally (sharing this tally's ordinals)
+     *
+     * @param partial tally to merge in
+     */
+    private void merge(LexiconStatistics partial) {
+        wordCount += partial.wordCount;
+
+        for (int i = 0; i < partial.alphaSize; i++) {
+            startCounts[i] += partial.startCounts[i];
+            endCounts[i] += partial.endCounts[i];
+            charCounts[i] += partial.charCounts[i];
+        }
+
+        bigramCounts.addAll(partial.bigramCounts);
+        trigramCounts.addAll(partial.trigramCounts);
+
+        for (int i = 0; i < partial.phonemeSize; i++) {
+            phonemeCounts[i] += partial.phonemeCounts[i];
+        }
+
+        phonemeBigramCounts.addAll(partial.phonemeBigramCounts);
+
+        for (Entry<Integer, int[]> curEntry : partial.typeCounts.entrySet()) {
+            int[] typeCount = typeCounts.get(curEntry.getKey());
+            if (typeCount == null) {
+                typeCount = new int[1];
+                typeCounts.put(curEntry.getKey(), typeCount);
+            }
+            typeCount[0] += curEntry.getValue()[0];
+        }
+    }
+
+    private int charOrdinal(char c) {
+        int ret = charOrdinals[c];
+
+        if (ret == -1) {
+            if (alphaSize == alphaCap) {
+                allocateAlpha(alphaCap * 2);
+            }
+
+            ret = alphaSize++;
+            alphabet[ret] = c;
+            charOrdinals[c] = ret;
+        }
+
+        return ret;
+    }
+
+    private int phonemeOrdinal(String phoneme) {
+        Integer ret = phonemeIds.get(phoneme);
+
+        if (ret == null) {
+            if (phonemeSize == phonemeCap) {
+                allocatePhonemes(phonemeCap * 2);
+            }
+
+            ret = phonemeSize++;
+            phonemes[ret] = phoneme;
+            phonemeIds.put(phoneme, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Grows (or initially allocates) all arrays indexed by character ordinal
+     */
+    private void allocateAlpha(int newCap) {
+        alphabet = alphabet == null ? new char[newCap] : Arrays.copyOf(alphabet, newCap);
+        startCounts = startCounts == null ? new int[newCap] : Arrays.copyOf(startCounts, newCap);
+        endCounts = endCounts == null ? new int[newCap] : Arrays.copyOf(endCounts, newCap);
+        charCounts = charCounts == null ? new int[newCap] : Arrays.copyOf(charCounts, newCap);
+        alphaCap = newCap;
+    }
+
+    /**
+     * Grows (or initially allocates) all arrays indexed by phoneme ordinal
+     */
+    private void allocatePhonemes(int newCap) {
+        phonemes = phonemes == null ? new String[newCap] : Arrays.copyOf(phonemes, newCap);
+        phonemeCounts = phonemeCounts == null ? new int[newCap] : Arrays.copyOf(phonemeCounts, newCap);
+        phonemeCap = newCap;
+    }
+
+    public synchronized int getWordCount() {
+        return wordCount;
+    }
+
+    public synchronized int getStartCount(char c) {
+        int ordinal = charOrdinals[c];
+        return ordinal == -1 ? 0 : startCounts[ordinal];
+    }
+
+    public synchronized int getEndCount(char c) {
+        int ordinal = charOrdinals[c];
+        return ordinal == -1 ? 0 : endCounts[ordinal];
+    }
+
+    public synchronized int getCharCount(char c) {
+        int ordinal = charOrdinals[c];
+        return ordinal == -1 ? 0 : charCounts[ordinal];
+    }
+
+    /**
+     * @param first first character of combination
+     * @param second second character of combination
+     * @return count of times second directly follows first
+     */
+    public synchronized int getBigramCount(char first, char second) {
+        int a = charOrdinals[first];
+        int b = charOrdinals[second];
+        return a == -1 || b == -1 ? 0 : bigramCounts.get(pairKey(a, b));
+    }
+
+    public synchronized int getTrigramCount(char first, char second, char third) {
+        int a = charOrdinals[first];
+        int b = charOrdinals[second];
+        int c = charOrdinals[third];
+        return a == -1 || b == -1 || c == -1 ? 0
+                : trigramCounts.get(trigramKey(a, b, c));
+    }
+
+    public synchronized int getPhonemeCount(String phoneme) {
+        settlePhonemes();
+        Integer ordinal = phonemeIds.get(phoneme);
+        return ordinal == null ? 0 : phonemeCounts[ordinal];
+    }
+
+    public synchronized int getPhonemeBigramCount(String first, String second) {
+        settlePhonemes();
+        Integer a = phonemeIds.get(first);
+        Integer b = phonemeIds.get(second);
+        return a == null || b == null ? 0 : phonemeBigramCounts.get(pairKey(a, b));
+    }
+
+    /**
+     * @return counts of words by type id (sorted by id)
+     */
+    public synchronized Map<Integer, Integer> getTypeCounts() {
+        Map<Integer, Integer> ret = new TreeMap<>();
+
+        for (Entry<Integer, int[]> curEntry : typeCounts.entrySet()) {
+            if (curEntry.getValue()[0] != 0) {
+                ret.put(curEntry.getKey(), curEntry.getValue()[0]);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Compares these statistics against others (typically a fresh
+     * recomputation of the same words), listing every count that differs
+     *
+     * @param other statistics to compare against
+     * @return description of each difference, empty if consistent
+     */
+    public synchronized List<String> diff(LexiconStatistics other) {
+        List<String> ret = new ArrayList<>();
+        settlePhonemes();
+
+        synchronized (other) {
+            other.settlePhonemes();
+
+            diffCount(ret, "word count", wordCount, other.wordCount);
+
+            Map<Integer, Integer> myTypes = getTypeCounts();
+            Map<Integer, Integer> otherTypes = other.getTypeCounts();
+            Set<Integer> allTypes = new HashSet<>(myTypes.keySet());
+            allTypes.addAll(otherTypes.keySet());
+            for (Integer curType : allTypes) {
+                diffCount(ret, "words of type " + curType,
+                        myTypes.containsKey(curType) ? myTypes.get(curType) : 0,
+                        otherTypes.containsKey(curType) ? otherTypes.get(curType) : 0);
+            }
+
+            Set<Character> allChars = new LinkedHashSet<>();
+            for (int i = 0; i < alphaSize; i++) {
+                allChars.add(alphabet[i]);
+            }
+            for (int i = 0; i < other.alphaSize; i++) {
+                allChars.add(other.alphabet[i]);
+            }
+            for (char x : allChars) {
+                diffCount(ret, "words starting with " + x, getStartCount(x), other.getStartCount(x));
+                diffCount(ret, "words ending with " + x, getEndCount(x), other.getEndCount(x));
+                diffCount(ret, "count of " + x, getCharCount(x), other.getCharCount(x));
+
+                for (char y : allChars) {
+                    diffCount(ret, "count of " + x + y, getBigramCount(x, y), other.getBigramCount(x, y));
+                }
+            }
+
+            // trigrams only exist where counted, so check keys from both sides
+            Set<String> trigrams = new LinkedHashSet<>();
+            trigramCounts.collectKeys(alphabet, trigrams);
+            other.trigramCounts.collectKeys(other.alphabet, trigrams);
+            for (String curTri : trigrams) {
+                char a = curTri.charAt(0);
+                char b = curTri.charAt(1);
+                char c = curTri.charAt(2);
+                diffCount(ret, "count of " + curTri, getTrigramCount(a, b, c), other.getTrigramCount(a, b, c));
+            }
+
+            Set<String> allPhonemes = new LinkedHashSet<>(phonemeIds.keySet());
+            allPhonemes.addAll(other.phonemeIds.keySet());
+            for (String x : allPhonemes) {
+                diffCount(ret, "count of phoneme " + x, getPhonemeCount(x), other.getPhonemeCount(x));
+
+                for (String y : allPhonemes) {
+                    diffCount(ret, "count of phonemes " + x + " " + y,
+                            getPhonemeBigramCount(x, y), other.getPhonemeBigramCount(x, y));
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    private static void diffCount(List<String> diffs, String label, int mine, int theirs) {
+        if (mine != theirs) {
+            diffs.add(label + ": " + mine + " (expected " + theirs + ")");
+        }
+    }
+
+    private int highestBigramCount() {
+        return bigramCounts.max();
+    }
+
+    private int highestPhonemeBigramCount() {
+        return phonemeBigramCounts.max();
+    }
+
+    /**
+     * Gets all characters to report on: the alphabet, followed by any
+     * characters used in words but missing from the alphabet
+     */
+    private String getReportChars() {
+        String alpha = core.getPropertiesManager().getAlphaPlainText();
+        StringBuilder ret = new StringBuilder(alpha);
+
+        for (int i = 0; i < alphaSize; i++) {
+            if (charCounts[i] > 0 && alpha.indexOf(alphabet[i]) == -1) {
+                ret.append(alphabet[i]);
+            }
+        }
+
+        return ret.toString();
+    }
+
+    private static String rangeLabel(String[] values, int start, int end) {
+        return start < end ? values[start] + " - " + values[end - 1] : "none";
+    }
+
+    private static String heatColor(int value, int highest) {
+        int red = highest == 0 ? 0 : (255 / highest) * value;
+        int blue = 255 - red;
+        return "rgb(" + red + "," + blue + "," + blue + ")";
+    }
+
+    /**
+     * Renders statistics as HTML
+     *
+     * @return HTML report body
+     */
+    public String buildReport() {
+        StringWriter ret = new StringWriter();
+
+        try {
+            writeReport(ret, 0);
+        } catch (IOException e) {
+            // writing to memory; cannot happen
+            throw new IllegalStateException(e);
+        }
+
+        return ret.toString();
+    }
+
+    /**
+     * Streams statistics as HTML, section by section
+     *
+     * @param out writer to stream report to
+     * @param pageSize maximum rows and columns in each heat map table, larger
+     * maps being split into several tables. 0 for a single table each.
+     * @throws IOException on write failure
+     */
+    public synchronized void writeReport(Writer out, int pageSize) throws IOException {
+        settlePhonemes();
+        String zero = ConWordCollection.formatPlain("0");
+        char[] reportChars = getReportChars().toCharArray();
+
+        out.write(ConWordCollection.formatPlain("Count of words in conlang lexicon: " + wordCount + "<br><br>"));
+
+        // build display of type counts
+        out.write(ConWordCollection.formatPlain("count of words by type:<br>"));
+        for (Entry<Integer, Integer> curEntry : getTypeCounts().entrySet()) {
+            TypeNode type = core.getTypes().getNodeById(curEntry.getKey());
+
+            if (type != null) {
+                out.write(ConWordCollection.formatPlain(type.getValue() + " : " + curEntry.getValue() + "<br>"));
+            }
+        }
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // build display for starts-with statistics
+        out.write(ConWordCollection.formatPlain(" Breakdown of words counted starting with letter:<br>"));
+        for (char letter : reportChars) {
+            int count = getStartCount(letter);
+            out.write(letter + ConWordCollection.formatPlain(" : "
+                    + (count == 0 ? zero : count) + "<br>"));
+        }
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // build display for ends-with statistics
+        out.write(ConWordCollection.formatPlain(" Breakdown of words counted ending with letter:<br>"));
+        for (char letter : reportChars) {
+            int count = getEndCount(letter);
+            out.write(letter + ConWordCollection.formatPlain(" : "
+                    + (count == 0 ? zero : count) + "<br>"));
+        }
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // build display for character counts
+        out.write(ConWordCollection.formatPlain(" Breakdown of characters counted across all words:<br>"));
+        for (char letter : reportChars) {
+            int count = getCharCount(letter);
+            out.write(letter + ConWordCollection.formatPlain(" : "
+                    + (count == 0 ? zero : count) + "<br>"));
+        }
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // build display for phoneme count
+        out.write(ConWordCollection.formatPlain(" Breakdown of phonemes counted across all words:<br>"));
+        List<String> procs = new ArrayList<>();
+        Iterator<PronunciationNode> procLoop = core.getPronunciationMgr().getPronunciations();
+        while (procLoop.hasNext()) {
+            procs.add(procLoop.next().getPronunciation());
+        }
+        for (String curProc : procs) {
+            int count = getPhonemeCount(curProc);
+            out.write(ConWordCollection.formatPlain(curProc + " : "
+                    + (count == 0 ? zero : count) + "<br>"));
+        }
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // buid grid of 2 letter combos
+        String[] letterCols = new String[reportChars.length];
+        for (int i = 0; i < reportChars.length; i++) {
+            letterCols[i] = String.valueOf(reportChars[i]);
+        }
+        char[] alphaChars = core.getPropertiesManager().getAlphaPlainText().toCharArray();
+        String[] letterRows = new String[alphaChars.length];
+        for (int i = 0; i < alphaChars.length; i++) {
+            letterRows[i] = String.valueOf(alphaChars[i]);
+        }
+        out.write(ConWordCollection.formatPlain("Heat map of letter combination frequency:<br>"));
+        writeHeatMap(out, letterRows, letterCols, false, pageSize);
+        out.write(ConWordCollection.formatPlain("<br><br>"));
+
+        // buid grid of 2 phoneme combos
+        String[] procArray = procs.toArray(new String[procs.size()]);
+        out.write(ConWordCollection.formatPlain("Heat map of phoneme combination frequency:<br>"));
+        writeHeatMap(out, procArray, procArray, true, pageSize);
+    }
+
+    /**
+     * Writes heat map of letter or phoneme combinations, where each cell is
+     * the count of the column's value followed by the row's value. Maps with
+     * more rows or columns than the page size are split into tiles.
+     *
+     * @param out writer to stream to
+     * @param rows row values
+     * @param cols column values
+     * @param phonemes true if values are phonemes, false if letters
+     * @param pageSize maximum rows and columns per table, 0 for no limit
+     * @throws IOException on write failure
+     */
+    private void writeHeatMap(Writer out, String[] rows, String[] cols,
+            boolean phonemes, int pageSize) throws IOException {
+        int highest = phonemes ? highestPhonemeBigramCount() : highestBigramCount();
+        int rowPage = pageSize > 0 ? pageSize : Math.max(rows.length, 1);
+        int colPage = pageSize > 0 ? pageSize : Math.max(cols.length, 1);
+        boolean paged = rows.length > rowPage || cols.length > colPage;
+
+        for (int rowStart = 0; rowStart < rows.length || rowStart == 0; rowStart += rowPage) {
+            int rowEnd = Math.min(rows.length, rowStart + rowPage);
+
+            for (int colStart = 0; colStart < cols.length || colStart == 0; colStart += colPage) {
+                int colEnd = Math.min(cols.length, colStart + colPage);
+
+                if (paged) {
+                    out.write(ConWordCollection.formatPlain("rows " + rangeLabel(rows, rowStart, rowEnd)
+                            + ", columns " + rangeLabel(cols, colStart, colEnd) + ":<br>"));
+                }
+
+                out.write("<table border=\"1\">");
+                out.write(phonemes ? "<tr>" + ConWordCollection.formatPlain("<td></td>") : "<tr><td></td>");
+                for (int x = colStart; x < colEnd; x++) {
+                    out.write("<td>" + (phonemes
+                            ? ConWordCollection.formatPlain(ConWordCollection.formatPlain(cols[x]))
+                            : cols[x]) + "</td>");
+                }
+                out.write("</tr>");
+
+                for (int y = rowStart; y < rowEnd; y++) {
+                    out.write("<tr><td>" + (phonemes ? ConWordCollection.formatPlain(rows[y]) : rows[y]) + "</td>");
+
+                    for (int x = colStart; x < colEnd; x++) {
+                        int comboValue = phonemes ? getPhonemeBigramCount(cols[x], rows[y])
+                                : getBigramCount(cols[x].charAt(0), rows[y].charAt(0));
+                        out.write("<td bgcolor=" + heatColor(comboValue, highest) + ">"
+                                + (phonemes ? ConWordCollection.formatPlain(cols[x] + rows[y] + ":" + comboValue)
+                                        : cols[x] + rows[y] + ConWordCollection.formatPlain(":" + comboValue))
+                                + "</td>");
+                    }
+
+                    out.write("</tr>");
+                }
+
+                out.write("</table>");
+
+                if (paged && (colEnd < cols.length || rowEnd < rows.length)) {
+                    out.write(ConWordCollection.formatPlain("<br>"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Open addressing counter keyed by primitive long, for sparse tables such
+     * as bigrams and trigrams that would be far too large as dense arrays
+     */
+    private static class LongCounter {
+
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private boolean[] used = new boolean[64];
+        private int size = 0;
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int ret = (int) (key ^ (key >>> 29) ^ (key >>> 47)) * 0x9E3779B9 & mask;
+
+            while (used[ret] && keys[ret] != key) {
+                ret = (ret + 1) & mask;
+            }
+
+            return ret;
+        }
+
+        void add(long key, int amount) {
+            int index = slot(key);
+
+            if (!used[index]) {
+                used[index] = true;
+                keys[index] = key;
+                size++;
+
+                if (size * 2 > keys.length) {
+                    values[index] += amount;
+                    grow();
+                    return;
+                }
+            }
+
+            values[index] += amount;
+        }
+
+        /**
+         * Adds string form of every trigram with a nonzero count
+         */
+        void collectKeys(char[] alphabet, Set<String> dest) {
+            long mask = (1L << MAX_ORDINAL_BITS) - 1;
+
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i] && values[i] != 0) {
+                    long key = keys[i];
+                    dest.add("" + alphabet[(int) (key >>> (MAX_ORDINAL_BITS * 2))]
+                            + alphabet[(int) ((key >>> MAX_ORDINAL_BITS) & mask)]
+                            + alphabet[(int) (key & mask)]);
+                }
+            }
+        }
+
+        int get(long key) {
+            int index = slot(key);
+            return used[index] ? values[index] : 0;
+        }
+
+        int max() {
+            int ret = 0;
+
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    ret = Math.max(ret, values[i]);
+                }
+            }
+
+            return ret;
+        }
+
+        void clear() {
+            Arrays.fill(used, false);
+            Arrays.fill(values, 0);
+            size = 0;
+        }
+
+        void addAll(LongCounter other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.used[i]) {
+                    add(other.keys[i], other.values[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldUsed = used;
+
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int index = slot(oldKeys[i]);
+                    used[index] = true;
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
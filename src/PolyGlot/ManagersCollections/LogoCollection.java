@@ -21,10 +21,13 @@ package PolyGlot.ManagersCollections;
 
 import PolyGlot.Nodes.ConWord;
 import PolyGlot.DictCore;
+import PolyGlot.Nodes.DictNode;
 import PolyGlot.Nodes.LogoNode;
 import PolyGlot.PGTUtil;
 import PolyGlot.WebInterface;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -39,8 +42,20 @@ import org.w3c.dom.Element;
  * @author draque
  */
 public class LogoCollection extends DictionaryCollection {
-    private final Map<Integer, ArrayList<Integer>> logoToWord;
-    private final Map<Integer, ArrayList<Integer>> wordToLogo;
+    private final Map<Integer, IntSet> logoToWord;
+    private final Map<Integer, IntSet> wordToLogo;
+    // lower cased value -> ids of related words with that value, and the
+    // value each related word is indexed under
+    private final Map<String, IntSet> relatedWordsByValue;
+    private final Map<Integer, String> relatedWordValues;
+    // search indexes over logographs, text keys lower cased. Changed nodes
+    // are only marked stale, and reindexed when next searched.
+    private final Map<String, IntSet> logosByValue = new HashMap<>();
+    private final Map<String, IntSet> logosByReading = new HashMap<>();
+    private final Map<Integer, IntSet> logosByRadical = new HashMap<>();
+    private final Map<Integer, IntSet> logosByStrokes = new HashMap<>();
+    private final Map<Integer, IndexedLogo> indexedLogos = new HashMap<>();
+    private final IntSet staleLogos = new IntSet();
     private final DictCore core;
     
     /**
@@ -50,20 +65,28 @@ public class LogoCollection extends DictionaryCollection {
      * @return true if added, false if existing already
      */
     public boolean addWordLogoRelation(ConWord word, LogoNode logo) {
-        if (!logoToWord.containsKey(logo.getId())) {
-            logoToWord.put(logo.getId(), new ArrayList<Integer>());
-        }
+        int wordId = word.getId();
+        int logoId = logo.getId();
+        IntSet wordLogos = wordToLogo.get(wordId);
         
-        if(!wordToLogo.containsKey(word.getId())) {
-            wordToLogo.put(word.getId(), new ArrayList<Integer>());
+        if (wordLogos == null) {
+            wordLogos = new IntSet();
+            wordToLogo.put(wordId, wordLogos);
+            indexWordValue(wordId, word.getValue());
         }
         
-        if (wordToLogo.get(word.getId()).contains(logo.getId())) {
+        if (!wordLogos.add(logoId)) {
             return false;
         }
         
-        logoToWord.get(logo.getId()).add(word.getId());
-        wordToLogo.get(word.getId()).add(logo.getId());
+        IntSet logoWords = logoToWord.get(logoId);
+        
+        if (logoWords == null) {
+            logoWords = new IntSet();
+            logoToWord.put(logoId, logoWords);
+        }
+        
+        logoWords.add(wordId);
         
         return true;
     }
@@ -74,32 +97,194 @@ public class LogoCollection extends DictionaryCollection {
      * @param logo 
      */
     public void removeWordLogoRelation(ConWord word, LogoNode logo) {
-        logoToWord.get(logo.getId()).remove(word.getId());
-        wordToLogo.get(word.getId()).remove(logo.getId());
+        removeRelation(word.getId(), logo.getId());
+    }
+    
+    private void removeRelation(int wordId, int logoId) {
+        IntSet logoWords = logoToWord.get(logoId);
+        IntSet wordLogos = wordToLogo.get(wordId);
+        
+        if (logoWords != null) {
+            logoWords.remove(wordId);
+            
+            if (logoWords.isEmpty()) {
+                logoToWord.remove(logoId);
+            }
+        }
+        
+        if (wordLogos != null) {
+            wordLogos.remove(logoId);
+            
+            if (wordLogos.isEmpty()) {
+                wordToLogo.remove(wordId);
+                unindexWordValue(wordId);
+            }
+        }
+    }
+    
+    /**
+     * Keeps related word lookups current when a word's value changes. Does
+     * nothing for words with no logographs.
+     * @param wordId id of word
+     * @param newValue word's new value
+     */
+    public void wordValueChanged(Integer wordId, String newValue) {
+        if (relatedWordValues.containsKey(wordId)) {
+            unindexWordValue(wordId);
+            indexWordValue(wordId, newValue);
+        }
+    }
+    
+    /**
+     * Strikes all relations of a word deleted from the lexicon
+     * @param wordId id of deleted word
+     */
+    public void wordDeleted(Integer wordId) {
+        IntSet wordLogos = wordToLogo.get(wordId);
+        
+        if (wordLogos != null) {
+            for (int logoId : wordLogos.toArray()) {
+                removeRelation(wordId, logoId);
+            }
+        }
+    }
+    
+    private void indexWordValue(int wordId, String value) {
+        addPosting(relatedWordsByValue, value.toLowerCase(), wordId);
+        relatedWordValues.put(wordId, value);
+    }
+    
+    private void unindexWordValue(int wordId) {
+        String value = relatedWordValues.remove(wordId);
+        
+        if (value != null) {
+            removePosting(relatedWordsByValue, value.toLowerCase(), wordId);
+        }
+    }
+    
+    /**
+     * Marks logograph for reindexing before the next search. Called by
+     * LogoNode when its searchable values change.
+     * @param logo changed logograph
+     */
+    public void logoChanged(LogoNode logo) {
+        staleLogos.add(logo.getId());
+    }
+    
+    @Override
+    protected Integer insert(Integer _id, DictNode _buffer) throws Exception {
+        Integer ret = super.insert(_id, _buffer);
+        LogoNode logo = (LogoNode)_buffer;
+        
+        logo.setCollection(this);
+        logoChanged(logo);
+        
+        return ret;
+    }
+    
+    @Override
+    public void modifyNode(Integer _id, DictNode _modNode) throws Exception {
+        super.modifyNode(_id, _modNode);
+        LogoNode logo = (LogoNode)_modNode;
+        
+        logo.setCollection(this);
+        logoChanged(logo);
     }
     
     /**
-     * Deletes LogoNode by ID. Ensures all words relations are struck.
+     * Reindexes stale logographs, and drops deleted ones from indexes
+     */
+    private void refreshSearchIndexes() {
+        for (int logoId : staleLogos.toArray()) {
+            IndexedLogo old = indexedLogos.remove(logoId);
+            
+            if (old != null) {
+                removePosting(logosByValue, old.value, logoId);
+                removePosting(logosByStrokes, old.strokes, logoId);
+                
+                for (String reading : old.readings) {
+                    removePosting(logosByReading, reading, logoId);
+                }
+                
+                for (int radicalId : old.radicals) {
+                    removePosting(logosByRadical, radicalId, logoId);
+                }
+            }
+            
+            if (nodeMap.containsKey(logoId)) {
+                IndexedLogo indexed = new IndexedLogo((LogoNode)nodeMap.get(logoId));
+                indexedLogos.put(logoId, indexed);
+                addPosting(logosByValue, indexed.value, logoId);
+                addPosting(logosByStrokes, indexed.strokes, logoId);
+                
+                for (String reading : indexed.readings) {
+                    addPosting(logosByReading, reading, logoId);
+                }
+                
+                for (int radicalId : indexed.radicals) {
+                    addPosting(logosByRadical, radicalId, logoId);
+                }
+            }
+        }
+        
+        staleLogos.clear();
+    }
+    
+    private static <K> void addPosting(Map<K, IntSet> index, K key, int id) {
+        IntSet ids = index.get(key);
+        
+        if (ids == null) {
+            ids = new IntSet();
+            index.put(key, ids);
+        }
+        
+        ids.add(id);
+    }
+    
+    private static <K> void removePosting(Map<K, IntSet> index, K key, int id) {
+        IntSet ids = index.get(key);
+        
+        if (ids != null) {
+            ids.remove(id);
+            
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Deletes LogoNode by ID. Ensures all words relations, and uses of it as a
+     * radical, are struck.
      * @param _id ID to delete
      * @throws Exception if no ID exists as listed
      */
     @Override
     public void deleteNodeById(Integer _id) throws Exception {
         LogoNode logo = (LogoNode)getNodeById(_id);
-        Iterator<ConWord> it = getLogoWords(logo).iterator();
+        IntSet logoWords = logoToWord.get(_id);
         
-        while (it.hasNext()) {
-            ConWord word = it.next();
-            
-            removeWordLogoRelation(word, logo);
+        refreshSearchIndexes();
+        
+        for (int logoId : getPostings(logosByRadical, _id).toArray()) {
+            ((LogoNode)nodeMap.get(logoId)).removeRadical(logo);
+        }
+        
+        if (logoWords != null) {
+            for (int wordId : logoWords.toArray()) {
+                removeRelation(wordId, _id);
+            }
         }
         
         super.deleteNodeById(_id);
+        staleLogos.add(_id);
     }
     
     public LogoCollection(DictCore _core) {
         wordToLogo = new HashMap<>();
         logoToWord = new HashMap<>();
+        relatedWordsByValue = new HashMap<>();
+        relatedWordValues = new HashMap<>();
         bufferNode = new LogoNode();
         
         core = _core;
@@ -124,7 +309,7 @@ public class LogoCollection extends DictionaryCollection {
      * @param radical radical filter (by name)
      * @param strokes filter by num strokes
      * @param notes filter by string found in notes
-     * @return 
+     * @return sorted list of matching logographs
      */
     public List<LogoNode> getFilteredList(String reading, 
             String relWord, 
@@ -132,54 +317,105 @@ public class LogoCollection extends DictionaryCollection {
             int strokes, 
             String notes) {
         List<LogoNode> retList = new ArrayList<>();
-        Iterator<LogoNode> it = getAllLogos().iterator();
+        List<IntSet> matches = new ArrayList<>();
         boolean ignoreCase = core.getPropertiesManager().isIgnoreCase();
+        boolean filterReading = !reading.trim().equals("");
+        boolean filterNotes = !notes.trim().equals("");
         
-        while (it.hasNext()) {
-            LogoNode curNode = it.next();
-
-            if (!reading.trim().equals("") && !curNode.containsReading(reading, ignoreCase)) {
-                continue;
-            } else if (!radical.trim().equals("") && !curNode.containsRadicalString(radical, ignoreCase)) {
-                continue;
-            } else if (strokes != 0 && strokes != curNode.getStrokes()) {
+        refreshSearchIndexes();
+        
+        // gather ids matching each indexed filter in use
+        if (filterReading) {
+            matches.add(getPostings(logosByReading, reading.toLowerCase()));
+        }
+        if (!radical.trim().equals("")) {
+            matches.add(getLogosWithRadical(radical, ignoreCase));
+        }
+        if (strokes != 0) {
+            matches.add(getPostings(logosByStrokes, strokes));
+        }
+        if (!relWord.trim().equals("")) {
+            matches.add(getLogosRelatedToValue(relWord));
+        }
+        
+        Collection<?> candidates;
+        
+        if (matches.isEmpty()) {
+            candidates = nodeMap.values();
+        } else {
+            List<LogoNode> found = new ArrayList<>();
+            
+            for (int logoId : IntSet.intersect(matches)) {
+                found.add((LogoNode)nodeMap.get(logoId));
+            }
+            
+            candidates = found;
+        }
+        
+        for (Object curObject : candidates) {
+            LogoNode curNode = (LogoNode)curObject;
+            
+            // reading index ignores case; confirm exact match where needed
+            if (filterReading && !ignoreCase && !curNode.containsReading(reading, false)) {
                 continue;
-            } else if (!relWord.trim().equals("") && !logoRelatedToWord(curNode, relWord)) {
+            } else if (filterNotes && (ignoreCase
+                    ? !curNode.getNotes().toLowerCase().contains(notes.toLowerCase())
+                    : !curNode.getNotes().contains(notes))) {
                 continue;
-            } else if (!notes.trim().equals("") && 
-                    ((ignoreCase && !curNode.getNotes().toLowerCase().contains(notes.toLowerCase())) 
-                            || !curNode.getNotes().contains(notes))) {
-                continue;                
-            }            
+            }
             
             retList.add(curNode);
         }
         
+        Collections.sort(retList);
+        
         return retList;
     }
     
     /**
-     * tests whether a logonode is related to a word via string search
-     * @param node logonode in question
+     * gets ids of all logonodes with a radical of the given name
+     * @param radical name of radical
+     * @param ignoreCase whether to ignore case of name
+     * @return ids of logonodes
+     */
+    private IntSet getLogosWithRadical(String radical, boolean ignoreCase) {
+        IntSet ret = new IntSet();
+        
+        for (int radicalId : getPostings(logosByValue, radical.toLowerCase()).toArray()) {
+            String value = ((LogoNode)nodeMap.get(radicalId)).getValue();
+            
+            if ((ignoreCase && value.equalsIgnoreCase(radical))
+                    || value.equals(radical)) {
+                ret.addAll(getPostings(logosByRadical, radicalId));
+            }
+        }
+        
+        return ret;
+    }
+    
+    private static <K> IntSet getPostings(Map<K, IntSet> index, K key) {
+        IntSet ret = index.get(key);
+        return ret == null ? new IntSet() : ret;
+    }
+    
+    /**
+     * gets ids of all logonodes related to any word with the given value
      * @param relWord string representation of word to be searched
-     * @return true if related, false otherwise
+     * @return ids of related logonodes
      */
-    private boolean logoRelatedToWord(LogoNode node, String relWord) {
-        boolean ret = false;
+    private IntSet getLogosRelatedToValue(String relWord) {
+        IntSet ret = new IntSet();
+        IntSet words = relatedWordsByValue.get(relWord.toLowerCase());
         boolean ignoreCase = core.getPropertiesManager().isIgnoreCase();
         
-        if (logoToWord.containsKey(node.getId())) {
-            Iterator<Integer> it = logoToWord.get(node.getId()).iterator();
-            
-            while (it.hasNext()) {
-                try {
-                    ConWord curWord = core.getWordCollection().getNodeById(it.next());
-                    if ((ignoreCase && curWord.getValue().equalsIgnoreCase(relWord))
-                            || curWord.getValue().equals(relWord)) {
-                        ret = true;
-                        break;
-                    }
-                } catch (Exception e) {/*do nothing*/}
+        if (words != null) {
+            for (int wordId : words.toArray()) {
+                String value = relatedWordValues.get(wordId);
+                
+                if ((ignoreCase && value.equalsIgnoreCase(relWord))
+                        || value.equals(relWord)) {
+                    ret.addAll(wordToLogo.get(wordId));
+                }
             }
         }
         
@@ -193,16 +429,12 @@ public class LogoCollection extends DictionaryCollection {
      */
     public List<LogoNode> getWordLogos(ConWord conWord) {
         List<LogoNode> retList = new ArrayList<>();
-        List<Integer> initialList = wordToLogo.get(conWord.getId());
-        Iterator<Integer> it = null;
+        IntSet logos = wordToLogo.get(conWord.getId());
         
-        if (initialList != null) {
-            it = initialList.iterator();
-        }
-        
-        while (it != null && it.hasNext()) {
-            LogoNode curNode = (LogoNode)nodeMap.get(it.next());
-            retList.add(curNode);
+        if (logos != null) {
+            for (int logoId : logos.toArray()) {
+                retList.add((LogoNode)nodeMap.get(logoId));
+            }
         }
         
         return retList;
@@ -215,19 +447,15 @@ public class LogoCollection extends DictionaryCollection {
      */
     public List<ConWord> getLogoWords(LogoNode logoNode) {
         List<ConWord> retList = new ArrayList<>();
-        List<Integer>initialList = logoToWord.get(logoNode.getId());
-        Iterator<Integer> it = null;
-        
-        if (initialList != null) {
-            it = initialList.iterator();
-        }
+        IntSet words = logoToWord.get(logoNode.getId());
         
-        while (it != null && it.hasNext()) {
-            try {
-                ConWord curNode = core.getWordCollection().getNodeById(it.next());
-                retList.add(curNode);
-            } catch (Exception e) {/*Do nothing*/}
-                        
+        if (words != null) {
+            for (int wordId : words.toArray()) {
+                try {
+                    ConWord curNode = core.getWordCollection().getNodeById(wordId);
+                    retList.add(curNode);
+                } catch (Exception e) {/*Do nothing*/}
+            }
         }
         
         return retList;
@@ -309,24 +537,22 @@ public class LogoCollection extends DictionaryCollection {
         }
         
         // write all logo->word relations to XML (reverse will be inferred on load)
-        Iterator<Entry<Integer, ArrayList<Integer>>> setIt = logoToWord.entrySet().iterator();
+        Iterator<Entry<Integer, IntSet>> setIt = logoToWord.entrySet().iterator();
         Element relationsCollection = doc.createElement(PGTUtil.logoRelationsCollectionXID);
         logoRoot.appendChild(relationsCollection);
         while (setIt.hasNext()) {
-            Entry<Integer, ArrayList<Integer>> curEntry = setIt.next();
-            Iterator<Integer> relIt = curEntry.getValue().iterator();
-            String logoId = curEntry.getKey().toString();
-            String wordIds = "";
+            Entry<Integer, IntSet> curEntry = setIt.next();
+            StringBuilder relations = new StringBuilder(curEntry.getKey().toString());
             
-            while (relIt.hasNext()) {
-                wordIds += ("," + relIt.next().toString());
+            for (int wordId : curEntry.getValue().toArray()) {
+                relations.append(',').append(wordId);
             }
             
             // only add if there is one more more relation
-            if (!wordIds.equals("")) {
+            if (!curEntry.getValue().isEmpty()) {
                 Element node = doc.createElement(PGTUtil.logoWordRelationXID);
                 // node is encoded with the logograph ID first, followed by all related words IDs
-                node.appendChild(doc.createTextNode(logoId + wordIds));
+                node.appendChild(doc.createTextNode(relations.toString()));
                 relationsCollection.appendChild(node);
             }
         }
@@ -407,4 +633,142 @@ public class LogoCollection extends DictionaryCollection {
         bufferNode = new LogoNode();
     }
     
+    /**
+     * Searchable values of a logograph as last indexed, so its postings can
+     * be found again once the logograph has changed
+     */
+    private static class IndexedLogo {
+
+        final String value;
+        final int strokes;
+        final List<String> readings = new ArrayList<>();
+        final int[] radicals;
+
+        IndexedLogo(LogoNode logo) {
+            IntSet radicalIds = new IntSet();
+
+            value = logo.getValue().toLowerCase();
+            strokes = logo.getStrokes();
+
+            for (String reading : logo.getReadings()) {
+                String key = reading.toLowerCase();
+
+                if (!readings.contains(key)) {
+                    readings.add(key);
+                }
+            }
+
+            for (LogoNode radical : logo.getRadicals()) {
+                if (radical != null) {
+                    radicalIds.add(radical.getId());
+                }
+            }
+
+            radicals = radicalIds.toArray();
+        }
+    }
+
+    /**
+     * Set of ints held as a sorted array, for the small per node relation
+     * sets and search postings (no boxing, and iterates in id order)
+     */
+    private static class IntSet {
+
+        private int[] values = new int[4];
+        private int size = 0;
+
+        boolean add(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+
+            if (index >= 0) {
+                return false;
+            }
+
+            index = -index - 1;
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return true;
+        }
+
+        void addAll(IntSet other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        boolean remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+
+            if (index < 0) {
+                return false;
+            }
+
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        /**
+         * Finds values present in every set, probing from the smallest
+         *
+         * @param sets sets to intersect (at least one)
+         * @return ascending values common to all sets
+         */
+        static int[] intersect(List<IntSet> sets) {
+            IntSet smallest = sets.get(0);
+
+            for (IntSet set : sets) {
+                if (set.size < smallest.size) {
+                    smallest = set;
+                }
+            }
+
+            int[] ret = new int[smallest.size];
+            int count = 0;
+
+            for (int i = 0; i < smallest.size; i++) {
+                int value = smallest.values[i];
+                boolean inAll = true;
+
+                for (IntSet set : sets) {
+                    if (set != smallest && !set.contains(value)) {
+                        inAll = false;
+                        break;
+                    }
+                }
+
+                if (inAll) {
+                    ret[count++] = value;
+                }
+            }
+
+            return Arrays.copyOf(ret, count);
+        }
+
+        /**
+         * @return copy of values in ascending order (safe to modify set
+         * while iterating this)
+         */
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
 }
@@ -25,6 +25,8 @@ import PolyGlot.Nodes.PronunciationNode;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.w3c.dom.Document;
@@ -37,6 +39,10 @@ import org.w3c.dom.Element;
 public class PronunciationMgr {
 
     private final DictCore core;
+    // compiled patterns of current rules, keyed by regex. Safe for concurrent lookups.
+    private final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
+    // bumped on every change to the rules, so derived values know to refresh
+    private int ruleVersion = 0;
 
     public PronunciationMgr(DictCore _core) {
         core = _core;
@@ -51,6 +57,36 @@ public class PronunciationMgr {
      */
     public void setPronunciations(List<PronunciationNode> _pronunciations) {
         pronunciations = _pronunciations;
+        rulesChanged();
+    }
+
+    /**
+     * Records a change to the rules, dropping patterns compiled for old ones
+     */
+    private void rulesChanged() {
+        ruleVersion++;
+        patternCache.clear();
+    }
+
+    /**
+     * Gets number that changes whenever the pronunciation rules change,
+     * including the properties that decide how rules are matched (regex
+     * disabled, ignore case)
+     *
+     * @return current rule version
+     */
+    public int getRuleVersion() {
+        PropertiesManager propMan = core.getPropertiesManager();
+        int ret = ruleVersion * 4;
+        
+        if (propMan.isDisableProcRegex()) {
+            ret += 1;
+        }
+        if (propMan.isIgnoreCase()) {
+            ret += 2;
+        }
+        
+        return ret;
     }
 
     /**
@@ -89,6 +125,7 @@ public class PronunciationMgr {
      */
     public void addAtPosition(int index, PronunciationNode newNode) {
         pronunciations.add(index, newNode);
+        rulesChanged();
     }
 
     /**
@@ -100,6 +137,7 @@ public class PronunciationMgr {
     public void modifyProc(int index, PronunciationNode newNode) {
         pronunciations.remove(index);
         pronunciations.add(index, newNode);
+        rulesChanged();
     }
 
     /**
@@ -117,6 +155,7 @@ public class PronunciationMgr {
 
         pronunciations.remove(index);
         pronunciations.add(index - 1, node);
+        rulesChanged();
     }
 
     /**
@@ -134,6 +173,7 @@ public class PronunciationMgr {
 
         pronunciations.remove(index);
         pronunciations.add(index + 1, node);
+        rulesChanged();
     }
 
     public void deletePronunciation(PronunciationNode remove) {
@@ -148,10 +188,12 @@ public class PronunciationMgr {
         }
 
         pronunciations = newProcs;
+        rulesChanged();
     }
 
     public void addPronunciation(PronunciationNode newNode) {
         pronunciations.add(newNode);
+        rulesChanged();
     }
 
     /**
@@ -244,7 +286,11 @@ public class PronunciationMgr {
                     pattern = "^(" + pattern.substring(1) + ").*";
                 }
 
-                Pattern findString = Pattern.compile(pattern);
+                Pattern findString = patternCache.get(pattern);
+                if (findString == null) {
+                    findString = Pattern.compile(pattern);
+                    patternCache.put(pattern, findString);
+                }
                 Matcher matcher = findString.matcher(base);
 
                 if (matcher.matches()) {
@@ -23,6 +23,9 @@ import PolyGlot.CustomControls.PAlphaMap;
 import PolyGlot.IOHandler;
 import PolyGlot.PGTUtil;
 import java.awt.Font;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Arrays;
 import javax.swing.JTextField;
 import org.w3c.dom.Document;
@@ -334,11 +337,26 @@ public class PropertiesManager {
     }
 
     public String buildPropertiesReport() {
-        String ret = "";
+        StringWriter ret = new StringWriter();
 
-        ret += ConWordCollection.formatPlain("Language Name: " + langName + "<br><br>");
+        try {
+            writePropertiesReport(ret);
+        } catch (IOException e) {
+            // writing to memory; cannot happen
+            throw new IllegalStateException(e);
+        }
 
-        return ret;
+        return ret.toString();
+    }
+
+    /**
+     * Streams report on language properties
+     *
+     * @param out writer to stream report to
+     * @throws IOException on write failure
+     */
+    public void writePropertiesReport(Writer out) throws IOException {
+        out.write(ConWordCollection.formatPlain("Language Name: " + langName + "<br><br>"));
     }
 
     /**
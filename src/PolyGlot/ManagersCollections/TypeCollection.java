@@ -28,10 +28,10 @@ import PolyGlot.Nodes.TypeNode;
 import PolyGlot.WebInterface;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -41,6 +41,8 @@ import org.w3c.dom.Element;
  */
 public class TypeCollection extends DictionaryCollection {
     final DictCore core;
+    // types by lower case name, as several may share a name
+    private final Map<String, List<TypeNode>> nameIndex = new HashMap<>();
 
     public TypeNode getBufferType() {
         return (TypeNode) bufferNode;
@@ -48,7 +50,11 @@ public class TypeCollection extends DictionaryCollection {
     
     @Override
     public void deleteNodeById(Integer _id) throws Exception {
+        TypeNode deleteType = getNodeById(_id);
+        
         super.deleteNodeById(_id);
+        unindexName(deleteType);
+        deleteType.setParent(null);
         
         // only push update if not core loading file
         if (!core.isCurLoading()) {
@@ -101,15 +107,7 @@ public class TypeCollection extends DictionaryCollection {
      * @throws java.lang.Exception if not found
      */
     public TypeNode findByName(String name) throws Exception {
-       TypeNode ret = null;
-       
-       for (Object n : nodeMap.values()) {
-           TypeNode curNode = (TypeNode)n;
-           if (curNode.getValue().toLowerCase().equals(name.toLowerCase())) {
-               ret = curNode;
-               break;
-           }
-       }
+       TypeNode ret = firstNamed(name);
        
        if (ret == null) {
            throw new Exception("Unable to find part of speech: " + name);
@@ -127,22 +125,104 @@ public class TypeCollection extends DictionaryCollection {
         TypeNode ret = null;
 
         if (!_name.equals("")) {
-            Iterator<Entry<Integer, TypeNode>> it = nodeMap.entrySet().iterator();
-            Entry<Integer, TypeNode> curEntry;
+            ret = firstNamed(_name);
+        }
 
-            while (it.hasNext()) {
-                curEntry = it.next();
+        return ret;
+    }
 
-                if (curEntry.getValue().getValue().toLowerCase().equals(_name.toLowerCase())) {
-                    ret = curEntry.getValue();
+    /**
+     * Gets type with lowest id among those with name, ignoring case
+     *
+     * @param name name to search for
+     * @return found type node, null otherwise
+     */
+    private TypeNode firstNamed(String name) {
+        TypeNode ret = null;
+        List<TypeNode> named = nameIndex.get(name.toLowerCase());
+
+        if (named != null) {
+            for (TypeNode curType : named) {
+                if (ret == null || curType.getId() < ret.getId()) {
+                    ret = curType;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Keeps name index current when renaming type MUST BE RUN BEFORE
+     * PERSISTING NEW NAME TO TYPE
+     *
+     * @param type type being renamed
+     * @param newName new name of type
+     */
+    public void externalBalanceTypeName(TypeNode type, String newName) {
+        unindexName(type);
+        addToNameIndex(newName, type);
+    }
+
+    private void indexName(TypeNode type) {
+        addToNameIndex(type.getValue(), type);
+    }
+
+    private void addToNameIndex(String name, TypeNode type) {
+        String key = name.toLowerCase();
+        List<TypeNode> named = nameIndex.get(key);
+
+        if (named == null) {
+            named = new ArrayList<>();
+            nameIndex.put(key, named);
+        }
+
+        named.add(type);
+    }
+
+    private void unindexName(TypeNode type) {
+        String key = type.getValue().toLowerCase();
+        List<TypeNode> named = nameIndex.get(key);
+
+        if (named != null) {
+            // removed by identity, as types compare equal by value
+            for (Iterator<TypeNode> it = named.iterator(); it.hasNext();) {
+                if (it.next() == type) {
+                    it.remove();
                     break;
                 }
             }
+
+            if (named.isEmpty()) {
+                nameIndex.remove(key);
+            }
         }
+    }
+
+    @Override
+    protected Integer insert(Integer _id, DictNode _buffer) throws Exception {
+        Integer ret = super.insert(_id, _buffer);
+
+        ((TypeNode) _buffer).setParent(this);
+        indexName((TypeNode) _buffer);
 
         return ret;
     }
 
+    @Override
+    public void modifyNode(Integer _id, DictNode _modNode) throws Exception {
+        TypeNode oldType = getNodeById(_id);
+
+        super.modifyNode(_id, _modNode);
+
+        if (oldType != _modNode) {
+            unindexName(oldType);
+            oldType.setParent(null);
+            ((TypeNode) _modNode).setParent(this);
+            indexName((TypeNode) _modNode);
+        }
+    }
+
     /**
      * inserts current buffer word to conWord list based on id; blanks out
      * buffer
@@ -158,7 +238,7 @@ public class TypeCollection extends DictionaryCollection {
         insWord.setEqual(bufferNode);
         insWord.setId(_id);
 
-        ret = super.insert(_id, bufferNode);
+        ret = insert(_id, bufferNode);
 
         bufferNode = new TypeNode();
         
@@ -225,16 +305,14 @@ public class TypeCollection extends DictionaryCollection {
 
     public boolean nodeExists(String findType) {
         boolean ret = false;
-        Iterator<Map.Entry<Integer, TypeNode>> searchList = nodeMap.entrySet()
-                .iterator();
-
-        while (searchList.hasNext()) {
-            Map.Entry<Integer, TypeNode> curEntry = searchList.next();
-            TypeNode curType = curEntry.getValue();
+        List<TypeNode> named = nameIndex.get(findType.toLowerCase());
 
-            if (curType.getValue().equals(findType)) {
-                ret = true;
-                break;
+        if (named != null) {
+            for (TypeNode curType : named) {
+                if (curType.getValue().equals(findType)) {
+                    ret = true;
+                    break;
+                }
             }
         }
 
@@ -253,13 +331,15 @@ public class TypeCollection extends DictionaryCollection {
     
     public TypeNode findOrCreate(TypeNode node) throws Exception {
         TypeNode ret = null;
+        List<TypeNode> named = nameIndex.get(node.getValue().toLowerCase());
         
-        for (Object n : nodeMap.values()) {
-            TypeNode compNode = (TypeNode)n;
-            if (compNode.getValue().equals(node.getValue())
-                    && compNode.getGloss().equals(node.getGloss())) {
-                ret = compNode;
-                break;
+        if (named != null) {
+            for (TypeNode compNode : named) {
+                if (compNode.getValue().equals(node.getValue())
+                        && compNode.getGloss().equals(node.getGloss())) {
+                    ret = compNode;
+                    break;
+                }
             }
         }
         
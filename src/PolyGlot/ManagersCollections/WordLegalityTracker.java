@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.DictCore;
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.DeclensionNode;
+import PolyGlot.Nodes.TypeNode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the set of illegal words current without testing the whole lexicon
+ * each time it is asked for. Words are marked when they (or their
+ * declensions) change and only marked words are tested again. Rules words
+ * depend on (mandatory and uniqueness settings, type patterns, mandatory
+ * declension dimensions and suppressed forms) are compared against what was
+ * last used, and only the words each changed rule applies to are retested.
+ *
+ * @author draque.thompson
+ */
+class WordLegalityTracker {
+
+    private final DictCore core;
+    private final Map<Integer, ConWord> words;
+    private final Set<Integer> illegalIds = new HashSet<>();
+    private final Deque<Integer> dirty = new ArrayDeque<>();
+    private final Set<Integer> dirtySet = new HashSet<>();
+    private boolean allDirty = true;
+
+    // what each word was last tested with, and words grouped by those values
+    private final Map<Integer, WordKeys> keysById = new HashMap<>();
+    private final Map<String, Set<Integer>> byValue = new HashMap<>();
+    private final Map<String, Set<Integer>> byLocal = new HashMap<>();
+    private final Map<Integer, Set<Integer>> byType = new HashMap<>();
+
+    // rules as last applied
+    private boolean typesMandatory;
+    private boolean localMandatory;
+    private boolean wordUniqueness;
+    private boolean localUniqueness;
+    private int suppressionVersion;
+    private final Map<Integer, String> typePatterns = new HashMap<>();
+    private final Map<Integer, List<DeclensionNode>> typeMandDims = new HashMap<>();
+
+    /**
+     * @param _core dictionary core
+     * @param _words live map of word ids to words
+     */
+    WordLegalityTracker(DictCore _core, Map<Integer, ConWord> _words) {
+        core = _core;
+        words = _words;
+    }
+
+    /**
+     * Marks a word to be tested again (whether changed, added or deleted)
+     *
+     * @param wordId id of word
+     */
+    void markDirty(Integer wordId) {
+        if (!allDirty && dirtySet.add(wordId)) {
+            dirty.add(wordId);
+        }
+    }
+
+    /**
+     * Marks every word to be tested again
+     */
+    void markAllDirty() {
+        allDirty = true;
+        dirty.clear();
+        dirtySet.clear();
+    }
+
+    /**
+     * Gets all currently illegal words, testing only what has changed
+     *
+     * @return illegal words, sorted
+     */
+    List<ConWord> getIllegalWords() {
+        if (allDirty) {
+            rebuild();
+        } else {
+            checkRules();
+            drain();
+        }
+
+        List<ConWord> ret = new ArrayList<>();
+        for (Integer curId : illegalIds) {
+            ret.add(words.get(curId));
+        }
+
+        Collections.sort(ret);
+        return ret;
+    }
+
+    /**
+     * Tests every word from scratch
+     */
+    private void rebuild() {
+        illegalIds.clear();
+        keysById.clear();
+        byValue.clear();
+        byLocal.clear();
+        byType.clear();
+        typePatterns.clear();
+        typeMandDims.clear();
+        dirty.clear();
+        dirtySet.clear();
+        snapshotProperties();
+        suppressionVersion = core.getDeclensionManager().getSuppressionVersion();
+        allDirty = false;
+
+        for (ConWord curWord : words.values()) {
+            WordKeys keys = new WordKeys(curWord);
+            keysById.put(curWord.getId(), keys);
+            addToIndexes(curWord.getId(), keys);
+        }
+
+        for (Integer typeId : byType.keySet()) {
+            snapshotType(typeId);
+        }
+
+        for (ConWord curWord : words.values()) {
+            if (!curWord.isWordLegal()) {
+                illegalIds.add(curWord.getId());
+            }
+        }
+    }
+
+    /**
+     * Marks words whose rules have changed since last applied
+     */
+    private void checkRules() {
+        PropertiesManager propMan = core.getPropertiesManager();
+
+        if (typesMandatory != propMan.isTypesMandatory()) {
+            markAll(byType.get(0));
+        }
+        if (localMandatory != propMan.isLocalMandatory()) {
+            markAll(byLocal.get(""));
+        }
+        if (wordUniqueness != propMan.isWordUniqueness()) {
+            markShared(byValue, false);
+        }
+        if (localUniqueness != propMan.isLocalUniqueness()) {
+            markShared(byLocal, true);
+        }
+        snapshotProperties();
+
+        int curSuppression = core.getDeclensionManager().getSuppressionVersion();
+        boolean suppressionChanged = curSuppression != suppressionVersion;
+        suppressionVersion = curSuppression;
+
+        for (Integer typeId : byType.keySet()) {
+            List<DeclensionNode> oldMand = typeMandDims.get(typeId);
+            String oldPattern = typePatterns.get(typeId);
+            snapshotType(typeId);
+
+            // mandatory dimension lists are cached, so a new list means templates changed
+            if (oldMand != typeMandDims.get(typeId)
+                    || (suppressionChanged && oldMand != null && !oldMand.isEmpty())
+                    || !equal(oldPattern, typePatterns.get(typeId))) {
+                markAll(byType.get(typeId));
+            }
+        }
+    }
+
+    /**
+     * Tests marked words. Where a word's value or local word changes, others
+     * sharing the old or new one are marked too, as uniqueness may have
+     * changed for them.
+     */
+    private void drain() {
+        while (!dirty.isEmpty()) {
+            Integer curId = dirty.poll();
+            dirtySet.remove(curId);
+            ConWord curWord = words.get(curId);
+            WordKeys oldKeys = keysById.remove(curId);
+            WordKeys newKeys = curWord == null ? null : new WordKeys(curWord);
+
+            if (oldKeys != null) {
+                removeFromIndexes(curId, oldKeys);
+                markSharers(oldKeys, newKeys);
+            }
+
+            if (curWord == null) {
+                illegalIds.remove(curId);
+                continue;
+            }
+
+            keysById.put(curId, newKeys);
+            addToIndexes(curId, newKeys);
+            markSharers(newKeys, oldKeys);
+
+            if (!typePatterns.containsKey(newKeys.typeId)) {
+                snapshotType(newKeys.typeId);
+            }
+
+            if (curWord.isWordLegal()) {
+                illegalIds.remove(curId);
+            } else {
+                illegalIds.add(curId);
+            }
+        }
+    }
+
+    /**
+     * Marks words sharing keys' value or local word, if it differs from
+     * other's (only while uniqueness is enforced for it)
+     */
+    private void markSharers(WordKeys keys, WordKeys other) {
+        if (wordUniqueness && (other == null || !keys.value.equals(other.value))) {
+            markAll(byValue.get(keys.value));
+        }
+        if (localUniqueness && !keys.local.equals("")
+                && (other == null || !keys.local.equals(other.local))) {
+            markAll(byLocal.get(keys.local));
+        }
+    }
+
+    private void markAll(Collection<Integer> ids) {
+        if (ids != null) {
+            for (Integer curId : ids) {
+                markDirty(curId);
+            }
+        }
+    }
+
+    /**
+     * Marks all words that share their key with another word
+     */
+    private void markShared(Map<String, Set<Integer>> index, boolean skipBlank) {
+        for (Map.Entry<String, Set<Integer>> entry : index.entrySet()) {
+            if (entry.getValue().size() > 1 && !(skipBlank && entry.getKey().equals(""))) {
+                markAll(entry.getValue());
+            }
+        }
+    }
+
+    private void snapshotProperties() {
+        PropertiesManager propMan = core.getPropertiesManager();
+        typesMandatory = propMan.isTypesMandatory();
+        localMandatory = propMan.isLocalMandatory();
+        wordUniqueness = propMan.isWordUniqueness();
+        localUniqueness = propMan.isLocalUniqueness();
+    }
+
+    private void snapshotType(Integer typeId) {
+        TypeNode type = core.getTypes().getNodeById(typeId);
+
+        typePatterns.put(typeId, type == null ? null : type.getPattern());
+        typeMandDims.put(typeId, type == null ? null : core.getDeclensionManager().getMandDims(typeId));
+    }
+
+    private void addToIndexes(Integer wordId, WordKeys keys) {
+        addTo(byValue, keys.value, wordId);
+        addTo(byLocal, keys.local, wordId);
+        addTo(byType, keys.typeId, wordId);
+    }
+
+    private void removeFromIndexes(Integer wordId, WordKeys keys) {
+        removeFrom(byValue, keys.value, wordId);
+        removeFrom(byLocal, keys.local, wordId);
+        removeFrom(byType, keys.typeId, wordId);
+    }
+
+    private static <K> void addTo(Map<K, Set<Integer>> index, K key, Integer wordId) {
+        Set<Integer> group = index.get(key);
+
+        if (group == null) {
+            group = new HashSet<>();
+            index.put(key, group);
+        }
+
+        group.add(wordId);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Integer>> index, K key, Integer wordId) {
+        Set<Integer> group = index.get(key);
+
+        if (group != null) {
+            group.remove(wordId);
+
+            if (group.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Values of a word other words' legality can depend on, as last tested
+     */
+    private static class WordKeys {
+
+        final String value;
+        final String local;
+        final Integer typeId;
+
+        WordKeys(ConWord word) {
+            value = word.getValue();
+            local = word.getLocalWord();
+            typeId = word.getWordTypeId();
+        }
+    }
+}
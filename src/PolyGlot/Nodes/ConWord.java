@@ -24,6 +24,7 @@ import PolyGlot.CustomControls.InfoBox;
 import PolyGlot.DictCore;
 import PolyGlot.ManagersCollections.ConWordCollection;
 import PolyGlot.PGTUtil;
+import PolyGlot.ParsedHtml;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -41,6 +42,7 @@ public class ConWord extends DictNode {
     private String localWord;
     private int typeId;
     private String definition;
+    private ParsedHtml parsedDefinition = null; // built on first use after each edit
     private String pronunciation;
     private boolean procOverride;
     private boolean autoDeclensionOverride;
@@ -206,15 +208,17 @@ public class ConWord extends DictNode {
     
     @Override
     public void setValue(String _value) {
+        String newValue = _value.replace(PGTUtil.RTLMarker, "").replace(PGTUtil.LTRMarker, "");
+        
         if (parent != null) {
             try {
-                parent.extertalBalanceWordCounts(id, _value, localWord);
+                parent.extertalBalanceWordCounts(id, newValue, localWord);
             } catch (Exception e) {
                 InfoBox.error("Word balance error.", "Unable to balance word: " 
                         + value, null);
             }
         }        
-        super.setValue(_value.replace(PGTUtil.RTLMarker, "").replace(PGTUtil.LTRMarker, ""));
+        super.setValue(newValue);
     }
 
     /**
@@ -229,13 +233,16 @@ public class ConWord extends DictNode {
                 ret = core.getTypes().getNodeById(typeId).getValue();
             } catch (Exception e) {
                 // If a type no longer exists, set the type ID to 0, then continue
-                typeId = 0;
+                setWordTypeId(0);
             }
         }
         return ret;
     }
 
     public void setWordTypeId(int _typeId) {
+        if (parent != null) {
+            parent.externalBalanceWordType(id, _typeId);
+        }
         typeId = _typeId;
     }
     
@@ -263,6 +270,24 @@ public class ConWord extends DictNode {
 
     public void setDefinition(String definition) {
         this.definition = definition;
+        parsedDefinition = null;
+    }
+
+    /**
+     * Gets structured form of definition (text runs, images and plain text).
+     * Parsed once per change of definition and shared by all consumers.
+     *
+     * @return parsed definition
+     */
+    public ParsedHtml getParsedDefinition() {
+        ParsedHtml ret = parsedDefinition;
+
+        if (ret == null) {
+            ret = ParsedHtml.parse(definition);
+            parsedDefinition = ret;
+        }
+
+        return ret;
     }
 
     /**
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.Nodes;
+
+import java.util.Arrays;
+
+/**
+ * Identifies one constructed declension of a type: the dimension chosen from
+ * each of the type's declension templates, in template order. Ids of up to 15
+ * dimensions are packed into a single long (count in the top four bits, each
+ * dimension given an equal share of the remaining 60) so that comparison and
+ * hashing never touch strings. The comma delimited form (",3,7,12,") is only
+ * produced and parsed when reading or writing files.
+ *
+ * @author draque.thompson
+ */
+public final class DeclensionCombinedId {
+
+    public static final DeclensionCombinedId EMPTY = new DeclensionCombinedId(new int[0], 0, null);
+
+    private static final int COUNT_BITS = 4;
+    private static final int DIM_BITS = Long.SIZE - COUNT_BITS;
+    private static final int MAX_PACKED_DEPTH = (1 << COUNT_BITS) - 1;
+
+    private final int[] dims;
+    private final int deprecations;
+    private final String legacyText;
+    private final boolean packable;
+    private final long packed;
+    private final int hash;
+
+    private DeclensionCombinedId(int[] _dims, int _deprecations, String _legacyText) {
+        dims = _dims;
+        deprecations = _deprecations;
+        legacyText = _legacyText;
+
+        long pack = 0;
+        boolean fits = dims.length <= MAX_PACKED_DEPTH;
+
+        if (fits && dims.length > 0) {
+            int width = DIM_BITS / dims.length;
+            long limit = 1L << width;
+
+            for (int dim : dims) {
+                if (dim < 0 || dim >= limit) {
+                    fits = false;
+                    break;
+                }
+                pack = (pack << width) | dim;
+            }
+        }
+
+        packable = fits;
+        packed = fits ? ((long) dims.length << DIM_BITS) | pack : 0;
+
+        int h = packable ? (int) (packed ^ (packed >>> 32)) : Arrays.hashCode(dims);
+        h = 31 * h + deprecations;
+        hash = legacyText == null ? h : 31 * h + legacyText.hashCode();
+    }
+
+    /**
+     * Creates combined id from the first depth entries of a path of dimension
+     * ids (path is copied, so callers may reuse it)
+     *
+     * @param path dimension ids, one per declension template
+     * @param depth number of entries of path to use
+     * @return combined id
+     */
+    public static DeclensionCombinedId of(int[] path, int depth) {
+        return depth == 0 ? EMPTY : new DeclensionCombinedId(Arrays.copyOf(path, depth), 0, null);
+    }
+
+    /**
+     * Parses the comma delimited form written to files. Deprecated ids carry
+     * a leading "D" per deprecation. Text which is not a list of dimension ids
+     * (such as ids from very old files) is kept verbatim: it survives a save,
+     * but never matches any current declension.
+     *
+     * @param text combined id as saved
+     * @return combined id
+     */
+    public static DeclensionCombinedId parse(String text) {
+        if (text == null) {
+            return EMPTY;
+        }
+
+        int deprecations = 0;
+        while (deprecations < text.length() && text.charAt(deprecations) == 'D') {
+            deprecations++;
+        }
+
+        String body = text.substring(deprecations);
+
+        if (body.isEmpty() || body.equals(",")) {
+            return deprecations == 0 ? EMPTY : new DeclensionCombinedId(new int[0], deprecations, null);
+        }
+
+        if (body.charAt(0) != ',' || body.charAt(body.length() - 1) != ',') {
+            return new DeclensionCombinedId(new int[0], 0, text);
+        }
+
+        int[] dims = new int[body.length() / 2];
+        int count = 0;
+        long cur = 0;
+        boolean inNumber = false;
+
+        for (int i = 1; i < body.length(); i++) {
+            char c = body.charAt(i);
+
+            if (c == ',') {
+                if (!inNumber) {
+                    return new DeclensionCombinedId(new int[0], 0, text);
+                }
+                dims[count++] = (int) cur;
+                cur = 0;
+                inNumber = false;
+            } else if (c >= '0' && c <= '9') {
+                cur = cur * 10 + (c - '0');
+                inNumber = true;
+
+                if (cur > Integer.MAX_VALUE) {
+                    return new DeclensionCombinedId(new int[0], 0, text);
+                }
+            } else {
+                return new DeclensionCombinedId(new int[0], 0, text);
+            }
+        }
+
+        return new DeclensionCombinedId(Arrays.copyOf(dims, count), deprecations, null);
+    }
+
+    /**
+     * Returns deprecated version of this id. Deprecated ids never equal a
+     * current one.
+     *
+     * @return deprecated id
+     */
+    public DeclensionCombinedId deprecate() {
+        return legacyText == null
+                ? new DeclensionCombinedId(dims, deprecations + 1, null)
+                : new DeclensionCombinedId(dims, 0, "D" + legacyText);
+    }
+
+    public boolean isDeprecated() {
+        return deprecations > 0 || (legacyText != null && legacyText.startsWith("D"));
+    }
+
+    /**
+     * @return number of dimensions making up this id
+     */
+    public int getDepth() {
+        return dims.length;
+    }
+
+    /**
+     * @param depth index of declension template
+     * @return id of the dimension chosen for that template
+     */
+    public int getDimId(int depth) {
+        return dims[depth];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof DeclensionCombinedId)) {
+            return false;
+        }
+
+        DeclensionCombinedId other = (DeclensionCombinedId) o;
+
+        if (hash != other.hash
+                || deprecations != other.deprecations
+                || packable != other.packable) {
+            return false;
+        }
+
+        if (legacyText != null || other.legacyText != null) {
+            return legacyText != null && legacyText.equals(other.legacyText);
+        }
+
+        return packable ? packed == other.packed : Arrays.equals(dims, other.dims);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Returns comma delimited form for saving
+     *
+     * @return id as saved to file
+     */
+    @Override
+    public String toString() {
+        if (legacyText != null) {
+            return legacyText;
+        }
+
+        StringBuilder ret = new StringBuilder(deprecations + dims.length * 3 + 1);
+
+        for (int i = 0; i < deprecations; i++) {
+            ret.append('D');
+        }
+
+        if (dims.length == 0) {
+            return ret.toString();
+        }
+
+        ret.append(',');
+
+        for (int dim : dims) {
+            ret.append(dim).append(',');
+        }
+
+        return ret.toString();
+    }
+}
@@ -30,7 +30,7 @@ import java.util.List;
 public class DeclensionGenRule implements Comparable<DeclensionGenRule> {
     private int typeId;
     private int index;
-    private String combinationId;
+    private DeclensionCombinedId combinationId;
     private String regex = "";
     private String name = "";
     private List<DeclensionGenTransform> transformations = new ArrayList<>();
@@ -78,14 +78,14 @@ public class DeclensionGenRule implements Comparable<DeclensionGenRule> {
      * @param _typeId TypeID of type this rule applies to
      * @param _combinationId the combined ID of the constructed declension rule applies to
      */
-    public DeclensionGenRule(int _typeId, String _combinationId) {
+    public DeclensionGenRule(int _typeId, DeclensionCombinedId _combinationId) {
         typeId = _typeId;
         combinationId = _combinationId;
     }
     
     public DeclensionGenRule() {
         typeId = -1;
-        combinationId = "";
+        combinationId = DeclensionCombinedId.EMPTY;
     }
     
     /**
@@ -127,11 +127,11 @@ public class DeclensionGenRule implements Comparable<DeclensionGenRule> {
         typeId = _typeId;
     }
     
-    public String getCombinationId() {
+    public DeclensionCombinedId getCombinationId() {
         return combinationId;
     }
     
-    public void setCombinationId(String _combinationId) {
+    public void setCombinationId(DeclensionCombinedId _combinationId) {
         combinationId = _combinationId;
     }
         
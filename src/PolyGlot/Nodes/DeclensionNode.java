@@ -32,9 +32,10 @@ import java.util.Map;
  */
 public class DeclensionNode extends DictNode{
     private String notes = "";
-    private String combinedDimId = "";
+    private DeclensionCombinedId combinedDimId = DeclensionCombinedId.EMPTY;
     private boolean mandatory = false;
     private int highestDimension = 1;
+    private int dimensionVersion = 0;
     private Map<Integer, DeclensionDimension> dimensions = new HashMap<>();
     private DeclensionDimension buffer = new DeclensionDimension(-1);
     
@@ -91,6 +92,7 @@ public class DeclensionNode extends DictNode{
         addDim.setMandatory(dim.isMandatory());
         
         dimensions.put(ret, addDim);
+        dimensionVersion++;
                
         return ret;
     }
@@ -100,6 +102,7 @@ public class DeclensionNode extends DictNode{
      */
     public void clearDimensions() {
         dimensions.clear();
+        dimensionVersion++;
     }
     
     /**
@@ -109,6 +112,7 @@ public class DeclensionNode extends DictNode{
     public void deleteDimension(Integer id) {
         if (dimensions.containsKey(id)) {
             dimensions.remove(id);
+            dimensionVersion++;
         }
     }
         
@@ -141,11 +145,20 @@ public class DeclensionNode extends DictNode{
         return dimensions;
     }
     
-    public void setCombinedDimId(String _id) {
+    /**
+     * Gets count of changes made to this node's dimensions. Lets cached
+     * combinations of dimensions tell whether they are stale.
+     * @return current dimension version
+     */
+    public int getDimensionVersion() {
+        return dimensionVersion;
+    }
+    
+    public void setCombinedDimId(DeclensionCombinedId _id) {
         combinedDimId = _id;
     }
     
-    public String getCombinedDimId() {
+    public DeclensionCombinedId getCombinedDimId() {
         return combinedDimId;
     }
     
@@ -161,6 +174,7 @@ public class DeclensionNode extends DictNode{
         this.setValue(node.getValue());
         this.setMandatory(node.isMandatory());
         this.setCombinedDimId(node.getCombinedDimId());
-        dimensions = node.getRawDimensions();
+        dimensions = new HashMap<>(node.getRawDimensions());
+        dimensionVersion++;
     }
 }
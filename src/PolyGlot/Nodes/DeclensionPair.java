@@ -24,10 +24,10 @@ package PolyGlot.Nodes;
  * @author draque
  */
 public class DeclensionPair {
-    public final String combinedId;
+    public final DeclensionCombinedId combinedId;
     public final String label;
     
-    public DeclensionPair(String _combinedId, String _label) {
+    public DeclensionPair(DeclensionCombinedId _combinedId, String _label) {
         label = _label;
         combinedId = _combinedId;
     }
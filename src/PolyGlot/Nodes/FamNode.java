@@ -20,10 +20,13 @@
 package PolyGlot.Nodes;
 
 import PolyGlot.ManagersCollections.FamilyManager;
+import PolyGlot.ManagersCollections.ConWordCollection;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -31,7 +34,9 @@ import java.util.List;
  */
 public class FamNode extends DictNode {
     private final List<FamNode> subNodes = new ArrayList<>();
-    private final List<ConWord> words = new ArrayList<>();
+    // ids of words in family. Words are looked up on read, so replaced word
+    // objects (see ConWordCollection.modifyNode()) never go stale here
+    private final Set<Integer> words = new HashSet<>();
     final private FamNode parent;
     private String notes = "";
     private final FamilyManager manager;
@@ -109,17 +114,36 @@ public class FamNode extends DictNode {
      * @param _word the word to add
      */
     public void addWord(ConWord _word) {
-        if (!words.contains(_word)) {
-            words.add(_word);
+        if (words.add(_word.getId())) {
+            manager.wordAdded(_word.getId(), this);
         }
     }
     
     /**
      * removes word from family
-     * @param _word id of word to remove
+     * @param _word word to remove
      */
     public void removeWord(ConWord _word) {
-        words.remove(_word);
+        removeWordById(_word.getId());
+    }
+    
+    /**
+     * removes word from family by id
+     * @param wordId id of word to remove
+     */
+    public void removeWordById(Integer wordId) {
+        if (words.remove(wordId)) {
+            manager.wordRemoved(wordId, this);
+        }
+    }
+    
+    /**
+     * tests whether word is in immediate family
+     * @param wordId id of word
+     * @return true if word in family
+     */
+    public boolean containsWord(Integer wordId) {
+        return words.contains(wordId);
     }
     
     /**
@@ -127,29 +151,30 @@ public class FamNode extends DictNode {
      * @return iterator of all words in immediate family
      */
     public Iterator<ConWord> getWords() {
-        List<ConWord> ret = new ArrayList<>();
-        manager.removeDeadWords(this, words);
-        
-        
-        Iterator<ConWord> convert = words.iterator();
-        
-        while (convert.hasNext()) {
-            ConWord curWord = convert.next();
-            
-            ret.add(curWord);
-        }
+        List<ConWord> ret = lookupWords(words);
         
         Collections.sort(ret);
         
         return ret.iterator();
     }
     
+    /**
+     * gets ids of all words in immediate family
+     * @return unmodifiable set of word ids
+     */
+    public Set<Integer> getWordIds() {
+        return Collections.unmodifiableSet(words);
+    }
+    
     /**
      * returns all words within family and subfamilies
      * @return sorted list of ConWords
      */
     public List<ConWord> getWordsIncludeSubs() {
-        List<ConWord> ret = getWordsIncludeSubsInternal();
+        Set<Integer> ids = new HashSet<>();
+        getWordsIncludeSubsInternal(ids);
+        
+        List<ConWord> ret = lookupWords(ids);
         Collections.sort(ret);
         
         return ret;
@@ -157,27 +182,31 @@ public class FamNode extends DictNode {
     
     /**
      * internally facing, recursive method for getting all words in this and subfamilies
-     * @return list of (non duped) words in this and all subnodes
+     * @param ret receives (non duped) ids of words in this and all subnodes
      */
-    private List<ConWord> getWordsIncludeSubsInternal() {
-        manager.removeDeadWords(this, words);
+    private void getWordsIncludeSubsInternal(Set<Integer> ret) {
+        ret.addAll(words);
         
-        List<ConWord> ret = new ArrayList(words);
-        
-        Iterator<FamNode> subIt = subNodes.iterator();
+        for (FamNode curNode : subNodes) {
+            curNode.getWordsIncludeSubsInternal(ret);
+        }
+    }
+    
+    /**
+     * gets words for ids, skipping any no longer in the lexicon
+     * @param ids ids of words
+     * @return unsorted list of words
+     */
+    private List<ConWord> lookupWords(Set<Integer> ids) {
+        ConWordCollection wordCollection = manager.getCore().getWordCollection();
+        List<ConWord> ret = new ArrayList<>(ids.size());
         
-        while (subIt.hasNext()) {
-            FamNode curNode = subIt.next();
-            
-            Iterator<ConWord> wordIt = curNode.getWordsIncludeSubsInternal()
-                    .iterator();
-            
-            while (wordIt.hasNext()) {
-                ConWord curWord = wordIt.next();
-                
-                // only add current word to return value if not already present
-                if (!ret.contains(curWord)) {
-                    ret.add(curWord);
+        for (Integer curId : ids) {
+            if (wordCollection.exists(curId)) {
+                try {
+                    ret.add(wordCollection.getNodeById(curId));
+                } catch (Exception e) {
+                    // existence checked above
                 }
             }
         }
@@ -218,6 +247,22 @@ public class FamNode extends DictNode {
      * @param _child 
      */
     public void removeChild(FamNode _child) {
-        subNodes.remove(_child);
+        if (subNodes.remove(_child)) {
+            _child.removeAllWords();
+        }
+    }
+    
+    /**
+     * removes all words from this node and its subnodes, so they no longer
+     * count as members of any family
+     */
+    private void removeAllWords() {
+        for (Integer wordId : new ArrayList<>(words)) {
+            removeWordById(wordId);
+        }
+        
+        for (FamNode curNode : subNodes) {
+            curNode.removeAllWords();
+        }
     }
 }
@@ -20,9 +20,11 @@
 package PolyGlot.Nodes;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import javax.imageio.ImageIO;
 
 /**
@@ -31,6 +33,7 @@ import javax.imageio.ImageIO;
  */
 public class ImageNode extends DictNode {
     private BufferedImage image = null;
+    private byte[] imageBytes = null;
     private File tmpFile = null;
     
     /**
@@ -48,6 +51,7 @@ public class ImageNode extends DictNode {
         ImageNode tmpNode = (ImageNode)_node;
         
         image = tmpNode.getImage();
+        imageBytes = tmpNode.imageBytes;
         id = tmpNode.getId();
     }
 
@@ -63,11 +67,50 @@ public class ImageNode extends DictNode {
      */
     public void setImage(BufferedImage _image) {
         image = _image;
+        imageBytes = null;
+    }
+
+    /**
+     * Sets image from PNG encoded bytes (as stored in archive). Bytes are
+     * retained so that they need not be re-encoded on save or export.
+     * @param _imageBytes PNG bytes of image
+     * @throws IOException if bytes are not a readable image
+     */
+    public void setImageBytes(byte[] _imageBytes) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(_imageBytes));
+
+        if (decoded == null) {
+            throw new IOException("Unreadable image data.");
+        }
+
+        image = decoded;
+        imageBytes = _imageBytes;
+    }
+
+    /**
+     * Gets image as PNG encoded bytes. Encoded only on first call if image was
+     * not loaded from bytes.
+     * @return PNG bytes of image
+     * @throws IOException on encoding error, or image not initialized
+     */
+    public byte[] getImageBytes() throws IOException {
+        if (imageBytes == null) {
+            if (image == null) {
+                throw new IOException("Image not instantiated. Cannot encode.");
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ImageIO.write(image, "PNG", bytes);
+            imageBytes = bytes.toByteArray();
+        }
+
+        return imageBytes;
     }
     
     /**
      * Gets path to temporary file in which image has been stored (if one exists)
-     * for consumption in HTML based text areas
+     * for consumption in HTML based text areas. Prefer
+     * ImageCollection.getImageURL(), which serves images from memory.
      * @return path of image file
      * @throws java.io.IOException on file read error, or image not initialized
      */
@@ -83,7 +126,8 @@ public class ImageNode extends DictNode {
         // create tmp file if none exists
         if (tmpFile == null || !tmpFile.exists()) {
             tmpFile = File.createTempFile(id.toString() + "_polyGlotImage", ".png");
-            ImageIO.write(image, "PNG", new FileOutputStream(tmpFile));
+            tmpFile.deleteOnExit();
+            Files.write(tmpFile.toPath(), getImageBytes());
         }
         
         return tmpFile.getAbsolutePath();
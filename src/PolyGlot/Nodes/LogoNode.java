@@ -19,6 +19,7 @@
  */
 package PolyGlot.Nodes;
 
+import PolyGlot.ManagersCollections.LogoCollection;
 import PolyGlot.PGTUtil;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
@@ -42,6 +43,8 @@ public class LogoNode extends DictNode {
     private String tmpReadingBuffer = "";
     protected List<LogoNode> radicals = new ArrayList<>();
     protected List<String> readings = new ArrayList<>();
+    // collection holding node, null until inserted
+    private LogoCollection collection = null;
 
     public LogoNode() {
         ImageIcon loadBlank = new ImageIcon(getClass().getResource(PGTUtil.emptyLogoImage));
@@ -74,8 +77,34 @@ public class LogoNode extends DictNode {
         isRadical = _isRadical;
     }
 
+    /**
+     * Sets collection to notify when searchable values change. Called by
+     * LogoCollection on insert.
+     *
+     * @param _collection collection holding node
+     */
+    public void setCollection(LogoCollection _collection) {
+        collection = _collection;
+    }
+
+    /**
+     * Marks node for reindexing in its collection, if any
+     */
+    private void changed() {
+        if (collection != null) {
+            collection.logoChanged(this);
+        }
+    }
+
+    @Override
+    public void setValue(String _value) {
+        super.setValue(_value);
+        changed();
+    }
+
     public void setStrokes(int _strokes) {
         strokes = _strokes;
+        changed();
     }
 
     public Integer getStrokes() {
@@ -93,12 +122,14 @@ public class LogoNode extends DictNode {
     public void addRadical(LogoNode radicalId) {
         if (!radicals.contains(radicalId)) {
             radicals.add(radicalId);
+            changed();
         }
     }
 
     public void removeRadical(LogoNode radicalId) {
         if (radicals.contains(radicalId)) {
             radicals.remove(radicalId);
+            changed();
         }
     }
 
@@ -108,22 +139,26 @@ public class LogoNode extends DictNode {
 
     public void setRadicals(List<LogoNode> _radicals) {
         radicals = _radicals;
+        changed();
     }
 
     public void addReading(String reading) {
         if (!readings.contains(reading)) {
             readings.add(reading);
+            changed();
         }
     }
 
     public void removeReading(String reading) {
         if (readings.contains(reading)) {
             readings.remove(reading);
+            changed();
         }
     }
 
     public void setReadings(List<String> _readings) {
         readings = _readings;
+        changed();
     }
 
     public List<String> getReadings() {
@@ -284,5 +319,6 @@ public class LogoNode extends DictNode {
         value = setNode.value;
         strokes = setNode.getStrokes();
         id = setNode.getId();
+        changed();
     }
 }
@@ -20,6 +20,10 @@
 
 package PolyGlot.Nodes;
 
+import PolyGlot.ManagersCollections.TypeCollection;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  *
  * @author draque
@@ -30,8 +34,33 @@ public class TypeNode extends DictNode{
     private String gloss = "";
     private boolean procMandatory = false;
     private boolean defMandatory = false;    
+    private Pattern compiledPattern = null;
+    private String patternError = null;
+    private boolean patternErrorTaken = false;
+    private TypeCollection parent = null;
+    
+    /**
+     * Sets collection to be kept informed of name changes
+     * @param _parent collection type belongs to, null if none
+     */
+    public void setParent(TypeCollection _parent) {
+        parent = _parent;
+    }
+    
+    @Override
+    public void setValue(String _value) {
+        if (parent != null) {
+            parent.externalBalanceTypeName(this, _value.trim());
+        }
+        super.setValue(_value);
+    }
     
     public void setPattern(String _regexPattern) {
+        if (!_regexPattern.equals(regexPattern)) {
+            compiledPattern = null;
+            patternError = null;
+            patternErrorTaken = false;
+        }
         regexPattern = _regexPattern;
     }
     
@@ -39,6 +68,73 @@ public class TypeNode extends DictNode{
         return regexPattern;
     }
     
+    /**
+     * Gets type's pattern, compiled on first use and kept until the pattern
+     * changes
+     * @return compiled pattern, null if pattern blank or malformed
+     */
+    public Pattern getCompiledPattern() {
+        compilePattern();
+        return compiledPattern;
+    }
+    
+    /**
+     * Tests whether a value matches the type's pattern. Blank and malformed
+     * patterns are not enforced.
+     * @param value value to test
+     * @return false only if a valid pattern exists and does not match
+     */
+    public boolean matchesPattern(String value) {
+        Pattern pattern = getCompiledPattern();
+        return pattern == null || pattern.matcher(value).matches();
+    }
+    
+    /**
+     * @return description of why pattern cannot compile, empty if it can
+     */
+    public String getPatternError() {
+        compilePattern();
+        return patternError;
+    }
+    
+    /**
+     * Gets pattern's error only the first time it is asked for after the
+     * pattern is set, so that it may be reported once
+     * @return description of why pattern cannot compile, empty if it can or
+     * if already taken
+     */
+    public String takePatternError() {
+        String ret = getPatternError();
+        
+        if (patternErrorTaken) {
+            ret = "";
+        } else if (!ret.equals("")) {
+            patternErrorTaken = true;
+        }
+        
+        return ret;
+    }
+    
+    private void compilePattern() {
+        if (patternError != null) {
+            return;
+        }
+        
+        Pattern compiled = null;
+        String error = "";
+        
+        if (!regexPattern.equals("")) {
+            try {
+                compiled = Pattern.compile(regexPattern);
+            } catch (PatternSyntaxException e) {
+                error = e.getDescription();
+            }
+        }
+        
+        compiledPattern = compiled;
+        patternError = error;
+    }
+    
     public String getNotes(){
         return notes;
     }
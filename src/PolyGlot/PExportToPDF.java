@@ -21,7 +21,6 @@ package PolyGlot;
 
 import PolyGlot.CustomControls.GrammarChapNode;
 import PolyGlot.CustomControls.GrammarSectionNode;
-import PolyGlot.CustomControls.InfoBox;
 import PolyGlot.Nodes.ConWord;
 import PolyGlot.Nodes.ImageNode;
 import PolyGlot.Nodes.TypeNode;
@@ -47,11 +46,13 @@ import com.itextpdf.kernel.pdf.action.PdfAction;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.draw.SolidLine;
 import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.layout.ColumnDocumentRenderer;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.border.SolidBorder;
 import com.itextpdf.layout.element.AreaBreak;
 import com.itextpdf.layout.element.Div;
+import com.itextpdf.layout.element.ILeafElement;
 import com.itextpdf.layout.element.Image;
 import com.itextpdf.layout.element.LineSeparator;
 import com.itextpdf.layout.element.Paragraph;
@@ -72,6 +73,8 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.apache.commons.lang3.StringEscapeUtils;
 
 /**
@@ -81,6 +84,10 @@ import org.apache.commons.lang3.StringEscapeUtils;
  */
 public class PExportToPDF {
 
+    // words prepared at a time, and fewest given to one prep task
+    private static final int ENTRY_BATCH = 1024;
+    private static final int MIN_SPLIT = 64;
+
     private final String DICTCON2LOC = "DICTCON2LOC";
     private final String DICTLOC2CON = "DICTLOC2CON";
     private final String FOREWORD = "FOREWORD";
@@ -103,6 +110,18 @@ public class PExportToPDF {
     private final byte[] unicodeFontFile;
     private final PdfFont conFont;
     private final PdfFont unicodeFont;
+    // standard fonts, created once so each is embedded in the document once
+    private final PdfFont timesBold;
+    private final PdfFont helvetica;
+    private final PdfFont helveticaBold;
+    private final PdfFont courierBold;
+    private final PdfFont courierOblique;
+    // last page written out by flushCompletedPages()
+    private int flushedThrough = 0;
+    // images embedded so far, by ImageNode id
+    private final Map<Integer, PdfImageXObject> imageCache = new HashMap<>();
+    // prepares dictionary entries while printing
+    private ForkJoinPool pool;
     private final int conFontSize;
     private boolean printLocalCon = false;
     private boolean printConLocal = false;
@@ -115,6 +134,7 @@ public class PExportToPDF {
     private String titleText = "";
     private String subTitleText = "";
     private String log = "";
+    private int pageCount = 0;
 
     /**
      * Exports language to presentable PDF
@@ -139,6 +159,12 @@ public class PExportToPDF {
             conFont = PdfFontFactory.createFont(conFontFile, PdfEncodings.IDENTITY_H, true);
         }
 
+        timesBold = PdfFontFactory.createFont(FontConstants.TIMES_BOLD);
+        helvetica = PdfFontFactory.createFont(FontConstants.HELVETICA);
+        helveticaBold = PdfFontFactory.createFont(FontConstants.HELVETICA_BOLD);
+        courierBold = PdfFontFactory.createFont(FontConstants.COURIER_BOLD);
+        courierOblique = PdfFontFactory.createFont(FontConstants.COURIER_OBLIQUE);
+
         conFontSize = core.getPropertiesManager().getFontSize();
         glossKey = getGlossKey();
     }
@@ -165,6 +191,8 @@ public class PExportToPDF {
             pdf.addEventHandler(PdfDocumentEvent.START_PAGE, headerHandler);
         }
 
+        pool = new ForkJoinPool();
+
         try {
             // front page is always built/added before chapter guide
             document.add(buildFrontPage());
@@ -241,7 +269,7 @@ public class PExportToPDF {
                 Div curChap = (Div) curEntry.getKey();
                 Text header = new Text((String) chapTitles.get((String) curEntry.getValue()) + "\n")
                         .setFontSize(20);
-                header.setFont(PdfFontFactory.createFont(FontConstants.HELVETICA_BOLD));
+                header.setFont(helveticaBold);
                 header.setTextAlignment(TextAlignment.CENTER);
                 document.add(new AreaBreak(AreaBreakType.NEXT_PAGE));
                 // dictionary sections are 2 column style
@@ -287,12 +315,14 @@ public class PExportToPDF {
             // always close document before returning
             document.close();
             throw new Exception(e.getMessage());
+        } finally {
+            pool.shutdown();
         }
 
         // Drop page number information into place
         if (printPageNumber && canvas != null) {
             canvas.beginText();
-            canvas.setFontAndSize(PdfFontFactory.createFont(FontConstants.HELVETICA), 12);
+            canvas.setFontAndSize(helvetica, 12);
             canvas.moveText(pageNumberX, pageNumberY);
             canvas.showText(Integer.toString(pdf.getNumberOfPages()));
             canvas.endText();
@@ -308,13 +338,27 @@ public class PExportToPDF {
             // work, and is on the iText team's bugfix list currently.
         }
 
+        pageCount = pdf.getNumberOfPages();
         document.close();
-        
-        // inform user of errors
-        if (!log.equals("")) {
-            InfoBox.warning("PDF Generation Errors", "Problems with PDF generation:\n"
-                    + log, null);
-        }
+    }
+
+    /**
+     * Gets problems encountered while printing. Printing continues past these,
+     * so callers should report them to the user.
+     *
+     * @return log of problems, empty if none
+     */
+    public String getLog() {
+        return log;
+    }
+
+    /**
+     * Gets number of pages written by the last call to print()
+     *
+     * @return page count, 0 if not yet printed
+     */
+    public int getPageCount() {
+        return pageCount;
     }
 
     /**
@@ -346,283 +390,379 @@ public class PExportToPDF {
      */
     private void buildConToLocalDictionary(String anchorPoint) throws IOException {
         String curLetter = "";
-        Div curLetterSec = new Div();
-        Iterator<ConWord> allWords = core.getWordCollection().getWordNodes().iterator();
-        curLetterSec.add(new Paragraph(new Text("\n")));
-        curLetterSec.setProperty(Property.DESTINATION, anchorPoint);
-
-        while (allWords.hasNext()) {
-            Paragraph dictEntry = new Paragraph();
-            ConWord curWord = allWords.next();
-
-            // print large characters for alphabet sections
-            if (!curLetter.equals(curWord.getValue().substring(0, 1))) {
-                if (!curLetter.equals("")) {
-                    document.add(curLetterSec);
-                    document.add(new AreaBreak(AreaBreakType.NEXT_AREA));
-                    curLetterSec = new Div();
+        List<ConWord> allWords = core.getWordCollection().getWordNodes();
+        startDictionary(anchorPoint);
+
+        for (int start = 0; start < allWords.size(); start += ENTRY_BATCH) {
+            for (PreparedEntry entry : prepareEntries(allWords, start, true)) {
+                Paragraph dictEntry = new Paragraph();
+                ConWord curWord = entry.word;
+
+                // print large characters for alphabet sections
+                if (!curLetter.equals(curWord.getValue().substring(0, 1))) {
+                    if (!curLetter.equals("")) {
+                        document.add(new AreaBreak(AreaBreakType.NEXT_AREA));
+                    }
+                    curLetter = curWord.getValue().substring(0, 1);
+                    Text varChunk = new Text(curLetter);
+                    varChunk.setFont(conFont);
+                    varChunk.setFontSize(conFontSize + 16);
+                    dictEntry.add(varChunk);
+                    varChunk = new Text(" WORDS:");
+                    varChunk.setFontSize(defFontSize + 16);
+                    dictEntry.add(varChunk);
+                    dictEntry.add(new Text("\n"));
+                    dictEntry.add(new Text("\n"));
                 }
-                curLetter = curWord.getValue().substring(0, 1);
-                Text varChunk = new Text(curLetter);
-                varChunk.setFont(conFont);
-                varChunk.setFontSize(conFontSize + 16);
-                dictEntry.add(varChunk);
-                varChunk = new Text(" WORDS:");
-                varChunk.setFontSize(defFontSize + 16);
-                dictEntry.add(varChunk);
-                dictEntry.add(new Text("\n"));
-                dictEntry.add(new Text("\n"));
-            }
 
-            String wordVal = PGTUtil.stripRTL(curWord.getValue());
-            if (core.getPropertiesManager().isEnforceRTL()) {
-                // PDFs do not respect RTL character
-                wordVal = new StringBuilder(wordVal).reverse().toString();
+                addEntry(dictEntry, entry);
             }
-            Text varChunk = new Text(wordVal);
-            varChunk.setFont(conFont);
-            varChunk.setFontSize(conFontSize + offsetSize);
-            dictEntry.add(varChunk);
-
-            varChunk = new Text(" - ");
-            varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
+    }
 
-            // Add word type (if one exists)
-            if (glossKey.containsKey(curWord.getWordTypeId())) {
-                varChunk = new Text(glossKey.get(curWord.getWordTypeId()));
-                varChunk.setFont(unicodeFont);
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-                varChunk = new Text(" - ");
-                varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-            }
+    /**
+     * Builds dictionary chapter of Language Guide (lookup by localword)
+     *
+     * @return
+     */
+    private void buildLocalToConDictionary(String anchorPoint) throws IOException { // rework with anchor
+        String curLetter = "";
+        List<ConWord> allWords = new ArrayList<>();
+        Iterator<ConWord> it = core.getWordCollection().getNodeIteratorLocalOrder();
+        startDictionary(anchorPoint);
 
-            if (!curWord.getPronunciation().equals("")) {
-                varChunk = new Text("/" + curWord.getPronunciation() + "/");
-                varChunk.setFont(unicodeFont);
-                varChunk.setFontSize(defFontSize);
-                dictEntry.add(varChunk);
-                varChunk = new Text(" - ");
-                varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-            }
+        while (it.hasNext()) {
+            allWords.add(it.next());
+        }
 
-            // adds values 
-            if (!curWord.getClassValues().isEmpty()) {
-                String wordClasses = "";
-                for (Entry<Integer, Integer> curEntry : curWord.getClassValues()) {
-                    WordProperty prop;
-                    WordPropValueNode value;
+        for (int start = 0; start < allWords.size(); start += ENTRY_BATCH) {
+            for (PreparedEntry entry : prepareEntries(allWords, start, false)) {
+                Paragraph dictEntry = new Paragraph();
+                ConWord curWord = entry.word;
 
-                    try {
-                        prop = (WordProperty) core.getWordPropertiesCollection()
-                                .getNodeById(curEntry.getKey());
-                        value = prop.getValueById(curEntry.getValue());
-                    } catch (Exception e) {
-                        log += "\nProblem printing classes for word: " + curWord.getValue();
-                        continue;
-                    }
+                if (curWord.getLocalWord().equals("")) {
+                    continue;
+                }
 
-                    if (!wordClasses.equals("")) {
-                        wordClasses += ", ";
+                // print large characters for alphabet sections
+                if (!curLetter.toLowerCase().equals(curWord.getLocalWord()
+                        .substring(0, 1).toLowerCase())) {
+                    if (!curLetter.equals("")) {
+                        document.add(new AreaBreak(AreaBreakType.NEXT_AREA));
                     }
-
-                    wordClasses += value.getValue();
+                    curLetter = curWord.getLocalWord().substring(0, 1);
+                    Text varChunk = new Text(curLetter.toUpperCase() + " WORDS:");
+                    varChunk.setFontSize(defFontSize + 16);
+                    dictEntry.add(varChunk);
+                    dictEntry.add(new Text("\n"));
+                    dictEntry.add(new Text("\n"));
                 }
-                varChunk = new Text(wordClasses);
-                varChunk.setFont(unicodeFont);
-                dictEntry.add(varChunk.setFontSize(defFontSize));
 
-                varChunk = new Text(" - ");
-                varChunk.setFont(unicodeFont);
-                dictEntry.add(varChunk.setFontSize(defFontSize));
+                addEntry(dictEntry, entry);
             }
+        }
+    }
 
-            List<Object> defList = WebInterface.getElementsHTMLBody(curWord.getDefinition(), core);
-            if (!defList.isEmpty()) {
-                dictEntry.add(new Text("\n"));
-                for (Object o : defList) {
-                    if (o instanceof String) {
-                        // text is HTML, and not true unicode... escape HTML to correct
-                        String cleanedText = StringEscapeUtils.unescapeHtml4((String) o);
-                        dictEntry.add(new Text(cleanedText).setFontSize(defFontSize).setFont(unicodeFont));
-                    } else if (o instanceof BufferedImage) {
-                        // must convert buffered image to bytes because WHY DOES iTEXT 7 NOT DO THIS ITSELF.
-                        byte[] bytes = IOHandler.getBufferedImageByteArray((BufferedImage) o);
-                        Image pdfImage = new Image(ImageDataFactory.create(bytes));
-                        dictEntry.add(pdfImage);
-                    } else {
-                        // Do nothing: May be expanded for further logic later
-                    }
-                }
-                dictEntry.add(new Text("\n"));
-            }
+    /**
+     * Prepares one batch of dictionary entries in parallel. Layout is not
+     * thread safe, so only the entries' contents are built here: callers add
+     * them to the document in order.
+     *
+     * @param words all words of chapter, in print order
+     * @param start index of first word of batch
+     * @param conToLocal true if con to local chapter, false if local to con
+     * @return prepared entries, in order
+     * @throws IOException if any entry could not be prepared
+     */
+    private PreparedEntry[] prepareEntries(List<ConWord> words, int start,
+            boolean conToLocal) throws IOException {
+        int end = Math.min(words.size(), start + ENTRY_BATCH);
+        PreparedEntry[] ret = new PreparedEntry[end - start];
+        int split = Math.max(MIN_SPLIT, ret.length / (pool.getParallelism() * 4));
+
+        pool.invoke(new PrepareTask(words, ret, start, start, end, split, conToLocal));
 
-            if (!curWord.getLocalWord().equals("")) {
-                varChunk = new Text("Synonym(s): ");
-                varChunk.setFont(unicodeFont);
-                varChunk.setFontSize(defFontSize);
-                dictEntry.add(varChunk);
-                dictEntry.add(new Text(curWord.getLocalWord()).setFontSize(defFontSize));
-                dictEntry.add(new Text("\n"));
+        for (PreparedEntry entry : ret) {
+            if (entry.error != null) {
+                throw entry.error;
             }
+        }
 
-            dictEntry.setKeepTogether(true);
-            curLetterSec.add(dictEntry);
+        return ret;
+    }
 
-            // add line break if more words
-            if (allWords.hasNext()) {
-                LineSeparator ls = new LineSeparator(new SolidLine(1f));
-                ls.setWidthPercent(30);
-                ls.setMarginTop(5);
-                curLetterSec.add(ls);
-            }
+    /**
+     * Adds prepared entry to document, followed by a separator if more words
+     * follow it
+     *
+     * @param dictEntry paragraph to hold entry (may already hold letter header)
+     * @param entry prepared entry
+     */
+    private void addEntry(Paragraph dictEntry, PreparedEntry entry) {
+        log += entry.log;
+        dictEntry.addAll(entry.elements);
+        dictEntry.setKeepTogether(true);
+        document.add(dictEntry);
+
+        // add line break if more words
+        if (!entry.last) {
+            LineSeparator ls = new LineSeparator(new SolidLine(1f));
+            ls.setWidthPercent(30);
+            ls.setMarginTop(5);
+            document.add(ls);
         }
 
-        // add last letter section
-        document.add(curLetterSec);
+        flushCompletedPages();
     }
 
     /**
-     * Builds dictionary chapter of Language Guide (lookup by localword)
+     * Builds contents of a con to local dictionary entry. Called from worker
+     * threads: must only read from the core.
      *
-     * @return
+     * @param entry entry to populate
+     * @throws IOException if definition cannot be read
      */
-    private void buildLocalToConDictionary(String anchorPoint) throws IOException { // rework with anchor
-        String curLetter = "";
-        Div curLetterSec = new Div();
-        Iterator<ConWord> allWords = core.getWordCollection().getNodeIteratorLocalOrder();
-        curLetterSec.add(new Paragraph(new Text("\n")));
-        curLetterSec.setProperty(Property.DESTINATION, anchorPoint);
+    private void prepareConToLocalEntry(PreparedEntry entry) throws IOException {
+        List<ILeafElement> dictEntry = entry.elements;
+        ConWord curWord = entry.word;
+
+        String wordVal = PGTUtil.stripRTL(curWord.getValue());
+        if (core.getPropertiesManager().isEnforceRTL()) {
+            // PDFs do not respect RTL character
+            wordVal = new StringBuilder(wordVal).reverse().toString();
+        }
+        Text varChunk = new Text(wordVal);
+        varChunk.setFont(conFont);
+        varChunk.setFontSize(conFontSize + offsetSize);
+        dictEntry.add(varChunk);
+
+        varChunk = new Text(" - ");
+        varChunk.setFont(timesBold);
+        dictEntry.add(varChunk.setFontSize(defFontSize));
+
+        // Add word type (if one exists)
+        if (glossKey.containsKey(curWord.getWordTypeId())) {
+            varChunk = new Text(glossKey.get(curWord.getWordTypeId()));
+            varChunk.setFont(unicodeFont);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+            varChunk = new Text(" - ");
+            varChunk.setFont(timesBold);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
 
-        while (allWords.hasNext()) {
-            Paragraph dictEntry = new Paragraph();
-            ConWord curWord = allWords.next();
+        if (!curWord.getPronunciation().equals("")) {
+            varChunk = new Text("/" + curWord.getPronunciation() + "/");
+            varChunk.setFont(unicodeFont);
+            varChunk.setFontSize(defFontSize);
+            dictEntry.add(varChunk);
+            varChunk = new Text(" - ");
+            varChunk.setFont(timesBold);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
 
-            if (curWord.getLocalWord().equals("")) {
-                continue;
-            }
+        // adds values 
+        if (!curWord.getClassValues().isEmpty()) {
+            varChunk = new Text(getWordClasses(entry));
+            varChunk.setFont(unicodeFont);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
 
-            // print large characters for alphabet sections
-            if (!curLetter.toLowerCase().equals(curWord.getLocalWord()
-                    .substring(0, 1).toLowerCase())) {
-                if (!curLetter.equals("")) {
-                    document.add(curLetterSec);
-                    document.add(new AreaBreak(AreaBreakType.NEXT_AREA));
-                    curLetterSec = new Div();
-                }
-                curLetter = curWord.getLocalWord().substring(0, 1);
-                Text varChunk = new Text(curLetter.toUpperCase() + " WORDS:");
-                varChunk.setFontSize(defFontSize + 16);
-                dictEntry.add(varChunk);
-                dictEntry.add(new Text("\n"));
-                dictEntry.add(new Text("\n"));
-            }
+            varChunk = new Text(" - ");
+            varChunk.setFont(unicodeFont);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
 
-            Text varChunk;
+        addDefinition(entry);
 
-            dictEntry.add(new Text(curWord.getLocalWord() + "\n")
-                    .setFontSize(defFontSize + offsetSize));
+        if (!curWord.getLocalWord().equals("")) {
+            varChunk = new Text("Synonym(s): ");
+            varChunk.setFont(unicodeFont);
+            varChunk.setFontSize(defFontSize);
+            dictEntry.add(varChunk);
+            dictEntry.add(new Text(curWord.getLocalWord()).setFontSize(defFontSize));
+            dictEntry.add(new Text("\n"));
+        }
+    }
 
-            String wordVal = PGTUtil.stripRTL(curWord.getValue());
-            if (core.getPropertiesManager().isEnforceRTL()) {
-                // PDF Does not respect RTL characters...
-                wordVal = new StringBuilder(wordVal).reverse().toString();
-            }
-            varChunk = new Text(wordVal);
-            varChunk.setFont(conFont);
-            varChunk.setFontSize(conFontSize - offsetSize);
+    /**
+     * Builds contents of a local to con dictionary entry. Called from worker
+     * threads: must only read from the core.
+     *
+     * @param entry entry to populate
+     * @throws IOException if definition cannot be read
+     */
+    private void prepareLocalToConEntry(PreparedEntry entry) throws IOException {
+        List<ILeafElement> dictEntry = entry.elements;
+        ConWord curWord = entry.word;
+
+        if (curWord.getLocalWord().equals("")) {
+            return;
+        }
+
+        Text varChunk;
+
+        dictEntry.add(new Text(curWord.getLocalWord() + "\n")
+                .setFontSize(defFontSize + offsetSize));
+
+        String wordVal = PGTUtil.stripRTL(curWord.getValue());
+        if (core.getPropertiesManager().isEnforceRTL()) {
+            // PDF Does not respect RTL characters...
+            wordVal = new StringBuilder(wordVal).reverse().toString();
+        }
+        varChunk = new Text(wordVal);
+        varChunk.setFont(conFont);
+        varChunk.setFontSize(conFontSize - offsetSize);
+        dictEntry.add(varChunk);
+
+        varChunk = new Text(" - ");
+        varChunk.setFont(timesBold);
+        dictEntry.add(varChunk.setFontSize(defFontSize));
+
+        // Add word type (if one exists)
+        if (glossKey.containsKey(curWord.getWordTypeId())) {
+            varChunk = new Text(glossKey.get(curWord.getWordTypeId()));
+            varChunk.setFont(unicodeFont);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+            varChunk = new Text(" - ");
+            varChunk.setFont(timesBold);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
+
+        if (!curWord.getPronunciation().equals("")) {
+            varChunk = new Text("/" + curWord.getPronunciation() + "/");
+            varChunk.setFont(unicodeFont);
+            varChunk.setFontSize(defFontSize);
             dictEntry.add(varChunk);
+            varChunk = new Text(" - ");
+            varChunk.setFont(timesBold);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
+
+        // adds values 
+        if (!curWord.getClassValues().isEmpty()) {
+            varChunk = new Text(getWordClasses(entry));
+            varChunk.setFont(unicodeFont);
+            dictEntry.add(varChunk.setFontSize(defFontSize));
 
             varChunk = new Text(" - ");
-            varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
+            varChunk.setFont(timesBold);
             dictEntry.add(varChunk.setFontSize(defFontSize));
+        }
 
-            // Add word type (if one exists)
-            if (glossKey.containsKey(curWord.getWordTypeId())) {
-                varChunk = new Text(glossKey.get(curWord.getWordTypeId()));
-                varChunk.setFont(unicodeFont);
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-                varChunk = new Text(" - ");
-                varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-            }
+        addDefinition(entry);
+    }
 
-            if (!curWord.getPronunciation().equals("")) {
-                varChunk = new Text("/" + curWord.getPronunciation() + "/");
-                varChunk.setFont(unicodeFont);
-                varChunk.setFontSize(defFontSize);
-                dictEntry.add(varChunk);
-                varChunk = new Text(" - ");
-                varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-                dictEntry.add(varChunk.setFontSize(defFontSize));
+    /**
+     * Gets comma separated class values of entry's word, logging any that
+     * cannot be resolved
+     *
+     * @param entry entry being prepared
+     * @return class values of word
+     */
+    private String getWordClasses(PreparedEntry entry) {
+        String wordClasses = "";
+
+        for (Entry<Integer, Integer> curEntry : entry.word.getClassValues()) {
+            WordProperty prop;
+            WordPropValueNode value;
+
+            try {
+                prop = (WordProperty) core.getWordPropertiesCollection()
+                        .getNodeById(curEntry.getKey());
+                value = prop.getValueById(curEntry.getValue());
+            } catch (Exception e) {
+                entry.log += "\nProblem printing classes for word: " + entry.word.getValue();
+                continue;
             }
 
-            // adds values 
-            if (!curWord.getClassValues().isEmpty()) {
-                String wordClasses = "";
-                for (Entry<Integer, Integer> curEntry : curWord.getClassValues()) {
-                    WordProperty prop;
-                    WordPropValueNode value;
+            if (!wordClasses.equals("")) {
+                wordClasses += ", ";
+            }
 
-                    try {
-                        prop = (WordProperty) core.getWordPropertiesCollection()
-                                .getNodeById(curEntry.getKey());
-                        value = prop.getValueById(curEntry.getValue());
-                    } catch (Exception e) {
-                        log += "\nProblem printing classes for word: " + curWord.getValue();
-                        continue;
-                    }
+            wordClasses += value.getValue();
+        }
 
-                    if (!wordClasses.equals("")) {
-                        wordClasses += ", ";
-                    }
+        return wordClasses;
+    }
 
-                    wordClasses += value.getValue();
+    /**
+     * Adds text and images of word's definition to entry
+     *
+     * @param entry entry being prepared
+     * @throws IOException if definition cannot be read
+     */
+    private void addDefinition(PreparedEntry entry) throws IOException {
+        List<ILeafElement> dictEntry = entry.elements;
+        List<Object> defList = WebInterface.getElementsHTMLBody(entry.word.getParsedDefinition(), core);
+
+        if (!defList.isEmpty()) {
+            dictEntry.add(new Text("\n"));
+            for (Object o : defList) {
+                if (o instanceof String) {
+                    // text is HTML, and not true unicode... escape HTML to correct
+                    String cleanedText = StringEscapeUtils.unescapeHtml4((String) o);
+                    dictEntry.add(new Text(cleanedText).setFontSize(defFontSize).setFont(unicodeFont));
+                } else if (o instanceof ImageNode) {
+                    dictEntry.add(getPdfImage((ImageNode) o));
+                } else if (o instanceof BufferedImage) {
+                    // must convert buffered image to bytes because WHY DOES iTEXT 7 NOT DO THIS ITSELF.
+                    byte[] bytes = IOHandler.getBufferedImageByteArray((BufferedImage) o);
+                    Image pdfImage = new Image(ImageDataFactory.create(bytes));
+                    dictEntry.add(pdfImage);
+                } else {
+                    // Do nothing: May be expanded for further logic later
                 }
-                varChunk = new Text(wordClasses);
-                varChunk.setFont(unicodeFont);
-                dictEntry.add(varChunk.setFontSize(defFontSize));
-
-                varChunk = new Text(" - ");
-                varChunk.setFont(PdfFontFactory.createFont(FontConstants.TIMES_BOLD));
-                dictEntry.add(varChunk.setFontSize(defFontSize));
             }
+            dictEntry.add(new Text("\n"));
+        }
+    }
 
-            List<Object> defList = WebInterface.getElementsHTMLBody(curWord.getDefinition(), core);
-            if (!defList.isEmpty()) {
-                dictEntry.add(new Text("\n"));
-                for (Object o : defList) {
-                    if (o instanceof String) {
-                        String cleanedText = StringEscapeUtils.unescapeHtml4((String) o);
-                        dictEntry.add(new Text(cleanedText).setFontSize(defFontSize).setFont(unicodeFont));
-                    } else if (o instanceof BufferedImage) {
-                        // must convert buffered image to bytes because WHY DOES iTEXT 7 NOT DO THIS ITSELF.
-                        byte[] bytes = IOHandler.getBufferedImageByteArray((BufferedImage) o);
-                        Image pdfImage = new Image(ImageDataFactory.create(bytes));
-                        dictEntry.add(pdfImage);
-                    } else {
-                        // Do nothing: May be expanded for further logic later
-                    }
-                }
-                dictEntry.add(new Text("\n"));
-            }
+    /**
+     * Opens dictionary chapter. Entries are then added to the document one
+     * at a time, and pages written out as they fill, so memory use does not
+     * grow with the size of the lexicon.
+     *
+     * @param anchorPoint destination of chapter
+     */
+    private void startDictionary(String anchorPoint) {
+        Paragraph anchor = new Paragraph(new Text("\n"));
+        anchor.setProperty(Property.DESTINATION, anchorPoint);
+        document.add(anchor);
 
-            dictEntry.setKeepTogether(true);
-            curLetterSec.add(dictEntry);
+        // earlier pages may still have content waiting on the default renderer
+        flushedThrough = Math.max(flushedThrough, document.getPdfDocument().getNumberOfPages() - 1);
+    }
 
-            // add line break if more words
-            if (allWords.hasNext()) {
-                LineSeparator ls = new LineSeparator(new SolidLine(1f));
-                ls.setWidthPercent(30);
-                ls.setMarginTop(5);
-                curLetterSec.add(ls);
-            }
+    /**
+     * Writes out and releases every page before the current one laid out by
+     * the (immediately flushing) dictionary renderer
+     */
+    private void flushCompletedPages() {
+        PdfDocument pdf = document.getPdfDocument();
+
+        while (flushedThrough < pdf.getNumberOfPages() - 1) {
+            flushedThrough++;
+            pdf.getPage(flushedThrough).flush();
+        }
+    }
+
+    /**
+     * Gets layout image for image from collection. Each image is embedded in
+     * the document once, from its stored PNG bytes, and referenced by every
+     * later use. Called from worker threads.
+     *
+     * @param imageNode image to place
+     * @return new layout element referencing shared image
+     * @throws IOException if image cannot be encoded
+     */
+    private synchronized Image getPdfImage(ImageNode imageNode) throws IOException {
+        PdfImageXObject xObject = imageCache.get(imageNode.getId());
+
+        if (xObject == null) {
+            xObject = new PdfImageXObject(ImageDataFactory.create(imageNode.getImageBytes()));
+            imageCache.put(imageNode.getId(), xObject);
         }
 
-        // add last letter section
-        document.add(curLetterSec);
+        return new Image(xObject);
     }
 
     private Div buildOrthography(String anchorPoint) throws IOException {
@@ -632,8 +772,8 @@ public class PExportToPDF {
         boolean usesRegEx = false;
 
         Table table = new Table(2);
-        table.addCell(new Paragraph("Character(s)").setFont(PdfFontFactory.createFont(FontConstants.COURIER_BOLD)));
-        table.addCell(new Paragraph("Pronunciation").setFont(PdfFontFactory.createFont(FontConstants.COURIER_BOLD)));
+        table.addCell(new Paragraph("Character(s)").setFont(courierBold));
+        table.addCell(new Paragraph("Pronunciation").setFont(courierBold));
 
         Iterator<PronunciationNode> orthIt = core.getPronunciationMgr().getPronunciations();
 
@@ -680,8 +820,7 @@ public class PExportToPDF {
 
         for (GrammarChapNode chap : gramList) {
             String chapName = chap.getName();
-            ret.add(new Paragraph(chapName).setFont(PdfFontFactory
-                    .createFont(FontConstants.COURIER_BOLD)).setFontSize(20));
+            ret.add(new Paragraph(chapName).setFont(courierBold).setFontSize(20));
 
             Div chapDiv = new Div();
 
@@ -691,8 +830,7 @@ public class PExportToPDF {
                 Paragraph newSec = new Paragraph();
                 newSec.setMarginLeft(30);
                 GrammarSectionNode curSec = (GrammarSectionNode) chap.getChildAt(i);
-                newSec.add(new Text(curSec.getName()).setFont(PdfFontFactory
-                        .createFont(FontConstants.COURIER_OBLIQUE)).setFontSize(18));
+                newSec.add(new Text(curSec.getName()).setFont(courierOblique).setFontSize(18));
                 newSec.add(new Text("\n"));
                 // populate text ensuring that conlang font is maintained where appropriate
                 for (Entry<String, PFontInfo> entry : FormattedTextHelper.getSectionTextFontSpecifec(curSec.getSectionText(), core)) {
@@ -704,9 +842,7 @@ public class PExportToPDF {
                             text = text.replace("<img src=\"", "").replace("\">", "");
                             int imgId = Integer.parseInt(text);
                             ImageNode imageNode = (ImageNode)core.getImageCollection().getNodeById(imgId);
-                            byte[] bytes = IOHandler.getBufferedImageByteArray(imageNode.getImage());
-                            Image pdfImage = new Image(ImageDataFactory.create(bytes));
-                            newSec.add(pdfImage);
+                            newSec.add(getPdfImage(imageNode));
                         } catch (Exception e) {
                             log += "\nUnable to include images from grammar section: " + curSec.getName();
                         }
@@ -750,8 +886,8 @@ public class PExportToPDF {
         Div ret = new Div();
         ret.setProperty(Property.DESTINATION, anchorPoint);
         Table table = new Table(2);
-        table.addCell(new Paragraph("Part of Speech").setFont(PdfFontFactory.createFont(FontConstants.COURIER_BOLD)));
-        table.addCell(new Paragraph("Gloss").setFont(PdfFontFactory.createFont(FontConstants.COURIER_BOLD)));
+        table.addCell(new Paragraph("Part of Speech").setFont(courierBold));
+        table.addCell(new Paragraph("Gloss").setFont(courierBold));
 
         for (TypeNode curType : core.getTypes().getNodes()) {
             table.addCell(curType.getValue());
@@ -879,7 +1015,8 @@ public class PExportToPDF {
             new Rectangle(
             offSet + columnWidth + gutter, offSet, columnWidth, columnHeight)};
 
-        return new ColumnDocumentRenderer(document, false, columns);
+        // flushes immediately: dictionary chapters are written as they are laid out
+        return new ColumnDocumentRenderer(document, true, columns);
     }
 
     private Div buildForward(String anchorPoint) {
@@ -935,6 +1072,73 @@ public class PExportToPDF {
         }
     }
 
+    /**
+     * Contents of a dictionary entry, built ahead of layout
+     */
+    private static class PreparedEntry {
+
+        final ConWord word;
+        // true if no words follow this one in its chapter
+        final boolean last;
+        final List<ILeafElement> elements = new ArrayList<>();
+        String log = "";
+        IOException error = null;
+
+        PreparedEntry(ConWord _word, boolean _last) {
+            word = _word;
+            last = _last;
+        }
+    }
+
+    private class PrepareTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+        private final List<ConWord> words;
+        private final PreparedEntry[] prepared;
+        private final int offset;
+        private final int start;
+        private final int end;
+        private final int split;
+        private final boolean conToLocal;
+
+        PrepareTask(List<ConWord> _words, PreparedEntry[] _prepared, int _offset,
+                int _start, int _end, int _split, boolean _conToLocal) {
+            words = _words;
+            prepared = _prepared;
+            offset = _offset;
+            start = _start;
+            end = _end;
+            split = _split;
+            conToLocal = _conToLocal;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= split) {
+                for (int i = start; i < end; i++) {
+                    PreparedEntry entry = new PreparedEntry(words.get(i), i == words.size() - 1);
+
+                    try {
+                        if (conToLocal) {
+                            prepareConToLocalEntry(entry);
+                        } else {
+                            prepareLocalToConEntry(entry);
+                        }
+                    } catch (IOException e) {
+                        entry.error = e;
+                    }
+
+                    prepared[i - offset] = entry;
+                }
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new PrepareTask(words, prepared, offset, start, mid, split, conToLocal),
+                    new PrepareTask(words, prepared, offset, mid, end, split, conToLocal));
+        }
+    }
+
     static class SecEntry implements Entry {
 
         final int key;
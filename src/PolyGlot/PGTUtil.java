@@ -180,6 +180,8 @@ public class PGTUtil {
     public static final String logoGraphSavePath = "logoGraphs/";
     public static final String imagesSavePath = "images/";
     public static final String grammarSoundSavePath = "grammarSounds/";
+    public static final String grammarSoundExtension = ".pgs";
+    public static final String grammarSoundLegacyExtension = ".raw";
     public static final String emptyFile = "<EMPTY>";
     public static final String tempFile = "xxTEMPPGTFILExx";
     public static final String polyGlotFont = "PolyGlot";
@@ -206,6 +208,7 @@ public class PGTUtil {
     // int constants...
     public static final Integer numMenuFlashes = 4;
     public static final Integer menuFlashSleep = 200;
+    public static final Integer reportHeatMapPageSize = 32;
 
     
     /**
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Structured form of HTML text (as stored in word definitions): the ordered
+ * text runs and images of its body, plus its plain text. Immutable, so one
+ * parse may be shared by display, search and export.
+ *
+ * @author draque.thompson
+ */
+public class ParsedHtml {
+
+    private static final Pattern BODY_START = Pattern.compile(".*<body>");
+    private static final Pattern BODY_END = Pattern.compile("</body>.*");
+    private static final Pattern TOKEN = Pattern.compile("([^<]+|<[^>]+>)");
+    private static final Pattern TAG = Pattern.compile("<[^>]+>");
+    private static final String IMAGE_TAG = "<img src=\"";
+    private static final String TEMP_IMAGE_MARKER = "_polyGlotImage";
+
+    public static final ParsedHtml EMPTY = new ParsedHtml(new ArrayList<Object>(), "");
+
+    private final List<Object> elements;
+    private final String plainText;
+    private String plainTextLower = null;
+
+    private ParsedHtml(List<Object> _elements, String _plainText) {
+        elements = Collections.unmodifiableList(_elements);
+        plainText = _plainText;
+    }
+
+    /**
+     * Parses HTML text
+     *
+     * @param html HTML to parse
+     * @return parsed form of text
+     */
+    public static ParsedHtml parse(String html) {
+        if (html == null || html.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Object> elements = new ArrayList<>();
+        String body = BODY_START.matcher(html).replaceAll("");
+        body = BODY_END.matcher(body).replaceAll("");
+        Matcher matcher = TOKEN.matcher(body);
+
+        // loops on unincumbered text and tags.
+        while (matcher.find()) {
+            String token = matcher.group(1);
+            if (token.startsWith("<")) {
+                if (token.contains(IMAGE_TAG)) {
+                    String path = token.replace("<img src=\"file:///", "")
+                            .replace(IMAGE_TAG, "").replace("\">", "");
+                    elements.add(new ImageRef(path, getImageId(path)));
+                } else {
+                    // do nothing with unrecognized elements - might be upgraded later.
+                }
+            } else {
+                // this is plaintext
+                String add = token.trim();
+                if (!add.equals("")) {
+                    elements.add(add + " ");
+                }
+            }
+        }
+
+        return new ParsedHtml(elements, stripTags(html));
+    }
+
+    /**
+     * Removes all tags from HTML
+     *
+     * @param html HTML to strip
+     * @return text of HTML, trimmed
+     */
+    public static String stripTags(String html) {
+        return TAG.matcher(html).replaceAll("").trim();
+    }
+
+    /**
+     * Gets id of collection image an image URL (as generated by
+     * ImageCollection.getImageURL()) refers to. Accepts temp file paths, as
+     * generated by ImageNode.getImagePath().
+     *
+     * @param path image URL or path
+     * @return image id, -1 if not a collection image
+     */
+    public static int getImageId(String path) {
+        if (path.startsWith(ImageURLHandler.PROTOCOL + ":")) {
+            return ImageURLHandler.getImageId(path);
+        }
+
+        String fileName = IOHandler.getFilenameFromPath(path);
+        int marker = fileName.indexOf(TEMP_IMAGE_MARKER);
+
+        if (marker <= 0) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(fileName.substring(0, marker));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets body of HTML as an ordered list of text runs (String, still HTML
+     * escaped) and images (ImageRef)
+     *
+     * @return unmodifiable list of elements
+     */
+    public List<Object> getElements() {
+        return elements;
+    }
+
+    /**
+     * Gets text of HTML with all tags removed
+     *
+     * @return plain text, trimmed
+     */
+    public String getPlainText() {
+        return plainText;
+    }
+
+    /**
+     * Gets lower case plain text for caseless matching
+     *
+     * @return plain text in lower case
+     */
+    public String getPlainTextLower() {
+        if (plainTextLower == null) {
+            plainTextLower = plainText.toLowerCase();
+        }
+
+        return plainTextLower;
+    }
+
+    /**
+     * Reference to an image within HTML
+     */
+    public static class ImageRef {
+
+        private final String path;
+        private final int imageId;
+
+        ImageRef(String _path, int _imageId) {
+            path = _path;
+            imageId = _imageId;
+        }
+
+        /**
+         * @return path image is displayed from
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * @return id of image in image collection, -1 if not from collection
+         */
+        public int getImageId() {
+            return imageId;
+        }
+    }
+}
@@ -19,9 +19,11 @@
  */
 package PolyGlot.Screens;
 
+import PolyGlot.Nodes.DeclensionCombinedId;
 import PolyGlot.Nodes.DeclensionGenRule;
 import PolyGlot.Nodes.DeclensionGenTransform;
 import PolyGlot.Nodes.DeclensionPair;
+import PolyGlot.ManagersCollections.DeclensionImpactAnalyzer;
 import PolyGlot.DictCore;
 import PolyGlot.CustomControls.InfoBox;
 import PolyGlot.CustomControls.PButton;
@@ -39,6 +41,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.ActionMap;
@@ -67,6 +70,7 @@ public class ScrDeclensionGenSetup extends PDialog {
     boolean curPopulating = false;
     boolean upDownPress = false;
     List<DeclensionGenRule> depRulesList;
+    final DeclensionImpactAnalyzer impactAnalyzer;
 
     /**
      * Creates new form scrSetupDeclGen
@@ -78,6 +82,8 @@ public class ScrDeclensionGenSetup extends PDialog {
         core = _core;
         typeId = _typeId;
         depRulesList = core.getDeclensionManager().getAllDepGenerationRules(_typeId);
+        impactAnalyzer = new DeclensionImpactAnalyzer(core.getDeclensionManager(), _typeId,
+                core.getWordCollection().getWordNodes());
 
         setupKeyStrokes();
         initComponents();
@@ -440,8 +446,10 @@ public class ScrDeclensionGenSetup extends PDialog {
         final JPopupMenu ruleMenu = new JPopupMenu();
         final JMenuItem copyItem = new JMenuItem("Copy Rule");
         final JMenuItem pasteItem = new JMenuItem("Paste Rule");
+        final JMenuItem impactItem = new JMenuItem("Preview Impact");
         copyItem.setToolTipText("Copy currently selected rule.");
         pasteItem.setToolTipText("Paste rule in clipboard to rule list.");
+        impactItem.setToolTipText("Show which words' forms edits to the selected rule change.");
 
         copyItem.addActionListener(new ActionListener() {
             @Override
@@ -455,8 +463,15 @@ public class ScrDeclensionGenSetup extends PDialog {
                 pasteRuleFromClipboard();
             }
         });        
+        impactItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent ae) {
+                previewRuleImpact();
+            }
+        });
         ruleMenu.add(copyItem);
         ruleMenu.add(pasteItem);
+        ruleMenu.add(impactItem);
         lstRules.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
@@ -478,12 +493,50 @@ public class ScrDeclensionGenSetup extends PDialog {
                 } else {
 
                 }
+                impactItem.setEnabled(lstRules.getSelectedValue() != null);
 
                 ruleMenu.show(e.getComponent(), e.getX(), e.getY());
             }
         });
     }
 
+    /**
+     * Shows how many words (with samples) edits to the selected rule change
+     * the forms of, compared to the rules as they were when this window opened
+     */
+    private void previewRuleImpact() {
+        DeclensionGenRule curRule = (DeclensionGenRule) lstRules.getSelectedValue();
+
+        if (curRule == null) {
+            return;
+        }
+
+        saveTransPairs(lstRules.getSelectedIndex());
+
+        DeclensionImpactAnalyzer.Impact impact;
+
+        try {
+            impact = impactAnalyzer.analyze(curRule, 15);
+        } catch (PatternSyntaxException e) {
+            InfoBox.warning("Rule Impact", "Unable to preview rule \'" + curRule.getName()
+                    + "\':\n" + e.getMessage(), this);
+            return;
+        }
+
+        String message = impact.getChangedCount() + " of " + impact.getWordCount()
+                + " words change form under rule \'" + curRule.getName() + "\'.";
+
+        for (DeclensionImpactAnalyzer.Sample sample : impact.getSamples()) {
+            message += "\n" + sample;
+        }
+
+        if (impact.getChangedCount() > impact.getSamples().size()) {
+            message += "\n...";
+        }
+
+        InfoBox.info("Rule Impact", message, this);
+    }
+
     /**
      * Copies selected rule (if any) to clipboard
      */
@@ -1073,7 +1126,7 @@ public class ScrDeclensionGenSetup extends PDialog {
         saveTransPairs(lstRules.getSelectedIndex());
         DeclensionPair curPair = (DeclensionPair) lstCombinedDec.getSelectedValue();
         chkDisableWordform.setSelected(core.getDeclensionManager()
-                .isCombinedDeclSurpressed(curPair == null ? "" : curPair.combinedId));
+                .isCombinedDeclSurpressed(curPair == null ? DeclensionCombinedId.EMPTY : curPair.combinedId));
         populateRules();
         populateRuleProperties();
         populateTransforms();
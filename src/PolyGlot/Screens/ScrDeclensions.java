@@ -20,6 +20,7 @@
 package PolyGlot.Screens;
 
 import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.DeclensionCombinedId;
 import PolyGlot.Nodes.DeclensionNode;
 import PolyGlot.Nodes.DeclensionPair;
 import PolyGlot.DictCore;
@@ -48,14 +49,14 @@ import javax.swing.SwingUtilities;
  */
 public class ScrDeclensions extends PDialog {
 
-    private final Map<String, JTextField> fieldMap = new HashMap<>();
-    private final Map<String, String> labelMap = new HashMap<>();
+    private final Map<DeclensionCombinedId, JTextField> fieldMap = new HashMap<>();
+    private final Map<DeclensionCombinedId, String> labelMap = new HashMap<>();
     private ConWord word;
     private Integer typeId;
     private Font conFont;
     private Integer numFields = 0;
     private Integer textHeight = 0;
-    private Map<String, DeclensionNode> allWordDeclensions = new HashMap<>();
+    private Map<DeclensionCombinedId, DeclensionNode> allWordDeclensions = new HashMap<>();
     private JTextField firstField;
     private final Integer MAXLABELWIDTH = 300;
 
@@ -236,11 +237,11 @@ public class ScrDeclensions extends PDialog {
         word.setOverrideAutoDeclen(chkAutogenOverride.isSelected());
         
         core.clearAllDeclensionsWord(word.getId());
-        Set<Entry<String, JTextField>> saveSet = fieldMap.entrySet();
+        Set<Entry<DeclensionCombinedId, JTextField>> saveSet = fieldMap.entrySet();
 
-        for (Entry<String, JTextField> e : saveSet) {
+        for (Entry<DeclensionCombinedId, JTextField> e : saveSet) {
             DeclensionNode saveNode = new DeclensionNode(-1);
-            String curId = e.getKey();
+            DeclensionCombinedId curId = e.getKey();
             JTextField curField = e.getValue();
 
             if (curField.getText().trim().equals("")) {
@@ -267,7 +268,7 @@ public class ScrDeclensions extends PDialog {
         
         while (decIt.hasNext()) {
             DeclensionPair curDec = decIt.next();
-            String curId = curDec.combinedId;
+            DeclensionCombinedId curId = curDec.combinedId;
             String curLabel = curDec.label;
             
             // skip forms that have been surpressed
@@ -324,7 +325,7 @@ public class ScrDeclensions extends PDialog {
      */
     private void createDeprecatedFields() {
         Set decSet = allWordDeclensions.entrySet();
-        Iterator<Entry<String, DeclensionNode>> depIt = decSet.iterator();
+        Iterator<Entry<DeclensionCombinedId, DeclensionNode>> depIt = decSet.iterator();
 
         // separates new and deprecated fields
         if (!decSet.isEmpty()) {
@@ -334,7 +335,7 @@ public class ScrDeclensions extends PDialog {
         }
         
         while (depIt.hasNext()) {
-            Entry<String, DeclensionNode> decEnt = depIt.next();
+            Entry<DeclensionCombinedId, DeclensionNode> decEnt = depIt.next();
             DeclensionNode curDec = decEnt.getValue();
 
             JTextField newField = new PTextField(core, false, "");
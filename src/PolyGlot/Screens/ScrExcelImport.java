@@ -25,7 +25,10 @@ import PolyGlot.ImportFileHelper;
 import PolyGlot.CustomControls.InfoBox;
 import PolyGlot.CustomControls.PDialog;
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JFileChooser;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 
@@ -103,6 +106,7 @@ public class ScrExcelImport extends PDialog {
         txtDelimiter = new javax.swing.JTextField();
         btnImport = new javax.swing.JButton();
         btnCancel = new javax.swing.JButton();
+        prgImport = new javax.swing.JProgressBar();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setTitle("Import From External Format");
@@ -283,6 +287,10 @@ public class ScrExcelImport extends PDialog {
             }
         });
 
+        prgImport.setToolTipText("Rows imported so far");
+        prgImport.setString("");
+        prgImport.setStringPainted(true);
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -298,7 +306,8 @@ public class ScrExcelImport extends PDialog {
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(btnBrowse))
                     .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, layout.createSequentialGroup()
-                        .addGap(0, 0, Short.MAX_VALUE)
+                        .addComponent(prgImport, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(btnCancel)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(btnImport)))
@@ -315,9 +324,10 @@ public class ScrExcelImport extends PDialog {
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jPanel1, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.CENTER)
                     .addComponent(btnImport)
-                    .addComponent(btnCancel)))
+                    .addComponent(btnCancel)
+                    .addComponent(prgImport, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
         );
 
         pack();
@@ -383,23 +393,86 @@ public class ScrExcelImport extends PDialog {
             return;
         }
 
+        final String fileName = txtFileName.getText();
+        final int sheetNum;
+
         try {
-            ImportFileHelper reader = new ImportFileHelper(core);
-            String delimiter = txtDelimiter.getText().equals("") ?
-                    "," : txtDelimiter.getText();
-            reader.setOptions(txtConWord.getText(), txtLocalWord.getText(),
-                    txtType.getText(), txtClass.getText(),
-                    txtDefinition.getText(), txtPronunciation.getText(), delimiter,
-                    chkFirstLabels.isSelected(), true);
-            reader.importFile(txtFileName.getText(), Integer.parseInt(txtExcelSheet.getText()));
-            // if everything has completed without error, close the window
-            dispose();
-        } catch (InvalidFormatException e) {
-            InfoBox.warning("Unrecognized File Type", e.getLocalizedMessage(), this);
+            sheetNum = Integer.parseInt(txtExcelSheet.getText());
         } catch (NumberFormatException e) {
+            importFailed(e);
+            return;
+        }
+
+        final ImportFileHelper reader = new ImportFileHelper(core);
+        String delimiter = txtDelimiter.getText().equals("") ?
+                "," : txtDelimiter.getText();
+        reader.setOptions(txtConWord.getText(), txtLocalWord.getText(),
+                txtType.getText(), txtClass.getText(),
+                txtDefinition.getText(), txtPronunciation.getText(), delimiter,
+                chkFirstLabels.isSelected(), true);
+
+        // import runs off the EDT so that the window keeps painting progress
+        SwingWorker<Void, Integer> worker = new SwingWorker<Void, Integer>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                reader.setProgressListener(new ImportFileHelper.ProgressListener() {
+                    @Override
+                    public void rowsImported(int rowCount) {
+                        publish(rowCount);
+                    }
+                });
+                reader.importFile(fileName, sheetNum);
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> rowCounts) {
+                prgImport.setString(rowCounts.get(rowCounts.size() - 1) + " rows imported");
+            }
+
+            @Override
+            protected void done() {
+                setImporting(false);
+
+                try {
+                    get();
+                    // if everything has completed without error, close the window
+                    dispose();
+                } catch (ExecutionException e) {
+                    importFailed(e.getCause());
+                } catch (InterruptedException e) {
+                    importFailed(e);
+                }
+            }
+        };
+
+        setImporting(true);
+        worker.execute();
+    }
+
+    /**
+     * Locks the form while an import runs, so it cannot be started twice or
+     * closed partway through
+     *
+     * @param importing true while import in progress
+     */
+    private void setImporting(boolean importing) {
+        btnImport.setEnabled(!importing);
+        btnCancel.setEnabled(!importing);
+        btnBrowse.setEnabled(!importing);
+        setDefaultCloseOperation(importing ? javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE
+                : javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
+        prgImport.setIndeterminate(importing);
+        prgImport.setString(importing ? "Importing..." : "");
+    }
+
+    private void importFailed(Throwable e) {
+        if (e instanceof InvalidFormatException) {
+            InfoBox.warning("Unrecognized File Type", e.getLocalizedMessage(), this);
+        } else if (e instanceof NumberFormatException) {
             InfoBox.error("Import Error", "All column fields and sheet field must contain "
                     +"numeric values only:\n" + e.getLocalizedMessage(), this);
-        } catch (Exception e) {
+        } else {
             InfoBox.error("Import Error", "Could not import from file " + txtFileName.getText()
                     + ".\n Check to make certain that column mappings are correct "
                     +"(nothing above max cell value) and that the file is not corrupt:\n" 
@@ -424,6 +497,7 @@ public class ScrExcelImport extends PDialog {
     private javax.swing.JLabel jLabel8;
     private javax.swing.JLabel jLabel9;
     private javax.swing.JPanel jPanel1;
+    private javax.swing.JProgressBar prgImport;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JTextArea jTextArea1;
     private javax.swing.JTextField txtClass;
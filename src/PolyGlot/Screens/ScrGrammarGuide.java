@@ -32,6 +32,7 @@ import PolyGlot.CustomControls.PGDocument;
 import PolyGlot.CustomControls.PGTreeCellRenderer;
 import PolyGlot.CustomControls.PGrammarPane;
 import PolyGlot.CustomControls.PTextField;
+import PolyGlot.ManagersCollections.GrammarSearchIndex;
 import PolyGlot.SoundRecorder;
 import java.awt.Color;
 import java.awt.Font;
@@ -41,7 +42,10 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
-import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import javax.sound.sampled.LineUnavailableException;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -52,6 +56,7 @@ import javax.swing.JComponent;
 import javax.swing.JOptionPane;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.TreeSelectionEvent;
@@ -76,6 +81,9 @@ public class ScrGrammarGuide extends PFrame {
     private final String defTime;
     private SoundRecorder soundRecorder;
     private boolean isUpdating;
+    // section whose text is still being built for txtSection, null if none
+    private GrammarSectionNode loadingSection = null;
+    private SwingWorker<StyledDocument, Void> sectionLoader = null;
     private final ImageIcon playButtonUp;
     private final ImageIcon playButtonDown;
     private final ImageIcon recordButtonUp;
@@ -735,9 +743,14 @@ public class ScrGrammarGuide extends PFrame {
         if (node instanceof GrammarSectionNode) {
             GrammarSectionNode secNode = (GrammarSectionNode) node;
             secNode.setName(txtName.getText());
-            secNode.setRecording(soundRecorder.getSound());
+            if (soundRecorder.isNewRecording()) {
+                secNode.setRecording(soundRecorder.getSound());
+            }
             try {
-                secNode.setSectionText(FormattedTextHelper.storageFormat(txtSection));
+                // pane does not hold section's text until load completes
+                if (secNode != loadingSection) {
+                    secNode.setSectionText(FormattedTextHelper.storageFormat(txtSection));
+                }
             } catch (Exception e) {
                 //e.printStackTrace();
                 InfoBox.error("Section Save Error", "Unable to save section text: "
@@ -811,6 +824,58 @@ public class ScrGrammarGuide extends PFrame {
         }
     }
 
+    /**
+     * Builds section's formatted text off the EDT, then swaps it into the
+     * section pane. The pane is disabled until the text arrives.
+     *
+     * @param secNode section to display
+     */
+    private void loadSectionText(final GrammarSectionNode secNode) {
+        cancelSectionLoad();
+        loadingSection = secNode;
+        txtSection.setEnabled(false);
+        final String sectionText = secNode.getSectionText();
+
+        sectionLoader = new SwingWorker<StyledDocument, Void>() {
+            @Override
+            protected StyledDocument doInBackground() throws BadLocationException {
+                return FormattedTextHelper.buildDocument(sectionText, core);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || loadingSection != secNode) {
+                    return;
+                }
+
+                loadingSection = null;
+
+                try {
+                    txtSection.setStyledDocument(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    InfoBox.error("Section Load Error", "Unable to load section text: "
+                            + e.getLocalizedMessage(), ScrGrammarGuide.this);
+                }
+
+                txtSection.setEnabled(true);
+                panSection.getVerticalScrollBar().setValue(0);
+            }
+        };
+        sectionLoader.execute();
+    }
+
+    /**
+     * Abandons any section text still being built
+     */
+    private void cancelSectionLoad() {
+        if (sectionLoader != null) {
+            sectionLoader.cancel(false);
+            sectionLoader = null;
+        }
+
+        loadingSection = null;
+    }
+
     /**
      * Populates properties of chapter/section and sets appropriate controls
      */
@@ -826,6 +891,7 @@ public class ScrGrammarGuide extends PFrame {
             GrammarChapNode chapNode = (GrammarChapNode) selection;
             txtName.setText(chapNode.getName());
             txtName.setEnabled(true);
+            cancelSectionLoad();
             txtSection.setText("");
             txtSection.setEnabled(false);
             btnApply.setEnabled(false);
@@ -852,33 +918,22 @@ public class ScrGrammarGuide extends PFrame {
             sldSoundPosition.setValue(0);
             sldSoundPosition.setEnabled(true);
             txtTimer.setText(defTime);
-            try {
-                soundRecorder.setSound(secNode.getRecording());
-            } catch (Exception e) {
-                //e.printStackTrace();
-                InfoBox.error("Recording Load Failure", "Unable to load recording: "
-                        + e.getLocalizedMessage(), this);
-            }
-            try {
-                FormattedTextHelper.restoreFromString(secNode.getSectionText(),
-                        txtSection, core);
-            } catch (BadLocationException e) {
-                InfoBox.error("Section Load Error", "Unable to load section text: "
-                        + e.getLocalizedMessage(), this);
-                //e.printStackTrace();
-            }
-            SwingUtilities.invokeLater(new Runnable() {
+            // recording is only read from file once played
+            final GrammarSectionNode soundNode = secNode;
+            soundRecorder.setSoundSource(secNode.hasRecording() ? new Callable<byte[]>() {
                 @Override
-                public void run() {
-                    panSection.getVerticalScrollBar().setValue(0);
+                public byte[] call() throws Exception {
+                    return soundNode.getEncodedRecording();
                 }
-            });
+            } : null);
+            loadSectionText(secNode);
 
         } else {
             // if neither is selected, then the whole tree has been deleted by the user
             txtName.setText("");
             txtName.setForeground(Color.gray);
             txtName.setEnabled(false);
+            cancelSectionLoad();
             txtSection.setText("");
             txtSection.setEnabled(false);
             btnApply.setEnabled(false);
@@ -992,7 +1047,7 @@ public class ScrGrammarGuide extends PFrame {
             if (soundRecorder.isRecording()) {
                 soundRecorder.endRecording();
             } else {
-                if (soundRecorder.getSound() != null) { // confirm overwrite of existing data
+                if (soundRecorder.hasSound()) { // confirm overwrite of existing data
                     if (InfoBox.yesNoCancel("Overwrite Confirmation",
                             "Discard existing audio recording?", this) != JOptionPane.YES_OPTION) {
                         return;
@@ -1040,7 +1095,8 @@ public class ScrGrammarGuide extends PFrame {
     }
 
     /**
-     * Populates all grammar chapters and sections that match search value
+     * Populates all grammar chapters and sections that match search value.
+     * Chapters are ordered by their best matching section, sections by rank.
      */
     private void populateFromSearch() {
         savePropsToNode((DefaultMutableTreeNode) treChapList.getLastSelectedPathComponent());
@@ -1053,19 +1109,19 @@ public class ScrGrammarGuide extends PFrame {
         
         DefaultTreeModel treeModel = new DefaultTreeModel(rootNode);
         treChapList.setModel(treeModel);
-        for (GrammarChapNode curChap : core.getGrammarManager().getChapters()) {
-            GrammarChapNode srcChap = new GrammarChapNode(core.getGrammarManager());
-            srcChap.setName(curChap.getName() + "TEST");
-
-            Enumeration sections = curChap.children(txtSearch.getText());
-            while (sections.hasMoreElements()) {
-                GrammarSectionNode curSec = (GrammarSectionNode) sections.nextElement();
-                srcChap.add(curSec);                
-            }
-
-            if (srcChap.children().hasMoreElements()) {
+        Map<GrammarChapNode, GrammarChapNode> srcChaps = new LinkedHashMap<>();
+        
+        for (GrammarSearchIndex.Hit hit : core.getGrammarManager().search(txtSearch.getText())) {
+            GrammarChapNode srcChap = srcChaps.get(hit.getChapter());
+            
+            if (srcChap == null) {
+                srcChap = new GrammarChapNode(core.getGrammarManager());
+                srcChap.setName(hit.getChapter().getName());
+                srcChaps.put(hit.getChapter(), srcChap);
                 rootNode.add(srcChap);
             }
+            
+            srcChap.add(hit.getSection());
         }
         treeModel.reload(rootNode);
     }
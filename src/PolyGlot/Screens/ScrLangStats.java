@@ -23,6 +23,12 @@ package PolyGlot.Screens;
 import PolyGlot.DictCore;
 import PolyGlot.CustomControls.InfoBox;
 import PolyGlot.CustomControls.PDialog;
+import PolyGlot.PGTUtil;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Writer;
+import javax.swing.text.BadLocationException;
 
 /**
  *
@@ -40,7 +46,7 @@ public class ScrLangStats extends PDialog {
         
         jTextPane1.setContentType("text/html");
         
-        jTextPane1.setText("<html>" + core.buildLanguageReport() + "</html>");
+        populateReport();
         jTextPane1.setFont(core.getPropertiesManager().getFontCon());
         
         jTextPane1.setCaretPosition(0);
@@ -48,6 +54,43 @@ public class ScrLangStats extends PDialog {
         jScrollPane2.getHorizontalScrollBar().setValue(0);
     }
     
+    /**
+     * Streams report into the display as it is written, rather than building
+     * the whole report as a single string first
+     */
+    private void populateReport() {
+        final PipedWriter pipeOut = new PipedWriter();
+        final IOException[] writeError = new IOException[1];
+        
+        try (PipedReader pipeIn = new PipedReader(pipeOut, 65536)) {
+            Thread writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try (Writer out = pipeOut) {
+                        out.write("<html>");
+                        core.writeLanguageReport(out, PGTUtil.reportHeatMapPageSize);
+                        out.write("</html>");
+                    } catch (IOException e) {
+                        writeError[0] = e;
+                    }
+                }
+            });
+            
+            writer.start();
+            jTextPane1.getEditorKit().read(pipeIn, jTextPane1.getDocument(), 0);
+            writer.join();
+        } catch (IOException | BadLocationException | InterruptedException e) {
+            InfoBox.error("Report Error", "Unable to build language report: " 
+                    + e.getLocalizedMessage(), this);
+            return;
+        }
+        
+        if (writeError[0] != null) {
+            InfoBox.error("Report Error", "Unable to build language report: " 
+                    + writeError[0].getLocalizedMessage(), this);
+        }
+    }
+    
     @Override
     public final void setupKeyStrokes() {
         super.setupKeyStrokes();
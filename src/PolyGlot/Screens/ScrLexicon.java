@@ -32,7 +32,6 @@ import PolyGlot.CustomControls.PTextPane;
 import PolyGlot.Nodes.TypeNode;
 import PolyGlot.Nodes.WordPropValueNode;
 import PolyGlot.Nodes.WordProperty;
-import PolyGlot.WebInterface;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GridBagConstraints;
@@ -1061,7 +1060,7 @@ public final class ScrLexicon extends PFrame {
                                 ? curType.getValue() : curType.getGloss());
                     }
                     if (!curWord.getDefinition().equals("")) {
-                        tip += " : " + WebInterface.getTextFromHtml(curWord.getDefinition());
+                        tip += " : " + curWord.getParsedDefinition().getPlainText();
                     }
 
                     theList.setToolTipText(tip);
@@ -333,6 +333,13 @@ public class ScrPrintToPDF extends PDialog {
         setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         try{
             export.print();
+            
+            // inform user of errors
+            if (!export.getLog().equals("")) {
+                InfoBox.warning("PDF Generation Errors", "Problems with PDF generation:\n"
+                        + export.getLog(), this);
+            }
+            
             InfoBox.info("Print Success", "Sucessfully printed to " + txtSavePath.getText(), this);
             this.dispose();
         } catch (Exception e) {
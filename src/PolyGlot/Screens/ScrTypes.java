@@ -251,6 +251,12 @@ public class ScrTypes extends PDialog {
                 ? "" : txtGloss.getText());
         saveNode.setDefMandatory(chkDefMand.isSelected());
         saveNode.setProcMandatory(chkProcMand.isSelected());
+
+        String patternError = saveNode.takePatternError();
+        if (!patternError.equals("")) {
+            InfoBox.warning("Malformed Pattern", "Pattern for type " + saveNode.getValue()
+                    + " is malformed and will not be enforced: " + patternError, this);
+        }
     }
 
     /**
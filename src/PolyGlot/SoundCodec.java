@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lossless compression for recorded sounds. Samples are treated as a stream
+ * of signed 8 bit values (the format the grammar recorder uses). Each block of
+ * samples is run through the best of a handful of fixed linear predictors and
+ * the residuals are Rice coded, in the same spirit as FLAC. Decoding is
+ * streamed, so playback never needs the whole raw recording in memory.
+ *
+ * @author draque.thompson
+ */
+public class SoundCodec {
+
+    private static final int MAGIC = 0x50475343; // "PGSC"
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 4096;
+    private static final int MAX_ORDER = 2;
+    private static final int MAX_RICE = 15;
+    private static final int ORDER_BITS = 2;
+    private static final int RICE_BITS = 4;
+
+    /**
+     * Compresses raw sound
+     *
+     * @param raw raw sound bytes
+     * @return compressed sound, null if null passed
+     */
+    public static byte[] encode(byte[] raw) {
+        if (raw == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 2 + 16);
+        try (DataOutputStream header = new DataOutputStream(bytes)) {
+            header.writeInt(MAGIC);
+            header.writeByte(VERSION);
+            header.writeInt(raw.length);
+            header.flush();
+
+            BitWriter writer = new BitWriter(bytes);
+            int[] residuals = new int[BLOCK_SIZE];
+            int hist1 = 0;
+            int hist2 = 0;
+
+            for (int start = 0; start < raw.length; start += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, raw.length - start);
+                int bestOrder = 0;
+                long bestCost = Long.MAX_VALUE;
+                int bestRice = 0;
+
+                for (int order = 0; order <= MAX_ORDER; order++) {
+                    fillResiduals(raw, start, count, order, hist1, hist2, residuals);
+                    int rice = bestRiceParam(residuals, count);
+                    long cost = riceCost(residuals, count, rice);
+
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestOrder = order;
+                        bestRice = rice;
+                    }
+                }
+
+                fillResiduals(raw, start, count, bestOrder, hist1, hist2, residuals);
+                writer.write(bestOrder, ORDER_BITS);
+                writer.write(bestRice, RICE_BITS);
+
+                for (int i = 0; i < count; i++) {
+                    writer.writeRice(residuals[i], bestRice);
+                }
+
+                hist2 = count > 1 ? raw[start + count - 2] : hist1;
+                hist1 = raw[start + count - 1];
+            }
+
+            writer.flush();
+        } catch (IOException e) {
+            // writing to memory; cannot happen
+            throw new IllegalStateException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses sound in full. Prefer getDecodingStream() for playback.
+     *
+     * @param encoded compressed sound
+     * @return raw sound bytes, null if null passed
+     * @throws IOException if data is not a valid compressed sound
+     */
+    public static byte[] decode(byte[] encoded) throws IOException {
+        if (encoded == null) {
+            return null;
+        }
+
+        try (InputStream in = getDecodingStream(encoded)) {
+            byte[] ret = new byte[getSampleCount(encoded)];
+            int pos = 0;
+
+            while (pos < ret.length) {
+                int read = in.read(ret, pos, ret.length - pos);
+                if (read == -1) {
+                    throw new IOException("Compressed sound truncated.");
+                }
+                pos += read;
+            }
+
+            return ret;
+        }
+    }
+
+    /**
+     * Returns stream which decodes sound as it is read
+     *
+     * @param encoded compressed sound
+     * @return stream of raw sound bytes
+     * @throws IOException if data is not a valid compressed sound
+     */
+    public static InputStream getDecodingStream(byte[] encoded) throws IOException {
+        return new DecodingStream(new ByteArrayInputStream(encoded));
+    }
+
+    /**
+     * Returns number of raw bytes the compressed sound represents
+     *
+     * @param encoded compressed sound
+     * @return length of raw sound
+     * @throws IOException if data is not a valid compressed sound
+     */
+    public static int getSampleCount(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        return readHeader(in);
+    }
+
+    /**
+     * Tests whether bytes are a compressed sound (as opposed to raw legacy
+     * recordings)
+     *
+     * @param data bytes to test
+     * @return true if compressed by this codec
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null
+                && data.length >= 9
+                && ((data[0] & 0xff) << 24 | (data[1] & 0xff) << 16
+                | (data[2] & 0xff) << 8 | (data[3] & 0xff)) == MAGIC;
+    }
+
+    private static int readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compressed sound.");
+        }
+
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sound version: " + version);
+        }
+
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt sound header.");
+        }
+
+        return length;
+    }
+
+    private static int predict(int order, int hist1, int hist2) {
+        switch (order) {
+            case 0:
+                return 0;
+            case 1:
+                return hist1;
+            default:
+                return 2 * hist1 - hist2;
+        }
+    }
+
+    private static void fillResiduals(byte[] raw, int start, int count, int order,
+            int hist1, int hist2, int[] residuals) {
+        for (int i = 0; i < count; i++) {
+            int sample = raw[start + i];
+            residuals[i] = sample - predict(order, hist1, hist2);
+            hist2 = hist1;
+            hist1 = sample;
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int bestRiceParam(int[] residuals, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += zigZag(residuals[i]);
+        }
+
+        // mean of the mapped residuals gives a near optimal parameter
+        int ret = 0;
+        long mean = count == 0 ? 0 : sum / count;
+        while (ret < MAX_RICE && (1L << (ret + 1)) <= mean) {
+            ret++;
+        }
+
+        return ret;
+    }
+
+    private static long riceCost(int[] residuals, int count, int rice) {
+        long ret = 0;
+        for (int i = 0; i < count; i++) {
+            ret += (zigZag(residuals[i]) >>> rice) + 1 + rice;
+        }
+        return ret;
+    }
+
+    /**
+     * Packs values into a byte stream bit by bit
+     */
+    private static class BitWriter {
+
+        private final ByteArrayOutputStream out;
+        private int buffer = 0;
+        private int bitCount = 0;
+
+        BitWriter(ByteArrayOutputStream _out) {
+            out = _out;
+        }
+
+        void writeBit(int bit) {
+            buffer = (buffer << 1) | (bit & 1);
+            bitCount++;
+
+            if (bitCount == 8) {
+                out.write(buffer);
+                buffer = 0;
+                bitCount = 0;
+            }
+        }
+
+        void write(int value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                writeBit(value >>> i);
+            }
+        }
+
+        void writeRice(int value, int rice) {
+            int mapped = zigZag(value);
+
+            for (int quotient = mapped >>> rice; quotient > 0; quotient--) {
+                writeBit(1);
+            }
+            writeBit(0);
+            write(mapped, rice);
+        }
+
+        void flush() {
+            while (bitCount != 0) {
+                writeBit(0);
+            }
+        }
+    }
+
+    /**
+     * Decodes compressed sound on demand, one block at a time
+     */
+    private static class DecodingStream extends InputStream {
+
+        private final InputStream in;
+        private final int length;
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int blockPos = 0;
+        private int blockLen = 0;
+        private int produced = 0;
+        private int hist1 = 0;
+        private int hist2 = 0;
+        private int buffer = 0;
+        private int bitCount = 0;
+
+        DecodingStream(InputStream _in) throws IOException {
+            in = _in;
+            length = readHeader(new DataInputStream(in));
+        }
+
+        private int readBit() throws IOException {
+            if (bitCount == 0) {
+                buffer = in.read();
+                if (buffer == -1) {
+                    throw new IOException("Compressed sound truncated.");
+                }
+                bitCount = 8;
+            }
+
+            bitCount--;
+            return (buffer >>> bitCount) & 1;
+        }
+
+        private int readBits(int bits) throws IOException {
+            int ret = 0;
+            for (int i = 0; i < bits; i++) {
+                ret = (ret << 1) | readBit();
+            }
+            return ret;
+        }
+
+        private boolean fillBlock() throws IOException {
+            int remaining = length - produced;
+            if (remaining <= 0) {
+                return false;
+            }
+
+            int count = Math.min(BLOCK_SIZE, remaining);
+            int order = readBits(ORDER_BITS);
+            int rice = readBits(RICE_BITS);
+
+            for (int i = 0; i < count; i++) {
+                int quotient = 0;
+                while (readBit() == 1) {
+                    quotient++;
+                }
+
+                int mapped = (quotient << rice) | readBits(rice);
+                int sample = unZigZag(mapped) + predict(order, hist1, hist2);
+                block[i] = (byte) sample;
+                hist2 = hist1;
+                hist1 = sample;
+            }
+
+            blockPos = 0;
+            blockLen = count;
+            produced += count;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (blockPos == blockLen && !fillBlock()) {
+                return -1;
+            }
+
+            return block[blockPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (blockPos == blockLen && !fillBlock()) {
+                return -1;
+            }
+
+            int ret = Math.min(len, blockLen - blockPos);
+            System.arraycopy(block, blockPos, b, off, ret);
+            blockPos += ret;
+            return ret;
+        }
+
+        @Override
+        public int available() {
+            return (length - produced) + (blockLen - blockPos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Callable;
 import javafx.embed.swing.JFXPanel;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
@@ -50,6 +51,9 @@ import javax.swing.JTextField;
 public class SoundRecorder {
 
     private byte[] sound;
+    private byte[] encodedSound;
+    private Callable<byte[]> soundSource;
+    private boolean newRecording = false;
     private boolean curRecording = false;
     private boolean playing = false;
     private boolean killPlay = false;
@@ -145,7 +149,7 @@ public class SoundRecorder {
     /**
      * Returns recorded sound as byte array
      *
-     * @return recorded sound, null if none
+     * @return recorded sound, null if none (or if sound set via source)
      */
     public byte[] getSound() {
         return sound;
@@ -153,9 +157,45 @@ public class SoundRecorder {
 
     public void setSound(byte[] _sound) {
         sound = _sound;
+        encodedSound = null;
+        soundSource = null;
+        newRecording = false;
         playPauseBut.setIcon(_sound == null ? playUp : playDown);
     }
 
+    /**
+     * Sets source of compressed sound (see SoundCodec). The source is not
+     * called until the sound is first played, and playback decodes as it goes.
+     *
+     * @param _soundSource supplies compressed sound, null for no sound
+     */
+    public void setSoundSource(Callable<byte[]> _soundSource) {
+        sound = null;
+        encodedSound = null;
+        soundSource = _soundSource;
+        newRecording = false;
+        playPauseBut.setIcon(_soundSource == null ? playUp : playDown);
+    }
+
+    /**
+     * Tests whether recorder holds any sound, recorded or from source
+     *
+     * @return true if sound exists
+     */
+    public boolean hasSound() {
+        return sound != null || soundSource != null;
+    }
+
+    /**
+     * Tests whether the current sound was recorded since the sound was last
+     * set
+     *
+     * @return true if sound is a new recording
+     */
+    public boolean isNewRecording() {
+        return newRecording;
+    }
+
     /**
      * wipes prior sound (if any) and begins recording of new one
      *
@@ -164,6 +204,8 @@ public class SoundRecorder {
      */
     public void beginRecording() throws LineUnavailableException, Exception {
         sound = null;
+        encodedSound = null;
+        soundSource = null;
         killPlay = true;
         try {
             Thread.sleep(timeToDie);
@@ -265,6 +307,7 @@ public class SoundRecorder {
         out.close();
 
         sound = out.toByteArray();
+        newRecording = true;
     }
 
     /**
@@ -279,13 +322,36 @@ public class SoundRecorder {
             endRecording();
         }
 
-        if (sound == null) {
+        if (!hasSound()) {
             return;
         }
 
-        final InputStream input = new ByteArrayInputStream(sound);
+        final InputStream input;
+        final int soundLength;
+
+        if (sound != null) {
+            input = new ByteArrayInputStream(sound);
+            soundLength = sound.length;
+        } else {
+            // compressed sound is fetched on first play, then decoded as played
+            if (encodedSound == null) {
+                try {
+                    encodedSound = soundSource.call();
+                } catch (Exception e) {
+                    throw new IOException("Unable to load sound: " + e.getLocalizedMessage());
+                }
+
+                if (encodedSound == null) {
+                    return;
+                }
+            }
+
+            input = SoundCodec.getDecodingStream(encodedSound);
+            soundLength = SoundCodec.getSampleCount(encodedSound);
+        }
+
         final AudioInputStream ais = new AudioInputStream(input,
-                format, sound.length / format.getFrameSize());
+                format, soundLength / format.getFrameSize());
 
         final DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
 
@@ -42,6 +42,12 @@ import java.util.regex.Pattern;
  */
 public class WebInterface {
 
+    // archived images are referenced by id, unarchived by temp file path
+    private static final Pattern ARCHIVED_IMAGE = Pattern.compile("(<img src=\"[^>,_]+\">)");
+    private static final Pattern UNARCHIVED_IMAGE = Pattern.compile("(<img src=\"[^>,_]+_[^>]+\">)");
+    private static final Pattern IMAGE_URL = Pattern.compile(
+            "<img src=\"" + ImageURLHandler.PROTOCOL + ":\\d+/(\\d+)\">");
+
     /**
      * Checks for updates to PolyGlot
      *
@@ -89,7 +95,7 @@ public class WebInterface {
      * @return 
      */
     public static String getTextFromHtml(String text) {
-        return text.replaceAll("<[^>]+>", "").trim();
+        return ParsedHtml.stripTags(text);
     }
     
     /**
@@ -101,9 +107,12 @@ public class WebInterface {
      * @throws java.lang.Exception
      */
     public static String unarchiveHTML(String html, DictCore core) throws Exception {
-        // pattern for finding archived images
-        Pattern pattern = Pattern.compile("(<img src=\"[^>,_]+\">)");
-        Matcher matcher = pattern.matcher(html);
+        if (!html.contains("<img")) {
+            return html;
+        }
+        
+        Matcher matcher = ARCHIVED_IMAGE.matcher(html);
+        StringBuffer ret = new StringBuffer();
         
         while (matcher.find()) {
             String regPath = matcher.group(1);
@@ -113,13 +122,15 @@ public class WebInterface {
             try {
                 int imageId = Integer.parseInt(regPath);
                 ImageNode image = (ImageNode)core.getImageCollection().getNodeById(imageId);
-                html = html.replace("<img src=\""+ regPath + "\">", "<img src=\"file:///"+ image.getImagePath() + "\">");
+                matcher.appendReplacement(ret, Matcher.quoteReplacement(
+                        "<img src=\""+ core.getImageCollection().getImageURL(image) + "\">"));
             } catch (Exception e) {
                 throw new Exception("problem loading image : " + e.getLocalizedMessage());
             }
         }
+        matcher.appendTail(ret);
         
-        return html;
+        return ret.toString();
     }
     
     /**
@@ -129,58 +140,90 @@ public class WebInterface {
      * @return archivable html
      */
     public static String archiveHTML(String html) {
-        // pattern for finding unarchived images
-        Pattern pattern = Pattern.compile("(<img src=\"[^>,_]+_[^>]+\">)");
-        Matcher matcher = pattern.matcher(html);
+        if (!html.contains("<img")) {
+            return html;
+        }
+        
+        // images served from memory
+        html = IMAGE_URL.matcher(html).replaceAll("<img src=\"$1\">");
+        
+        // images displayed from temp files
+        if (!html.contains("file:///")) {
+            return html;
+        }
+        
+        Matcher matcher = UNARCHIVED_IMAGE.matcher(html);
+        StringBuffer ret = new StringBuffer();
         
         while (matcher.find()) {
-            String regPath = matcher.group(1);
-            regPath = regPath.replace("<img src=\"file:///", "");
+            String tag = matcher.group(1);
+            String regPath = tag.replace("<img src=\"file:///", "");
             regPath = regPath.replace("\"", "");
             regPath = regPath.replace(">", "");
             String fileName = IOHandler.getFilenameFromPath(regPath);
             String arcPath = fileName.replaceFirst("_.*", "");
-            html = html.replace("file:///" + regPath, arcPath);
+            matcher.appendReplacement(ret, Matcher.quoteReplacement(
+                    tag.replace("file:///" + regPath, arcPath)));
         }
+        matcher.appendTail(ret);
         
-        return html;
+        return ret.toString();
     }
     
     /**
      * This cycles through the body of HTML and generates an ordered list of objects
      * representing all of the items in the HTML. Consumers are responsible for
-     * identifying objects.
+     * identifying objects. Images from the image collection are returned as
+     * their ImageNode, any others as a BufferedImage.
      * @param html HTML to extract from
      * @param core dictionary core
      * @return 
      * @throws java.io.IOException 
      */
     public static List<Object> getElementsHTMLBody(String html, DictCore core) throws IOException {
+        return getElementsHTMLBody(ParsedHtml.parse(html), core);
+    }
+    
+    /**
+     * As getElementsHTMLBody(String, DictCore), from already parsed HTML
+     * (such as a word's cached definition)
+     * @param parsed parsed HTML to extract from
+     * @param core dictionary core
+     * @return 
+     * @throws java.io.IOException 
+     */
+    public static List<Object> getElementsHTMLBody(ParsedHtml parsed, DictCore core) throws IOException {
         List<Object> ret = new ArrayList<>();
-        String body = html.replaceAll(".*<body>", "");
-        body = body.replaceAll("</body>.*", "");
-        Pattern pattern = Pattern.compile("([^<]+|<[^>]+>)");//("(<[^>]+>)");
-        Matcher matcher = pattern.matcher(body);
         
-        // loops on unincumbered text and tags.
-        while (matcher.find()) {
-            String token = matcher.group(1);
-            if (token.startsWith("<")) {
-                if (token.contains("<img src=\"")) {
-                    String path = token.replace("<img src=\"file:///", "").replace("\">", "");
-                    ret.add(IOHandler.getImage(path));
-                } else {
-                    // do nothing with unrecognized elements - might be upgraded later.
-                }
+        for (Object element : parsed.getElements()) {
+            if (element instanceof ParsedHtml.ImageRef) {
+                ParsedHtml.ImageRef ref = (ParsedHtml.ImageRef) element;
+                ImageNode image = getArchivedImage(ref.getImageId(), core);
+                ret.add(image == null ? IOHandler.getImage(ref.getPath()) : image);
             } else {
-                // this is plaintext
-                String add = token.trim();
-                if (!add.equals("")) {
-                    ret.add(add + " ");
-                }
+                ret.add(element);
             }
         }
         
         return ret;
     }
+
+    /**
+     * Finds image in collection by id, if any
+     * @param imageId id of image, -1 if not a collection image
+     * @param core dictionary core
+     * @return image node, null if not found
+     */
+    private static ImageNode getArchivedImage(int imageId, DictCore core) {
+        if (imageId == -1) {
+            return null;
+        }
+
+        try {
+            return (ImageNode) core.getImageCollection().getNodeById(imageId);
+        } catch (Exception e) {
+            // not an archived image: fall back to reading file
+            return null;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks literal prefixes/suffixes used to narrow the words a rule is tested
+ * against. A wrong (too long) literal skips words the rule matches.
+ *
+ * @author draque.thompson
+ */
+public class DeclensionImpactAnalyzerTest {
+
+    @Test
+    public void testPlainLiterals() {
+        assertEquals("ab", DeclensionImpactAnalyzer.literalPrefix("^ab.*"));
+        assertEquals("ab", DeclensionImpactAnalyzer.literalPrefix("abc?"));
+        assertEquals("xy", DeclensionImpactAnalyzer.literalSuffix(".*xy$"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*xy+"));
+        assertEquals("a.b", DeclensionImpactAnalyzer.literalPrefix("a\\.b.*"));
+        assertEquals("a.b", DeclensionImpactAnalyzer.literalSuffix(".*a\\.b"));
+    }
+
+    @Test
+    public void testMultiCharacterEscapeSuffixes() {
+        assertEquals("bc", DeclensionImpactAnalyzer.literalSuffix("\\u0101bc"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\x41"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\x{41}"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\cA"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\0101"));
+        assertEquals("1", DeclensionImpactAnalyzer.literalSuffix(".*\\0101" + "1"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\p{Lu}"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\Qab\\E"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*\\d"));
+        assertEquals("", DeclensionImpactAnalyzer.literalSuffix(".*[ab]"));
+    }
+
+    @Test
+    public void testMultiCharacterEscapePrefixes() {
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\u0101bc"));
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\x41.*"));
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\cA.*"));
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\0101.*"));
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\p{L}ab"));
+        assertEquals("", DeclensionImpactAnalyzer.literalPrefix("\\Qab\\E.*"));
+        assertEquals("a", DeclensionImpactAnalyzer.literalPrefix("a\\p{L}b"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot.ManagersCollections;
+
+import PolyGlot.DeclensionDimension;
+import PolyGlot.DictCore;
+import PolyGlot.Nodes.ConWord;
+import PolyGlot.Nodes.DeclensionGenRule;
+import PolyGlot.Nodes.DeclensionGenTransform;
+import PolyGlot.Nodes.DeclensionNode;
+import PolyGlot.Nodes.DeclensionPair;
+import PolyGlot.Nodes.TypeNode;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks that bulk regeneration works from the rules and word types captured
+ * when it is created.
+ *
+ * @author draque.thompson
+ */
+public class DeclensionRegenerationTest {
+
+    @Test
+    public void testWordRetypedAfterCreation() throws Exception {
+        DictCore core = new DictCore();
+        int nounId = addType(core, "noun");
+        addRules(core, nounId, ".*");
+        ConWord word = addWord(core, "kat", nounId);
+        DeclensionRegeneration regen = core.getDeclensionManager()
+                .createRegeneration(core.getWordCollection().getWordNodes());
+
+        // type unknown when regeneration was created
+        word.setWordTypeId(addType(core, "verb"));
+        List<DeclensionRegeneration.FormChange> changes = regen.run();
+
+        assertEquals(2, changes.size());
+        assertEquals("kat-sg", changes.get(0).newValue);
+        assertEquals("kat-pl", changes.get(1).newValue);
+    }
+
+    @Test
+    public void testTypeWithoutRules() throws Exception {
+        DictCore core = new DictCore();
+        addWord(core, "kat", addType(core, "noun"));
+        DeclensionRegeneration regen = core.getDeclensionManager()
+                .createRegeneration(core.getWordCollection().getWordNodes());
+
+        assertEquals(0, regen.run().size());
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testMalformedRule() throws Exception {
+        DictCore core = new DictCore();
+        int nounId = addType(core, "noun");
+        addRules(core, nounId, "(");
+        addWord(core, "kat", nounId);
+
+        core.getDeclensionManager().createRegeneration(core.getWordCollection().getWordNodes());
+    }
+
+    private static int addType(DictCore core, String name) throws Exception {
+        TypeNode type = new TypeNode();
+        type.setValue(name);
+        return core.getTypes().addNode(type);
+    }
+
+    private static ConWord addWord(DictCore core, String value, int typeId) throws Exception {
+        ConWord word = new ConWord();
+        word.setValue(value);
+        word.setLocalWord(value);
+        word.setWordTypeId(typeId);
+        return core.getWordCollection().getNodeById(core.getWordCollection().addWord(word));
+    }
+
+    /**
+     * Gives type a number declension (singular and plural) with a rule for
+     * each form appending the form's name
+     */
+    private static void addRules(DictCore core, int typeId, String regex) {
+        DeclensionManager decMan = core.getDeclensionManager();
+        DeclensionNode number = decMan.addDeclensionToTemplate(typeId, "number");
+
+        for (String value : new String[]{"sg", "pl"}) {
+            DeclensionDimension dim = new DeclensionDimension(-1);
+            dim.setValue(value);
+            number.addDimension(dim);
+        }
+
+        for (DeclensionPair curPair : decMan.getAllCombinedIds(typeId)) {
+            DeclensionGenRule rule = new DeclensionGenRule(typeId, curPair.combinedId);
+            DeclensionGenTransform transform = new DeclensionGenTransform();
+            rule.setRegex(regex);
+            transform.regex = "$";
+            transform.replaceText = "-" + curPair.label;
+            rule.addTransform(transform);
+            decMan.addDeclensionGenRule(rule);
+        }
+    }
+}
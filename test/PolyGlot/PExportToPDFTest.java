@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, draque.thompson
+ * All rights reserved.
+ *
+ * Licensed under: Creative Commons Attribution-NonCommercial 4.0 International Public License
+ *  See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package PolyGlot;
+
+import PolyGlot.Nodes.ConWord;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import java.io.File;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Exports a generated dictionary and checks the resulting document. Entries
+ * are streamed page by page, so this guards against lost or duplicated
+ * entries, and against standard fonts being embedded per entry again. The
+ * elapsed time of the export is printed as a rough benchmark.
+ *
+ * @author draque.thompson
+ */
+public class PExportToPDFTest {
+
+    private static final int WORD_COUNT = 1500;
+
+    @Test
+    public void testDictionaryExport() throws Exception {
+        DictCore core = new DictCore();
+
+        for (int i = 0; i < WORD_COUNT; i++) {
+            ConWord word = new ConWord();
+            word.setValue(String.format("kel%04d", i));
+            word.setLocalWord(String.format("loc%04d", i));
+            word.setDefinition("definition of word " + i);
+            core.getWordCollection().addWord(word);
+        }
+
+        File target = File.createTempFile("PExportToPDFTest", ".pdf");
+        target.deleteOnExit();
+
+        PExportToPDF export = new PExportToPDF(core, target.getPath());
+        export.setPrintConLocal(true);
+        export.setPrintLocalCon(true);
+        export.setPrintPageNumber(true);
+
+        long start = System.currentTimeMillis();
+        export.print();
+        System.out.println("PExportToPDFTest: " + WORD_COUNT + " words, "
+                + export.getPageCount() + " pages, " + target.length() + " bytes in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        assertEquals("", export.getLog());
+
+        PdfDocument doc = new PdfDocument(new PdfReader(target.getPath()));
+        StringBuilder text = new StringBuilder();
+        Set<PdfDictionary> timesBold = Collections.newSetFromMap(new IdentityHashMap<PdfDictionary, Boolean>());
+
+        try {
+            assertEquals(export.getPageCount(), doc.getNumberOfPages());
+            // same as before entries were streamed
+            assertEquals(176, doc.getNumberOfPages());
+
+            for (int i = 1; i <= doc.getNumberOfPages(); i++) {
+                text.append(PdfTextExtractor.getTextFromPage(doc.getPage(i))).append('\n');
+                PdfDictionary fonts = doc.getPage(i).getResources().getResource(PdfName.Font);
+
+                if (fonts != null) {
+                    for (PdfName curName : fonts.keySet()) {
+                        PdfDictionary curFont = fonts.getAsDictionary(curName);
+
+                        if (new PdfName("Times-Bold").equals(curFont.getAsName(PdfName.BaseFont))) {
+                            timesBold.add(curFont);
+                        }
+                    }
+                }
+            }
+        } finally {
+            doc.close();
+        }
+
+        // each word appears in both dictionaries
+        for (int i = 0; i < WORD_COUNT; i++) {
+            String conWord = String.format("kel%04d", i);
+            String localWord = String.format("loc%04d", i);
+            assertTrue(conWord, text.indexOf(conWord) != text.lastIndexOf(conWord));
+            assertTrue(localWord, text.indexOf(localWord) != text.lastIndexOf(localWord));
+        }
+
+        assertEquals(1, timesBold.size());
+    }
+}